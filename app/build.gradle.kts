@@ -45,5 +45,4 @@ dependencies {
     implementation(libs.swiperefreshlayout)
     implementation(libs.glide)
     implementation(libs.gson)
-    implementation(libs.asynclayoutinflater)
 }
\ No newline at end of file
@@ -0,0 +1,137 @@
+package com.example.myapplication.adapter;
+
+import android.content.Context;
+import android.os.Debug;
+import android.view.ContextThemeWrapper;
+import androidx.recyclerview.widget.LinearLayoutManager;
+import androidx.recyclerview.widget.RecyclerView;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+import com.example.myapplication.R;
+import com.example.myapplication.adapter.viewholder.BaseViewHolder;
+import com.example.myapplication.model.NewsBean;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import static org.junit.Assert.*;
+
+/**
+ * 绑定时的内存分配：onBindViewHolder 除了卡片内容本身（setText 等）之外不应再分配对象
+ */
+@RunWith(AndroidJUnit4.class)
+@SuppressWarnings("deprecation")
+public class NewsAdapterBindAllocationTest {
+
+    private static final int ITEM_COUNT = 8;
+    private static final int WARMUP = 200;
+    private static final int ITERATIONS = 2000;
+
+    @Test
+    public void bindAllocatesNothingBeyondContent() {
+        InstrumentationRegistry.getInstrumentation().runOnMainSync(() -> {
+            NewsAdapter adapter = new NewsAdapter(textItems());
+            BaseViewHolder holder = adapter.createViewHolder(newParent(), adapter.getItemViewType(0));
+
+            // 预热：让 JIT、TextView 内部缓存稳定下来
+            bindThroughAdapter(adapter, holder, WARMUP);
+            bindContentOnly(adapter, holder, WARMUP);
+
+            long adapterAllocs = countAllocations(() -> bindThroughAdapter(adapter, holder, ITERATIONS));
+            long contentAllocs = countAllocations(() -> bindContentOnly(adapter, holder, ITERATIONS));
+
+            // 每次绑定多一个监听对象就会多出 ITERATIONS 次分配，这里允许少量抖动
+            long extra = adapterAllocs - contentAllocs;
+            assertTrue("onBindViewHolder allocated " + extra + " extra objects in "
+                    + ITERATIONS + " binds", extra < ITERATIONS / 10);
+        });
+    }
+
+    @Test
+    public void actionsResolveCurrentItem() {
+        InstrumentationRegistry.getInstrumentation().runOnMainSync(() -> {
+            List<NewsBean> items = textItems();
+            NewsAdapter adapter = new NewsAdapter(items);
+            List<String> received = new ArrayList<>();
+            adapter.setOnItemActionListener((action, position, item) -> {
+                received.add(action + ":" + position + ":" + item.title);
+                return true;
+            });
+
+            assertTrue(adapter.dispatchItemAction(NewsAdapter.ACTION_SHARE, 3));
+            assertTrue(adapter.dispatchItemAction(NewsAdapter.ACTION_DISLIKE, 0));
+            assertFalse(adapter.dispatchItemAction(NewsAdapter.ACTION_CLICK, ITEM_COUNT));
+            assertFalse(adapter.dispatchItemAction(NewsAdapter.ACTION_CLICK, -1));
+
+            assertEquals(2, received.size());
+            assertEquals(NewsAdapter.ACTION_SHARE + ":3:" + items.get(3).title, received.get(0));
+            assertEquals(NewsAdapter.ACTION_DISLIKE + ":0:" + items.get(0).title, received.get(1));
+        });
+    }
+
+    @Test
+    public void findPositionFollowsReplacedList() {
+        InstrumentationRegistry.getInstrumentation().runOnMainSync(() -> {
+            List<NewsBean> items = textItems();
+            NewsAdapter adapter = new NewsAdapter(items);
+            long firstId = items.get(0).getStableId();
+            assertEquals(0, adapter.findPosition(firstId));
+
+            // 弹窗期间列表被整体替换：按稳定标识找到卡片的新位置
+            List<NewsBean> reversed = new ArrayList<>(items);
+            Collections.reverse(reversed);
+            adapter.replaceData(reversed, null);
+            assertEquals(ITEM_COUNT - 1, adapter.findPosition(firstId));
+
+            adapter.replaceData(items.subList(1, ITEM_COUNT), null);
+            assertEquals(RecyclerView.NO_POSITION, adapter.findPosition(firstId));
+        });
+    }
+
+    private static void bindThroughAdapter(NewsAdapter adapter, BaseViewHolder holder, int times) {
+        for (int i = 0; i < times; i++) {
+            adapter.onBindViewHolder(holder, i % ITEM_COUNT);
+        }
+    }
+
+    private static void bindContentOnly(NewsAdapter adapter, BaseViewHolder holder, int times) {
+        for (int i = 0; i < times; i++) {
+            holder.bind(adapter.getItem(i % ITEM_COUNT));
+        }
+    }
+
+    private static long countAllocations(Runnable work) {
+        Debug.resetThreadAllocCount();
+        Debug.startAllocCounting();
+        try {
+            work.run();
+            return Debug.getThreadAllocCount();
+        } finally {
+            Debug.stopAllocCounting();
+        }
+    }
+
+    private static RecyclerView newParent() {
+        Context context = new ContextThemeWrapper(
+                InstrumentationRegistry.getInstrumentation().getTargetContext(), R.style.Theme_MyApplication);
+        RecyclerView parent = new RecyclerView(context);
+        parent.setLayoutManager(new LinearLayoutManager(context));
+        return parent;
+    }
+
+    private static List<NewsBean> textItems() {
+        List<NewsBean> items = new ArrayList<>();
+        for (int i = 0; i < ITEM_COUNT; i++) {
+            NewsBean news = new NewsBean();
+            news.id = "n" + i;
+            news.type = NewsBean.TYPE_TEXT;
+            news.title = "标题 " + i;
+            news.author = "作者 " + i;
+            items.add(news);
+        }
+        return items;
+    }
+}
@@ -1,8 +1,7 @@
 package com.example.myapplication;
 
 import android.os.Bundle;
-import android.os.Handler;
-import android.os.Looper;
+import android.os.SystemClock;
 import android.widget.Toast;
 import androidx.annotation.NonNull;
 import androidx.appcompat.app.AppCompatActivity;
@@ -10,14 +9,29 @@ import androidx.recyclerview.widget.RecyclerView;
 import androidx.swiperefreshlayout.widget.SwipeRefreshLayout;
 import androidx.recyclerview.widget.GridLayoutManager;
 import com.google.android.material.tabs.TabLayout;
-import com.bumptech.glide.Glide;
 import com.example.myapplication.adapter.NewsAdapter;
 import com.example.myapplication.adapter.preload.CardPrerenderer;
+import com.example.myapplication.adapter.preload.ChannelPrefetcher;
+import com.example.myapplication.adapter.preload.ImagePrefetcher;
 import com.example.myapplication.adapter.preload.LayoutPreloader;
+import com.example.myapplication.adapter.preload.PrerenderedViewPool;
 import com.example.myapplication.adapter.preload.VideoPreloader;
 import com.example.myapplication.adapter.viewholder.BaseViewHolder;
+import com.example.myapplication.cache.FeedMemoryCache;
+import com.example.myapplication.exposure.ConsoleExposureSink;
+import com.example.myapplication.exposure.ExposureConfig;
+import com.example.myapplication.exposure.ExposureEngine;
+import com.example.myapplication.exposure.ExposureFrameDriver;
+import com.example.myapplication.exposure.ExposureReporter;
+import com.example.myapplication.exposure.ExposureScanner;
+import com.example.myapplication.image.FeedImageLoader;
+import com.example.myapplication.image.ImageRequestThrottler;
 import com.example.myapplication.model.NewsBean;
+import com.example.myapplication.repository.FetchScheduler;
 import com.example.myapplication.repository.NewsRepository;
+import com.example.myapplication.scroll.ScrollVelocityTracker;
+import com.example.myapplication.video.AutoPlayScheduler;
+import com.example.myapplication.video.PlayerPool;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
@@ -31,9 +45,16 @@ public class MainActivity extends AppCompatActivity {
     // 记录当前正在显示的文件名，默认为推荐
     private String currentFileName = "news_recommend.json";
 
-    // 内存中的数据缓存
-    private List<NewsBean> currentDataList = new ArrayList<>();
-    
+    // 列表中的数据属于哪个频道：首屏到达或从快照恢复时设置，新频道开始加载时清空
+    // 切换频道后新数据到达前列表还是旧频道的，不能当作新频道的快照保存
+    private String loadedFileName;
+
+    // 按Tab顺序排列的频道文件
+    private static final String[] CHANNEL_FILES = {
+            "news_focus.json", "news_recommend.json", "news_hot.json",
+            "news_Beijing.json", "news_discovery.json", "news_video.json"
+    };
+
     // 数据仓库（网络+缓存）
     private NewsRepository newsRepository;
     
@@ -46,6 +67,46 @@ public class MainActivity extends AppCompatActivity {
     // 卡片预渲染器
     private CardPrerenderer cardPrerenderer;
 
+    // 信息流卡片复用池：按卡片类型设置容量，切换频道后继续复用，本页面内其他卡片列表也可共用
+    private final PrerenderedViewPool feedViewPool = new PrerenderedViewPool();
+
+    // 相邻频道预取器
+    private ChannelPrefetcher channelPrefetcher;
+
+    // 列表滑动速度：滑动监听统一更新，自动播放调度、图片限流、图片预取共用
+    private final ScrollVelocityTracker scrollVelocityTracker = new ScrollVelocityTracker();
+
+    // 卡片图片加载：按卡片尺寸解码，统计每次滑动的解码量
+    private FeedImageLoader imageLoader;
+
+    // 图片请求限流：按滑动速度和帧耗时切换正常加载 / 只加载缩略图 / 暂停
+    private ImageRequestThrottler imageThrottler;
+
+    // 图片预取：按滑动方向和速度预取前方卡片的图片
+    private ImagePrefetcher imagePrefetcher;
+
+    // 视频卡片共享的播放器池：最多一个在播放、一个为下一个候选预热，播放进度在主线程计时
+    private final PlayerPool playerPool = new PlayerPool(new PlayerPool.Scheduler() {
+        private final android.os.Handler handler = new android.os.Handler(android.os.Looper.getMainLooper());
+
+        @Override
+        public void postDelayed(Runnable task, long delayMs) {
+            handler.postDelayed(task, delayMs);
+        }
+
+        @Override
+        public void remove(Runnable task) {
+            handler.removeCallbacks(task);
+        }
+    });
+
+    // 自动播放调度：候选稳定且列表停下或滑得足够慢才起播
+    private AutoPlayScheduler autoPlayScheduler;
+
+    // 频道内存缓存（数据 + 滚动位置 + 曝光状态），上限为最大堆的1/32
+    private final FeedMemoryCache feedMemoryCache =
+            new FeedMemoryCache((int) Math.min(Runtime.getRuntime().maxMemory() / 32, Integer.MAX_VALUE));
+
     @Override
     protected void onCreate(Bundle savedInstanceState) {
         super.onCreate(savedInstanceState);
@@ -58,13 +119,31 @@ public class MainActivity extends AppCompatActivity {
 
         // 1. 初始化数据仓库和预加载器
         newsRepository = new NewsRepository(this);
+        // 热榜更新频繁，缓存有效期缩短为5分钟
+        newsRepository.setCacheExpireTime("news_hot.json", 5 * 60 * 1000);
         videoPreloader = new VideoPreloader(this);
         layoutPreloader = new LayoutPreloader(this);
         cardPrerenderer = new CardPrerenderer();
+        imageLoader = new FeedImageLoader(this);
+        float density = getResources().getDisplayMetrics().density;
+        float refreshRate = getWindowManager().getDefaultDisplay().getRefreshRate();
+        imageThrottler = new ImageRequestThrottler(this::onImageThrottleLevelChanged, scrollVelocityTracker,
+                IMAGE_THUMBNAIL_VELOCITY_DP_PER_MS * density, IMAGE_PAUSE_VELOCITY_DP_PER_MS * density,
+                1000f / (refreshRate > 0 ? refreshRate : 60f));
+        imagePrefetcher = new ImagePrefetcher(imageLoader, scrollVelocityTracker);
+        autoPlayScheduler = new AutoPlayScheduler(autoPlayListener, scrollVelocityTracker,
+                AUTO_PLAY_MAX_VELOCITY_DP_PER_MS * density);
+        channelPrefetcher = new ChannelPrefetcher(imagePrefetcher, newsRepository, feedMemoryCache, CHANNEL_FILES);
         
         // 2. 初始化界面控件和监听器
         initView();
 
+        // 调试控制台作为曝光事件的一个输出（页面上没有控制台时不输出）
+        android.widget.TextView console = findViewById(R.id.tv_console);
+        if (console != null) {
+            exposureReporter.addSink(new ConsoleExposureSink(console));
+        }
+
         // 3. 首次进入，加载默认数据 (推荐)
         loadDataFromRepository(currentFileName);
     }
@@ -95,40 +174,37 @@ public class MainActivity extends AppCompatActivity {
         gridLayoutManager.setItemPrefetchEnabled(true); // 开启预取
 
         // 初始化 adapter，并设置布局预加载器
-        adapter = new NewsAdapter(currentDataList);
+        adapter = new NewsAdapter(new ArrayList<>());
         adapter.setLayoutPreloader(layoutPreloader);
+        adapter.setImageLoader(imageLoader);
+        adapter.setPlayerPool(playerPool);
+        adapter.configureRecycledViewPool(feedViewPool);
+        recyclerView.setRecycledViewPool(feedViewPool);
         recyclerView.setAdapter(adapter);
+        // 预渲染的卡片放进同一个复用池，滑动时直接取用
+        cardPrerenderer.attach(recyclerView, adapter, feedViewPool);
+        imagePrefetcher.attach(recyclerView, adapter);
         
         // 启动布局预加载（在RecyclerView设置好后）
         recyclerView.post(() -> layoutPreloader.startPreload(recyclerView));
 
-        adapter.setOnItemLongClickListener(position -> {
-            new androidx.appcompat.app.AlertDialog.Builder(MainActivity.this)
-                    .setTitle("提示")
-                    .setMessage("确定要删除这条内容吗？")
-                    .setPositiveButton("删除", (dialog, which) -> {
-                        adapter.removeItem(position);
-                        Toast.makeText(MainActivity.this, "删除成功", Toast.LENGTH_SHORT).show();
-                    })
-                    .setNegativeButton("取消", null)
-                    .show();
-        });
+        adapter.setOnItemActionListener(this::onItemAction);
 
         //初始化 SwipeRefreshLayout (下拉刷新)
         swipeRefreshLayout = findViewById(R.id.swipe_refresh);
         swipeRefreshLayout.setColorSchemeResources(android.R.color.holo_red_light); // 设置红色转圈
 
         swipeRefreshLayout.setOnRefreshListener(() -> {
-            // 下拉刷新：强制从网络获取
-            newsRepository.forceRefresh(currentFileName, new NewsRepository.DataCallback() {
+            // 下拉刷新：强制从网络获取，并取消还在下发中的分页
+            cancelChannelLoad();
+            channelLoadHandle = newsRepository.forceRefresh(currentFileName, new NewsRepository.DataCallback() {
                 @Override
                 public void onSuccess(List<NewsBean> data, boolean fromCache) {
-                    // 模拟更新：打乱顺序，假装是新新闻
-                    Collections.shuffle(data);
-                    
-                    currentDataList.clear();
-                    currentDataList.addAll(data);
-                    adapter.setNewData(currentDataList);
+                    // 模拟更新：打乱顺序，假装是新新闻（差异计算后只派发移动事件）
+                    List<NewsBean> shuffled = new ArrayList<>(data);
+                    Collections.shuffle(shuffled);
+                    adapter.setNewData(shuffled);
+                    resetPaging(shuffled.size());
                     
                     Toast.makeText(MainActivity.this, "刷新成功", Toast.LENGTH_SHORT).show();
                     swipeRefreshLayout.setRefreshing(false);
@@ -144,22 +220,35 @@ public class MainActivity extends AppCompatActivity {
 
         // 初始化 加载更多 (滑动到底部监听) + 性能优化
         recyclerView.addOnScrollListener(new RecyclerView.OnScrollListener() {
+            private int lastState = RecyclerView.SCROLL_STATE_IDLE;
+
             @Override
             public void onScrollStateChanged(@NonNull RecyclerView recyclerView, int newState) {
                 super.onScrollStateChanged(recyclerView, newState);
-                // 滑动时暂停图片加载，停止后恢复 - 提升滑动流畅性
+                // 从静止开始滑动：结束上一次滑动的图片解码统计（切换频道时输出，这一帧不写控制台）
+                if (lastState == RecyclerView.SCROLL_STATE_IDLE && newState != RecyclerView.SCROLL_STATE_IDLE) {
+                    imageLoader.startScrollSession();
+                }
+                lastState = newState;
+                boolean idle = newState == RecyclerView.SCROLL_STATE_IDLE;
+                scrollVelocityTracker.onScrollStateChanged(idle);
+                // 图片请求限流：停下后恢复正常加载
+                imageThrottler.onScrollStateChanged(SystemClock.uptimeMillis());
+                if (idle) {
+                    // 停下来后下一帧就检测，尽快起播
+                    exposureDriver.invalidate();
+                    imagePrefetcher.prefetch();
+                }
                 // 更新卡片预渲染器的滑动状态
                 cardPrerenderer.setScrolling(newState != RecyclerView.SCROLL_STATE_IDLE);
+                // 滑动中暂停相邻频道预取
+                channelPrefetcher.setScrolling(newState != RecyclerView.SCROLL_STATE_IDLE);
                 
                 if (newState == RecyclerView.SCROLL_STATE_IDLE) {
-                    Glide.with(MainActivity.this).resumeRequests();
-                    // 停止滑动时预加载后面的图片和视频
-                    preloadImages();
+                    // 停止滑动时预加载后面的视频
                     preloadVideos();
                     // 触发卡片预渲染
                     prerenderCards();
-                } else {
-                    Glide.with(MainActivity.this).pauseRequests();
                 }
             }
 
@@ -168,14 +257,19 @@ public class MainActivity extends AppCompatActivity {
                 super.onScrolled(recyclerView, dx, dy);
                 // dy > 0 表示手指向下滑动
 
-                checkExposure();
+                if (dy != 0) {
+                    long now = SystemClock.uptimeMillis();
+                    scrollVelocityTracker.onScrolled(dy, now);
+                    imageThrottler.onScrolled(now);
+                    imagePrefetcher.onScrolled();
+                }
+                exposureDriver.invalidate();
                 if (dy > 0) {
-                    int visibleItemCount = recyclerView.getChildCount();
-                    int totalItemCount = recyclerView.getItemDecorationCount();
-                    int firstVisibleItemPosition = recyclerView.getVerticalScrollbarPosition();
+                    GridLayoutManager layoutManager = (GridLayoutManager) recyclerView.getLayoutManager();
+                    int lastVisible = layoutManager.findLastVisibleItemPosition();
 
-                    // 判断是否滑到底部
-                    if ((visibleItemCount + firstVisibleItemPosition) >= totalItemCount) {
+                    // 距离底部不足阈值时提前加载下一页
+                    if (lastVisible >= adapter.getItemCount() - LOAD_MORE_THRESHOLD) {
                         loadMoreData();
                     }
                 }
@@ -226,12 +320,72 @@ public class MainActivity extends AppCompatActivity {
 
     }
 
+    /**
+     * 图片请求限流档位变化：交给图片加载，恢复正常时补上限流期间跳过的预取
+     */
+    private void onImageThrottleLevelChanged(int level) {
+        imageLoader.setThrottleLevel(level);
+        if (level == ImageRequestThrottler.LEVEL_FULL) {
+            imagePrefetcher.prefetch();
+        }
+    }
+
+    /**
+     * 卡片操作：长按弹出菜单，不感兴趣从列表移除，分享调起系统分享
+     */
+    private boolean onItemAction(int action, int position, NewsBean item) {
+        switch (action) {
+            case NewsAdapter.ACTION_LONG_CLICK:
+                long stableId = item.getStableId();
+                new androidx.appcompat.app.AlertDialog.Builder(MainActivity.this)
+                        .setItems(new String[]{"不感兴趣", "分享"}, (dialog, which) -> {
+                            // 弹窗期间列表可能已刷新或删除过，按稳定标识重新找到这张卡片
+                            int current = adapter.findPosition(stableId);
+                            if (current == RecyclerView.NO_POSITION) return;
+                            adapter.dispatchItemAction(which == 0
+                                    ? NewsAdapter.ACTION_DISLIKE : NewsAdapter.ACTION_SHARE, current);
+                        })
+                        .show();
+                return true;
+            case NewsAdapter.ACTION_DISLIKE:
+                adapter.removeItem(item);
+                Toast.makeText(MainActivity.this, "将减少此类内容推荐", Toast.LENGTH_SHORT).show();
+                return true;
+            case NewsAdapter.ACTION_SHARE:
+                android.content.Intent share = new android.content.Intent(android.content.Intent.ACTION_SEND);
+                share.setType("text/plain");
+                share.putExtra(android.content.Intent.EXTRA_TEXT, item.title);
+                startActivity(android.content.Intent.createChooser(share, "分享到"));
+                return true;
+            default:
+                // 暂无详情页，点击不处理
+                return false;
+        }
+    }
+
     //切换频道
     private void switchContent(String tabName) {
         // 切换前停止当前视频播放并清除预加载缓存
         stopAllVideoPlayback();
+        logExposure("播放器 " + playerPool.getStats());
+        logExposure("自动播放 " + autoPlayScheduler.getStats());
         videoPreloader.clearCache();
+        logExposure("视频预加载 " + videoPreloader.getStats());
         cardPrerenderer.clearCache();
+        imagePrefetcher.cancelAll();
+        logExposure("图片预取 " + imagePrefetcher.getStats());
+        logExposure("图片限流 " + imageThrottler.getStats());
+        logExposure("图片解码 " + imageLoader.getStats() + " " + imageLoader.getSessionStats());
+        // 旧频道还在排队的布局预加载不再需要，新频道数据到达后按新的卡片占比重新分配
+        layoutPreloader.cancelPending();
+        logExposure("布局预加载 " + layoutPreloader.getStats());
+        int unknownCards = adapter.getCardTypeRegistry().getUnknownCount();
+        if (unknownCards > 0) {
+            logExposure("未识别的卡片类型 " + unknownCards + " 条（按纯文本展示）");
+        }
+
+        // 保存当前频道的数据、滚动位置和曝光状态
+        saveChannelState(currentFileName);
         
         // 1. 根据名字映射到对应的 JSON 文件名
         switch (tabName) {
@@ -256,117 +410,215 @@ public class MainActivity extends AppCompatActivity {
                 break;
         }
 
-        // 2. 读取新文件并刷新列表
+        // 2. 内存中有该频道的快照时直接恢复，不走仓库
+        FeedMemoryCache.ChannelState state = feedMemoryCache.get(currentFileName);
+        if (state != null) {
+            restoreChannelState(state);
+            return;
+        }
+
+        // 3. 读取新文件并刷新列表（如果该频道正在预取，请求会被合并）
+        loadedFileName = null;
+        exposureEngine.reset();
+        cancelPageLoad();
+        nextCursor = null;
         loadDataFromRepository(currentFileName);
+        channelPrefetcher.cancelAll();
 
-        // 3. 切换后自动回到顶部
+        // 4. 切换后自动回到顶部
         recyclerView.scrollToPosition(0);
     }
 
+    /**
+     * 把当前频道的列表、滚动位置、曝光状态存入内存缓存
+     * 该频道的首屏还没到达（列表里还是上一个频道的数据）时不保存
+     */
+    private void saveChannelState(String fileName) {
+        if (!fileName.equals(loadedFileName)) return;
+        GridLayoutManager layoutManager = (GridLayoutManager) recyclerView.getLayoutManager();
+        if (layoutManager == null) return;
+
+        int position = layoutManager.findFirstVisibleItemPosition();
+        int offset = 0;
+        android.view.View first = layoutManager.findViewByPosition(position);
+        if (first != null) {
+            offset = first.getTop() - recyclerView.getPaddingTop();
+        }
+        feedMemoryCache.put(fileName, new FeedMemoryCache.ChannelState(
+                adapter.getCurrentList(), Math.max(position, 0), offset, exposureEngine.snapshot(), nextCursor));
+    }
+
+    /**
+     * 从内存快照恢复频道，零IO、零解析
+     */
+    private void restoreChannelState(FeedMemoryCache.ChannelState state) {
+        // 取消还在进行中的旧请求
+        cancelChannelLoad();
+        swipeRefreshLayout.setRefreshing(false);
+
+        exposureEngine.restore(state.exposureStates);
+        resetPaging(state.data.size());
+        if (state.nextCursor != null) nextCursor = state.nextCursor;
+        adapter.replaceData(state.data, () -> {
+            loadedFileName = currentFileName;
+            GridLayoutManager layoutManager = (GridLayoutManager) recyclerView.getLayoutManager();
+            if (layoutManager != null) {
+                layoutManager.scrollToPositionWithOffset(state.scrollPosition, state.scrollOffset);
+            }
+            exposureDriver.invalidate();
+        });
+        channelPrefetcher.prefetchNeighbours(currentFileName);
+    }
+
+
+    // 当前频道的加载请求，切换频道/刷新时取消，旧请求不再回调
+    private FetchScheduler.FetchHandle channelLoadHandle;
+
+    private void cancelChannelLoad() {
+        if (channelLoadHandle != null) {
+            channelLoadHandle.cancel();
+            channelLoadHandle = null;
+        }
+    }
 
     /**
      * 从数据仓库加载数据
-     * 策略：网络优先，失败时使用本地缓存
+     * 策略：有缓存先展示缓存，过期时后台刷新；无缓存时网络优先，失败时使用本地缓存
+     * 数据分批下发：首屏先展示，其余批次通过 addData 追加
      */
     private void loadDataFromRepository(String fileName) {
         // 显示加载中
         swipeRefreshLayout.setRefreshing(true);
-        
-        newsRepository.fetchNews(fileName, new NewsRepository.DataCallback() {
-            @Override
-            public void onSuccess(List<NewsBean> data, boolean fromCache) {
-                currentDataList.clear();
-                currentDataList.addAll(data);
-                adapter.setNewData(currentDataList);
-                recyclerView.post(() -> checkExposure());
-                
-                // 提示数据来源
-                if (fromCache) {
-                    Toast.makeText(MainActivity.this, "网络异常，已加载缓存数据", Toast.LENGTH_SHORT).show();
-                }
-                swipeRefreshLayout.setRefreshing(false);
-            }
+        cancelChannelLoad();
+        channelLoadHandle = newsRepository.fetchNewsPaged(fileName, new ChannelLoadCallback(fileName));
+    }
 
-            @Override
-            public void onError(String message) {
-                Toast.makeText(MainActivity.this, message, Toast.LENGTH_SHORT).show();
+    /**
+     * 频道加载回调：接收分页数据和后台刷新结果
+     */
+    private class ChannelLoadCallback implements NewsRepository.PagedDataCallback,
+            NewsRepository.RevalidationListener {
+
+        private final String fileName;
+        private final long startTime = android.os.SystemClock.uptimeMillis();
+        private int delivered = 0;
+
+        ChannelLoadCallback(String fileName) {
+            this.fileName = fileName;
+        }
+
+        @Override
+        public void onPage(List<NewsBean> page, int pageIndex, boolean last, boolean fromCache) {
+            delivered += page.size();
+            if (pageIndex == 0) {
+                adapter.replaceData(page, () -> {
+                    loadedFileName = fileName;
+                    exposureDriver.invalidate();
+                });
                 swipeRefreshLayout.setRefreshing(false);
+                logExposure("首屏 " + page.size() + " 条" + (fromCache ? "(缓存)" : "") + "，耗时 "
+                        + (android.os.SystemClock.uptimeMillis() - startTime) + "ms");
+            } else if (!page.isEmpty()) {
+                adapter.addData(page);
             }
-        });
+            if (last) {
+                // 首屏数据下发完，之后按游标加载更多
+                resetPaging(delivered);
+                // 当前频道加载完，空闲时预取左右相邻频道
+                channelPrefetcher.prefetchNeighbours(fileName);
+            }
+        }
+
+        @Override
+        public void onRevalidated(List<NewsBean> fresh) {
+            adapter.setNewData(fresh);
+            resetPaging(fresh.size());
+            logExposure("后台刷新完成 " + fileName + ": " + newsRepository.getCacheStats().forChannel(fileName));
+        }
+
+        @Override
+        public void onRevalidateFailed(String message) {
+            Toast.makeText(MainActivity.this, message, Toast.LENGTH_SHORT).show();
+        }
+
+        @Override
+        public void onError(String message) {
+            Toast.makeText(MainActivity.this, message, Toast.LENGTH_SHORT).show();
+            swipeRefreshLayout.setRefreshing(false);
+        }
     }
 
-    //模拟加载更多
-    private boolean isLoading = false;
+    // 加载更多：每页条数、距离底部多少条时开始加载下一页
+    private static final int PAGE_SIZE = 20;
+    private static final int LOAD_MORE_THRESHOLD = 8;
+    // 加载失败后的重试间隔，避免每帧滑动都重新发起
+    private static final long LOAD_MORE_RETRY_DELAY_MS = 1000;
+
+    // 下一页游标，null 表示首屏尚未加载完或没有更多
+    private String nextCursor;
+    // 进行中的加载更多请求，非空时不重复发起
+    private FetchScheduler.FetchHandle pageLoadHandle;
+    private long loadMoreRetryAt = 0;
 
     private void loadMoreData() {
-        if (isLoading) return; // 防止重复触发
-        isLoading = true;
-
-        // 模拟 1秒 加载延迟
-        new Handler(Looper.getMainLooper()).postDelayed(() -> {
-            // 模拟逻辑：从当前数据里复制前3条，追加到末尾
-            List<NewsBean> moreData = new ArrayList<>();
-            if (currentDataList.size() > 0) {
-                // 简单的算法：循环取数据
-                for (int i = 0; i < 3; i++) {
-                    // 防止越界，取余数
-                    moreData.add(currentDataList.get(i % currentDataList.size()));
+        if (pageLoadHandle != null || nextCursor == null) return; // 防止重复触发
+        if (android.os.SystemClock.uptimeMillis() < loadMoreRetryAt) return;
+
+        pageLoadHandle = newsRepository.fetchPage(currentFileName, nextCursor, PAGE_SIZE, new NewsRepository.PageCallback() {
+            @Override
+            public void onPageLoaded(List<NewsBean> items, String cursor) {
+                pageLoadHandle = null;
+                nextCursor = cursor;
+                if (!items.isEmpty()) {
+                    adapter.addData(items); // 通知 Adapter 追加
                 }
             }
 
-            if (moreData.size() > 0) {
-                currentDataList.addAll(moreData); // 同时也更新内存数据
-                adapter.addData(moreData); // 通知 Adapter 追加
-                Toast.makeText(MainActivity.this, "加载了 " + moreData.size() + " 条新内容", Toast.LENGTH_SHORT).show();
+            @Override
+            public void onError(String message) {
+                pageLoadHandle = null;
+                loadMoreRetryAt = android.os.SystemClock.uptimeMillis() + LOAD_MORE_RETRY_DELAY_MS;
+                Toast.makeText(MainActivity.this, message, Toast.LENGTH_SHORT).show();
             }
+        });
+    }
 
-            isLoading = false;
-        }, 1000);
+    private void cancelPageLoad() {
+        if (pageLoadHandle != null) {
+            pageLoadHandle.cancel();
+            pageLoadHandle = null;
+        }
     }
 
     /**
-     * 图片预加载 - 提前加载即将显示的图片
+     * 列表被整体替换后，从已有条数之后重新开始分页
      */
-    private void preloadImages() {
-        GridLayoutManager layoutManager = (GridLayoutManager) recyclerView.getLayoutManager();
-        if (layoutManager == null) return;
-
-        int lastVisible = layoutManager.findLastVisibleItemPosition();
-        // 预加载后面5个item的图片
-        for (int i = lastVisible + 1; i <= lastVisible + 5 && i < currentDataList.size(); i++) {
-            NewsBean item = currentDataList.get(i);
-            if (item.images != null && !item.images.isEmpty()) {
-                for (String url : item.images) {
-                    String imagePath = url.startsWith("http") ? url : "file:///android_asset/images/" + url;
-                    Glide.with(this).load(imagePath).preload();
-                }
-            }
-        }
+    private void resetPaging(int loadedCount) {
+        cancelPageLoad();
+        loadMoreRetryAt = 0;
+        nextCursor = NewsRepository.cursorAfter(loadedCount);
     }
 
     /**
-     * 视频预加载 - 提前加载即将显示的视频封面和数据
+     * 视频预加载 - 下载即将显示的视频的开头片段
      */
     private void preloadVideos() {
         GridLayoutManager layoutManager = (GridLayoutManager) recyclerView.getLayoutManager();
         if (layoutManager == null) return;
 
         int lastVisible = layoutManager.findLastVisibleItemPosition();
-        videoPreloader.preloadVideos(currentDataList, lastVisible, position -> {
-            // 预加载完成回调（可选：打印日志）
-            runOnUiThread(() -> logExposure("视频 " + position + " -> 📥 预加载完成"));
-        });
+        videoPreloader.preloadVideos(adapter.getCurrentList(), lastVisible);
     }
 
     /**
-     * 卡片预渲染 - 在空闲时提前触发即将显示的卡片渲染
+     * 卡片预渲染 - 在空闲时提前创建并绑定即将显示的卡片
      */
     private void prerenderCards() {
         GridLayoutManager layoutManager = (GridLayoutManager) recyclerView.getLayoutManager();
         if (layoutManager == null) return;
 
         int lastVisible = layoutManager.findLastVisibleItemPosition();
-        cardPrerenderer.prerenderWhenIdle(recyclerView, currentDataList, lastVisible);
+        cardPrerenderer.prerenderWhenIdle(lastVisible);
     }
 
     // 测试工具：日志输出
@@ -382,170 +634,158 @@ public class MainActivity extends AppCompatActivity {
         }
     }
 
-    // 曝光检测
-    private java.util.Map<Integer, Integer> exposureStateMap = new java.util.HashMap<>();
-    
-    // 当前正在自动播放的视频位置，-1表示没有
-    private int currentAutoPlayPosition = -1;
+    // 曝光事件上报：主线程只写入环形缓冲区，后台线程批量去重后交给各个输出
+    private final ExposureReporter exposureReporter = new ExposureReporter();
+
+    // 曝光最短停留时间：达到阈值后持续这么久才算曝光，快速划过的卡片不计
+    private static final long EXPOSURE_MIN_DWELL_MS = 500;
+
+    // 曝光检测：状态按 item 稳定标识记录，稳态下每帧不分配对象
+    private final ExposureEngine exposureEngine = new ExposureEngine(
+            ExposureConfig.withMinDwell(EXPOSURE_MIN_DWELL_MS), exposureReporter);
+    private final ExposureScanner exposureScanner = new ExposureScanner(exposureEngine);
+
+    // 由帧回调驱动曝光检测，滑动时每帧检测，静止时低频检测以累计停留时长
+    private final ExposureFrameDriver exposureDriver = new ExposureFrameDriver(this::checkExposure);
+
+    // 超过此速度（dp/ms）新卡片只加载缩略图，超过第二个速度暂停图片请求
+    private static final float IMAGE_THUMBNAIL_VELOCITY_DP_PER_MS = 2f;
+    private static final float IMAGE_PAUSE_VELOCITY_DP_PER_MS = 6f;
+
+    // 允许自动起播的最大滑动速度（dp/ms），甩动中不起播
+    private static final float AUTO_PLAY_MAX_VELOCITY_DP_PER_MS = 1.5f;
+
+    // 本帧露出比例最大的两个视频卡片：第一个露出超过50%时自动播放，另一个预热播放器
+    private int firstVideoPos = -1;
+    private float firstVideoRatio = 0f;
+    private int secondVideoPos = -1;
+    private float secondVideoRatio = 0f;
+
+    private final ExposureScanner.VisibleItemListener autoPlayCandidateListener = (position, view, ratio) -> {
+        if (ratio <= secondVideoRatio) return;
+        RecyclerView.ViewHolder holder = recyclerView.getChildViewHolder(view);
+        if (!(holder instanceof BaseViewHolder) || !((BaseViewHolder) holder).isAutoPlayable()) return;
+        if (ratio > firstVideoRatio) {
+            secondVideoPos = firstVideoPos;
+            secondVideoRatio = firstVideoRatio;
+            firstVideoPos = position;
+            firstVideoRatio = ratio;
+        } else {
+            secondVideoPos = position;
+            secondVideoRatio = ratio;
+        }
+    };
 
-    private void checkExposure() {
+    private void checkExposure(long frameTimeMs) {
         if (recyclerView == null) return;
-        androidx.recyclerview.widget.GridLayoutManager layoutManager =
-                (androidx.recyclerview.widget.GridLayoutManager) recyclerView.getLayoutManager();
-        if (layoutManager == null) return;
-
-        int firstPos = layoutManager.findFirstVisibleItemPosition();
-        int lastPos = layoutManager.findLastVisibleItemPosition();
-
-        // 用于记录最佳自动播放候选（露出比例最大的视频卡片）
-        int bestAutoPlayPos = -1;
-        float bestRatio = 0f;
-
-        // 1. 检测可见区域内的 Item (处理露出)
-        for (int i = firstPos; i <= lastPos; i++) {
-            android.view.View view = layoutManager.findViewByPosition(i);
-            if (view == null) continue;
-
-            android.graphics.Rect globalRect = new android.graphics.Rect();
-            boolean isVisible = view.getGlobalVisibleRect(globalRect);
-
-            if (isVisible) {
-                long visibleHeight = globalRect.height();
-                long totalHeight = view.getHeight();
-                if (totalHeight == 0) totalHeight = 1; // 防止除以0
-
-                float ratio = (float) visibleHeight / totalHeight;
-
-                // 获取旧状态
-                Integer stateObj = exposureStateMap.get(i);
-                int oldState = (stateObj == null) ? 0 : stateObj;
-
-                int newState = oldState;
-
-                // 获取标题用于打印
-                String title = "";
-                if (i >= 0 && i < currentDataList.size()) {
-                    String fullTitle = currentDataList.get(i).title;
-                    title = fullTitle.length() > 5 ? fullTitle.substring(0, 5) : fullTitle;
-                }
-
-                // 状态机流转：只有状态升级时才打印
-                if (ratio > 0 && oldState == 0) {
-                    newState = 1;
-                    logExposure("item " + i + " [" + title + "] -> 🔴 开始露出");
-                }
-                // 加上 newState < 2 判断，防止 ratio 跳变时重复打印
-                if (ratio >= 0.5f && oldState < 2) {
-                    newState = 2;
-                    logExposure("item " + i + " [" + title + "] -> 🟡 露出超过50%");
-                }
-                // 加上 newState < 3 判断
-                if (ratio >= 0.99f && oldState < 3) { // 用 0.99 代替 1.0 防止浮点精度问题
-                    newState = 3;
-                    logExposure("item " + i + " [" + title + "] -> 🟢 完全展示");
-                }
-
-                // 只有状态发生改变时才更新 Map
-                if (newState != oldState) {
-                    exposureStateMap.put(i, newState);
-                }
-
-                // 检查是否为视频卡片，且露出超过50%，记录最佳候选
-                if (ratio >= 0.5f) {
-                    RecyclerView.ViewHolder holder = recyclerView.findViewHolderForAdapterPosition(i);
-                    if (holder instanceof BaseViewHolder) {
-                        BaseViewHolder baseHolder = (BaseViewHolder) holder;
-                        if (baseHolder.isAutoPlayable() && ratio > bestRatio) {
-                            bestRatio = ratio;
-                            bestAutoPlayPos = i;
-                        }
-                    }
-                }
-            }
+        // 连续帧的间隔作为帧耗时，掉帧时图片请求限流
+        imageThrottler.onFrame(frameTimeMs);
+
+        firstVideoPos = -1;
+        firstVideoRatio = 0f;
+        secondVideoPos = -1;
+        secondVideoRatio = 0f;
+        exposureScanner.scan(recyclerView, frameTimeMs, autoPlayCandidateListener);
+
+        // 露出超过50%且比例最大的视频为自动播放候选，另一个预热播放器；何时起播由调度器决定
+        long candidateKey = AutoPlayScheduler.NO_KEY;
+        int candidatePos = -1;
+        int warmUpPos = firstVideoPos;
+        if (firstVideoRatio >= 0.5f) {
+            candidatePos = firstVideoPos;
+            candidateKey = adapter.getItemId(firstVideoPos);
+            warmUpPos = secondVideoPos;
         }
-
-        // 2. 检测消失的 Item (不在可见范围内的)
-        // 使用迭代器安全删除，且只处理还在 Map 里的
-        java.util.Iterator<java.util.Map.Entry<Integer, Integer>> it = exposureStateMap.entrySet().iterator();
-        while (it.hasNext()) {
-            java.util.Map.Entry<Integer, Integer> entry = it.next();
-            int pos = entry.getKey();
-            int state = entry.getValue();
-
-            // 如果当前位置已经不在可见范围内
-            if (pos < firstPos || pos > lastPos) {
-                // 只有当前状态不是 0 (说明之前露出过) 时，才打印消失
-                if (state > 0) {
-                    logExposure("item " + pos + " -> ⚫ 已消失");
-                }
-                // 彻底移除，防止重复检测
-                it.remove();
-            }
+        long warmUpKey = warmUpPos == -1 ? AutoPlayScheduler.NO_KEY : adapter.getItemId(warmUpPos);
+        long deadline = autoPlayScheduler.onFrame(frameTimeMs, candidateKey, candidatePos, warmUpKey);
+        if (deadline != AutoPlayScheduler.NO_DEADLINE) {
+            // 防抖到期时再检测一次，列表静止时不必等下一次低频检测
+            exposureDriver.requestFrameWithin(deadline - frameTimeMs);
         }
-
-        // 3. 处理视频自动播放逻辑
-        handleVideoAutoPlay(bestAutoPlayPos);
     }
 
     /**
-     * 处理视频自动播放
-     * 规则：同一时间只有一个视频自动播放，选择露出比例最大且超过50%的视频
+     * 视频自动播放：同一时间只有一个视频播放，播放按内容的稳定标识交给 PlayerPool，不查找 ViewHolder
      */
-    private void handleVideoAutoPlay(int bestAutoPlayPos) {
-        // 如果最佳候选和当前播放的一样，不做处理
-        if (bestAutoPlayPos == currentAutoPlayPosition) {
-            return;
+    private final AutoPlayScheduler.Listener autoPlayListener = new AutoPlayScheduler.Listener() {
+        @Override
+        public boolean onStartPlayback(long key, int position) {
+            if (!playerPool.play(key)) return false;
+            logExposure("视频 " + position + " -> ▶ 自动播放");
+            // 记录起播耗时：开头片段已预加载时立即可用，否则现场下载
+            NewsBean item = adapter.getItem(position);
+            boolean preloaded = videoPreloader.isPreloaded(item);
+            videoPreloader.startPlayback(item, (url, segment) ->
+                    logExposure("视频 " + position + " -> 开头片段" + (segment == null ? "下载失败"
+                            : preloaded ? "命中预加载" : "现场下载完成")));
+            return true;
         }
 
-        // 停止当前正在播放的视频
-        if (currentAutoPlayPosition != -1) {
-            RecyclerView.ViewHolder oldHolder = recyclerView.findViewHolderForAdapterPosition(currentAutoPlayPosition);
-            if (oldHolder instanceof BaseViewHolder) {
-                BaseViewHolder baseHolder = (BaseViewHolder) oldHolder;
-                if (baseHolder.isAutoPlayable()) {
-                    baseHolder.stopAutoPlay();
-                    logExposure("视频 " + currentAutoPlayPosition + " -> ⏹ 自动停止");
-                }
+        @Override
+        public void onStopPlayback(long key, int position) {
+            if (playerPool.isPlaying(key)) {
+                playerPool.stop(key);
+                logExposure("视频 " + position + " -> ⏹ 自动停止");
             }
         }
 
-        // 开始播放新的视频
-        if (bestAutoPlayPos != -1) {
-            RecyclerView.ViewHolder newHolder = recyclerView.findViewHolderForAdapterPosition(bestAutoPlayPos);
-            if (newHolder instanceof BaseViewHolder) {
-                BaseViewHolder baseHolder = (BaseViewHolder) newHolder;
-                if (baseHolder.isAutoPlayable()) {
-                    baseHolder.startAutoPlay();
-                    logExposure("视频 " + bestAutoPlayPos + " -> ▶ 自动播放");
-                }
-            }
+        @Override
+        public void onWarmUp(long key) {
+            // 下一个候选提前准备播放器，滑到时直接起播
+            playerPool.warmUp(key);
         }
-
-        currentAutoPlayPosition = bestAutoPlayPos;
-    }
+    };
 
     /**
      * 停止所有视频播放（切换Tab或页面时调用）
      */
     private void stopAllVideoPlayback() {
-        if (currentAutoPlayPosition != -1) {
-            RecyclerView.ViewHolder holder = recyclerView.findViewHolderForAdapterPosition(currentAutoPlayPosition);
-            if (holder instanceof BaseViewHolder) {
-                ((BaseViewHolder) holder).stopAutoPlay();
-            }
-            currentAutoPlayPosition = -1;
+        autoPlayScheduler.stopAll(SystemClock.uptimeMillis());
+        playerPool.stopAll();
+    }
+
+    @Override
+    protected void onResume() {
+        super.onResume();
+        exposureDriver.start();
+    }
+
+    @Override
+    protected void onPause() {
+        super.onPause();
+        // 页面不可见时不累计停留时长
+        exposureDriver.stop();
+    }
+
+    @Override
+    public void onTrimMemory(int level) {
+        super.onTrimMemory(level);
+        feedMemoryCache.trimMemory(level);
+        if (layoutPreloader != null) {
+            layoutPreloader.trimMemory(level);
         }
     }
 
     @Override
     protected void onDestroy() {
         super.onDestroy();
+        // 刷出剩余的曝光事件
+        exposureReporter.close();
+        // 取消所有数据请求
+        cancelPageLoad();
+        if (channelPrefetcher != null) {
+            channelPrefetcher.cancelAll();
+        }
+        if (newsRepository != null) {
+            newsRepository.release();
+        }
         // 释放预加载器资源
         if (videoPreloader != null) {
             videoPreloader.release();
         }
+        playerPool.release();
         if (layoutPreloader != null) {
-            layoutPreloader.clear();
+            layoutPreloader.release();
         }
         if (cardPrerenderer != null) {
             cardPrerenderer.clearCache();
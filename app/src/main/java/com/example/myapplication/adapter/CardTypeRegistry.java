@@ -0,0 +1,125 @@
+package com.example.myapplication.adapter;
+
+import android.util.Log;
+import android.util.SparseIntArray;
+import com.example.myapplication.adapter.factory.CardViewHolderFactory;
+import com.example.myapplication.model.NewsBean;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 卡片类型注册表
+ * 1. 每个卡片工厂声明自己匹配的 (数据类型, 排版)，viewType 由注册表按注册顺序分配，不会冲突
+ * 2. 每条数据只解析一次，结果缓存在数据上，之后按 viewType 直接下标取工厂
+ * 3. 没有匹配卡片的数据用兜底卡片展示，并按数据类型计数
+ */
+public class CardTypeRegistry {
+
+    private static final String TAG = "CardTypeRegistry";
+
+    // 注册表版本全局递增，不同注册表、每次注册后的缓存互不干扰
+    private static final AtomicInteger VERSIONS = new AtomicInteger();
+
+    // viewType -> 工厂
+    private final List<CardViewHolderFactory> factories = new ArrayList<>();
+    // (数据类型, 排版) -> viewType
+    private final SparseIntArray exactMatches = new SparseIntArray();
+    // 排版 -> viewType（匹配任意数据类型）
+    private final SparseIntArray spanMatches = new SparseIntArray();
+    // 数据类型 -> 未匹配的条数
+    private final SparseIntArray unknownTypes = new SparseIntArray();
+
+    private int fallbackViewType = -1;
+    private int version = VERSIONS.incrementAndGet();
+
+    /**
+     * 注册卡片
+     * @return 分配给该卡片的 viewType
+     * @throws IllegalArgumentException 已有卡片声明了相同的 (数据类型, 排版)
+     */
+    public int register(CardViewHolderFactory factory) {
+        int dataType = factory.getDataType();
+        int span = factory.getSpan();
+        SparseIntArray matches = dataType == CardViewHolderFactory.ANY_DATA_TYPE ? spanMatches : exactMatches;
+        int key = dataType == CardViewHolderFactory.ANY_DATA_TYPE ? span : key(dataType, span);
+        if (matches.indexOfKey(key) >= 0) {
+            CardViewHolderFactory existing = factories.get(matches.get(key));
+            throw new IllegalArgumentException(factory.getClass().getName() + " conflicts with "
+                    + existing.getClass().getName() + " for type=" + dataType + " span=" + span);
+        }
+        int viewType = factories.size();
+        factories.add(factory);
+        matches.put(key, viewType);
+        // 已缓存在数据上的解析结果失效
+        version = VERSIONS.incrementAndGet();
+        return viewType;
+    }
+
+    /**
+     * 设置兜底卡片（必须已注册）
+     */
+    public void setFallback(int viewType) {
+        if (viewType < 0 || viewType >= factories.size()) {
+            throw new IllegalArgumentException("unknown viewType " + viewType);
+        }
+        fallbackViewType = viewType;
+        version = VERSIONS.incrementAndGet();
+    }
+
+    /**
+     * 解析数据对应的 viewType（主线程调用）
+     */
+    public int resolve(NewsBean item) {
+        int cached = item.getCachedViewType(version);
+        if (cached >= 0) return cached;
+
+        int viewType = exactMatches.get(key(item.type, item.span), -1);
+        if (viewType < 0) {
+            viewType = spanMatches.get(item.span, -1);
+        }
+        if (viewType < 0) {
+            int count = unknownTypes.get(item.type);
+            if (count == 0) {
+                Log.w(TAG, "no card registered for type=" + item.type + " span=" + item.span);
+            }
+            unknownTypes.put(item.type, count + 1);
+            if (fallbackViewType < 0) {
+                throw new IllegalStateException("no card for type=" + item.type + " and no fallback");
+            }
+            viewType = fallbackViewType;
+        }
+        item.cacheViewType(version, viewType);
+        return viewType;
+    }
+
+    /**
+     * 按 viewType 取工厂，O(1)
+     */
+    public CardViewHolderFactory get(int viewType) {
+        return factories.get(viewType);
+    }
+
+    public int size() {
+        return factories.size();
+    }
+
+    /**
+     * 没有匹配卡片的条数，按数据类型统计（key 为数据类型）
+     */
+    public SparseIntArray getUnknownTypeCounts() {
+        return unknownTypes.clone();
+    }
+
+    public int getUnknownCount() {
+        int total = 0;
+        for (int i = 0; i < unknownTypes.size(); i++) {
+            total += unknownTypes.valueAt(i);
+        }
+        return total;
+    }
+
+    private static int key(int dataType, int span) {
+        return (dataType << 8) | (span & 0xff);
+    }
+}
@@ -1,36 +1,88 @@
 package com.example.myapplication.adapter;
 
-import android.util.SparseArray;
+import android.util.SparseIntArray;
 import android.view.View;
 import android.view.ViewGroup;
 import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.AsyncListDiffer;
+import androidx.recyclerview.widget.DiffUtil;
 import androidx.recyclerview.widget.RecyclerView;
 import com.example.myapplication.adapter.factory.*;
 import com.example.myapplication.adapter.preload.LayoutPreloader;
 import com.example.myapplication.adapter.viewholder.BaseViewHolder;
+import com.example.myapplication.image.FeedImageLoader;
 import com.example.myapplication.model.NewsBean;
+import com.example.myapplication.video.PlayerPool;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 /**
  * 新闻列表Adapter
  * 支持插件式扩展卡片类型
  * 集成布局预加载优化
+ * 数据更新通过 AsyncListDiffer 在后台线程计算差异，只刷新变化的卡片
  */
 public class NewsAdapter extends RecyclerView.Adapter<BaseViewHolder> {
 
-    private List<NewsBean> mData;
-    private OnItemLongClickListener longClickListener;
+    // 卡片操作
+    public static final int ACTION_CLICK = 1;
+    public static final int ACTION_LONG_CLICK = 2;
+    public static final int ACTION_DISLIKE = 3;
+    public static final int ACTION_SHARE = 4;
+
+    private static final DiffUtil.ItemCallback<NewsBean> DIFF_CALLBACK = new DiffUtil.ItemCallback<NewsBean>() {
+        @Override
+        public boolean areItemsTheSame(@NonNull NewsBean oldItem, @NonNull NewsBean newItem) {
+            return oldItem.isSameItem(newItem);
+        }
+
+        @Override
+        public boolean areContentsTheSame(@NonNull NewsBean oldItem, @NonNull NewsBean newItem) {
+            return oldItem.equals(newItem);
+        }
+    };
+
+    private final AsyncListDiffer<NewsBean> differ = new AsyncListDiffer<>(this, DIFF_CALLBACK);
+
+    // 最近一次提交的列表（差异可能还在后台计算，尚未生效）
+    private List<NewsBean> latestList = Collections.emptyList();
+    // latestList 中每种布局的卡片数，随增删增量维护，供布局预加载器分配数量
+    private final SparseIntArray layoutCounts = new SparseIntArray();
+
+    // 预绑定的卡片正式绑定时：数据一致跳过 bind 的次数，数据不一致重新 bind 的次数
+    private int prerenderHits = 0;
+    private int prerenderMismatches = 0;
+
+    private OnItemActionListener actionListener;
+
+    // 所有 ViewHolder 共用的操作派发，按 ViewHolder 当前绑定的位置取数据
+    private final BaseViewHolder.ActionDispatcher actionDispatcher = (holder, action) -> {
+        int position = holder.getBindingAdapterPosition();
+        return position != RecyclerView.NO_POSITION && dispatchItemAction(action, position);
+    };
+
+    // 卡片类型注册表：分配 viewType，按 (数据类型, 排版) 匹配卡片
+    private final CardTypeRegistry cardTypes = new CardTypeRegistry();
 
-    // 卡片工厂注册表
-    private final SparseArray<CardViewHolderFactory> factoryRegistry = new SparseArray<>();
-    
     // 布局预加载器
     private LayoutPreloader layoutPreloader;
 
+    // 图片加载（按卡片尺寸解码，回收时取消）
+    private FeedImageLoader imageLoader;
+
+    // 视频卡片共享的播放器池（绑定时挂上，回收时摘下）
+    private PlayerPool playerPool;
+
+    // 按卡片类型设置过容量的复用池
+    private RecyclerView.RecycledViewPool viewPool;
+
     public NewsAdapter(List<NewsBean> data) {
-        this.mData = data;
         // 注册默认卡片类型
         registerDefaultFactories();
+        if (data != null && !data.isEmpty()) {
+            submit(new ArrayList<>(data), null);
+        }
     }
 
     /**
@@ -40,11 +92,26 @@ public class NewsAdapter extends RecyclerView.Adapter<BaseViewHolder> {
         this.layoutPreloader = preloader;
     }
 
+    /**
+     * 设置图片加载器，之后创建的 ViewHolder 使用它加载图片
+     */
+    public void setImageLoader(FeedImageLoader loader) {
+        this.imageLoader = loader;
+    }
+
+    /**
+     * 设置播放器池，之后创建的视频卡片从池里取播放器
+     */
+    public void setPlayerPool(PlayerPool pool) {
+        this.playerPool = pool;
+    }
+
     /**
      * 注册默认的卡片
      */
     private void registerDefaultFactories() {
-        registerCardFactory(new TextCardFactory());
+        // 没有匹配卡片的数据用纯文本卡片展示（会计数）
+        cardTypes.setFallback(registerCardFactory(new TextCardFactory()));
         registerCardFactory(new ThreeImagesCardFactory());
         registerCardFactory(new VideoCardFactory());
         registerCardFactory(new GridCardFactory());
@@ -53,98 +120,250 @@ public class NewsAdapter extends RecyclerView.Adapter<BaseViewHolder> {
 
     /**
      * 注册新的卡片（支持扩展）
+     * @return 分配给该卡片的 viewType
+     * @throws IllegalArgumentException 与已注册的卡片匹配相同的 (数据类型, 排版)
      */
-    public void registerCardFactory(CardViewHolderFactory factory) {
-        factoryRegistry.put(factory.getViewType(), factory);
+    public int registerCardFactory(CardViewHolderFactory factory) {
+        int viewType = cardTypes.register(factory);
+        if (viewPool != null) {
+            applyPoolLimit(viewPool, viewType, factory);
+        }
+        return viewType;
     }
 
-    // 长按监听接口
-    public interface OnItemLongClickListener {
-        void onLongClick(int position);
+    public CardTypeRegistry getCardTypeRegistry() {
+        return cardTypes;
     }
 
-    public void setOnItemLongClickListener(OnItemLongClickListener listener) {
-        this.longClickListener = listener;
+    /**
+     * 按各卡片的复用提示设置复用池容量，之后注册的卡片也会自动设置
+     * 同一个池可以给多个展示新闻卡片的列表共用（需在同一个页面内，View 持有页面 Context）
+     */
+    public void configureRecycledViewPool(RecyclerView.RecycledViewPool pool) {
+        this.viewPool = pool;
+        for (int viewType = 0; viewType < cardTypes.size(); viewType++) {
+            applyPoolLimit(pool, viewType, cardTypes.get(viewType));
+        }
     }
 
-    public void removeItem(int position) {
-        if (position >= 0 && position < mData.size()) {
-            mData.remove(position);
-            notifyItemRemoved(position);
-            notifyItemRangeChanged(position, mData.size() - position);
+    /**
+     * 一屏最多出现的数量 + 余量：创建成本高的卡片多留一屏，其余多留 2 个
+     */
+    private static void applyPoolLimit(RecyclerView.RecycledViewPool pool, int viewType,
+                                       CardViewHolderFactory factory) {
+        int maxOnScreen = factory.getMaxOnScreen();
+        int spare = factory.getInflateCost() >= CardViewHolderFactory.INFLATE_COST_HIGH ? maxOnScreen : 2;
+        pool.setMaxRecycledViews(viewType, maxOnScreen + spare);
+    }
+
+    /**
+     * 卡片操作监听（点击、长按、不感兴趣、分享）
+     */
+    public interface OnItemActionListener {
+        /**
+         * @param action ACTION_* 之一
+         * @return 是否处理了该操作（长按返回 false 时不消费事件）
+         */
+        boolean onItemAction(int action, int position, NewsBean item);
+    }
+
+    public void setOnItemActionListener(OnItemActionListener listener) {
+        this.actionListener = listener;
+    }
+
+    /**
+     * 派发卡片操作，卡片上的按钮和外部菜单（如长按弹出的选项）都走这里
+     * @return 是否有监听处理了该操作
+     */
+    public boolean dispatchItemAction(int action, int position) {
+        List<NewsBean> current = differ.getCurrentList();
+        if (actionListener == null || position < 0 || position >= current.size()) return false;
+        return actionListener.onItemAction(action, position, current.get(position));
+    }
+
+    /**
+     * 按稳定标识查找卡片在当前列表中的位置（列表可能已被刷新或删除过）
+     * @return 不在列表中时返回 RecyclerView.NO_POSITION
+     */
+    public int findPosition(long stableId) {
+        List<NewsBean> current = differ.getCurrentList();
+        for (int i = 0; i < current.size(); i++) {
+            if (current.get(i).getStableId() == stableId) return i;
+        }
+        return RecyclerView.NO_POSITION;
+    }
+
+    /**
+     * 按稳定标识删除卡片，列表刷新过或后台差异未生效时也不会删错
+     */
+    public void removeItem(NewsBean item) {
+        long stableId = item.getStableId();
+        List<NewsBean> next = new ArrayList<>(latestList);
+        for (int i = 0; i < next.size(); i++) {
+            if (next.get(i).getStableId() == stableId) {
+                countLayout(next.remove(i), -1);
+                submit(next, null);
+                return;
+            }
         }
     }
 
+    /**
+     * 替换整个列表，只对有变化的卡片派发插入/移动/更新
+     */
     public void setNewData(List<NewsBean> newData) {
-        this.mData = newData;
-        notifyDataSetChanged();
+        setNewData(newData, null);
+    }
+
+    /**
+     * 替换整个列表
+     * @param onCommitted 差异应用到列表后回调（主线程）
+     */
+    public void setNewData(List<NewsBean> newData, Runnable onCommitted) {
+        recountLayouts(newData);
+        submit(new ArrayList<>(newData), onCommitted);
+    }
+
+    /**
+     * 整体替换列表（如切换频道），新旧数据无关联，不做差异计算
+     * @param onCommitted 列表替换后回调（主线程，同步执行）
+     */
+    public void replaceData(List<NewsBean> newData, Runnable onCommitted) {
+        // 先提交null清空，再提交新列表时旧列表为空，AsyncListDiffer 会直接同步插入
+        differ.submitList(null);
+        recountLayouts(newData);
+        submit(new ArrayList<>(newData), onCommitted);
     }
 
     public void addData(List<NewsBean> moreData) {
-        int startPos = this.mData.size();
-        this.mData.addAll(moreData);
-        notifyItemRangeInserted(startPos, moreData.size());
+        List<NewsBean> next = new ArrayList<>(latestList.size() + moreData.size());
+        next.addAll(latestList);
+        next.addAll(moreData);
+        // 只统计新增的一页，不重新扫描整个列表
+        for (int i = 0; i < moreData.size(); i++) {
+            countLayout(moreData.get(i), 1);
+        }
+        submit(next, null);
+    }
+
+    /**
+     * 当前展示的列表（只读）
+     */
+    public List<NewsBean> getCurrentList() {
+        return differ.getCurrentList();
+    }
+
+    public NewsBean getItem(int position) {
+        return differ.getCurrentList().get(position);
+    }
+
+    /**
+     * 提交新列表，提交后不能再修改该列表
+     */
+    private void submit(List<NewsBean> list, Runnable onCommitted) {
+        latestList = list;
+        differ.submitList(list, onCommitted);
+        if (layoutPreloader != null) {
+            layoutPreloader.updateDemand(layoutCounts);
+        }
     }
 
+    /**
+     * 整个列表替换时重新统计每种布局的卡片数
+     */
+    private void recountLayouts(List<NewsBean> list) {
+        layoutCounts.clear();
+        for (int i = 0; i < list.size(); i++) {
+            countLayout(list.get(i), 1);
+        }
+    }
+
+    private void countLayout(NewsBean item, int delta) {
+        int layoutId = cardTypes.get(cardTypes.resolve(item)).getLayoutId();
+        layoutCounts.put(layoutId, layoutCounts.get(layoutId) + delta);
+    }
+
+    /**
+     * 预绑定命中（正式绑定时数据一致，跳过了 bind）的次数
+     */
+    public int getPrerenderHits() {
+        return prerenderHits;
+    }
+
+    /**
+     * 取到了预绑定的卡片、但要展示的数据不一致（反向滑动、列表变化）只好重新 bind 的次数
+     */
+    public int getPrerenderMismatches() {
+        return prerenderMismatches;
+    }
+
+    /**
+     * 每条数据只匹配一次，之后直接读取缓存在数据上的结果
+     */
     @Override
     public int getItemViewType(int position) {
-        NewsBean item = mData.get(position);
-        // 双列模式
-        if (item.span == NewsBean.SPAN_DOUBLE) {
-            if (item.type == NewsBean.TYPE_VIDEO) {
-                return VideoGridCardFactory.VIEW_TYPE_VIDEO_GRID;
-            }
-            return GridCardFactory.VIEW_TYPE_GRID;
-        }
-        // 单列模式按type返回
-        return item.type;
+        return cardTypes.resolve(getItem(position));
+    }
+
+    /**
+     * 返回数据的稳定标识（未开启 hasStableIds，只用于曝光统计等按内容识别item的场景）
+     */
+    @Override
+    public long getItemId(int position) {
+        return getItem(position).getStableId();
     }
 
     public int getSpanSize(int position) {
-        if (position < 0 || position >= mData.size()) {
+        List<NewsBean> current = differ.getCurrentList();
+        if (position < 0 || position >= current.size()) {
             return NewsBean.SPAN_SINGLE;
         }
-        return mData.get(position).span;
+        return current.get(position).span;
     }
 
     @NonNull
     @Override
     public BaseViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
-        CardViewHolderFactory factory = factoryRegistry.get(viewType);
-        if (factory == null) {
-            factory = factoryRegistry.get(NewsBean.TYPE_TEXT);
-        }
-        
+        CardViewHolderFactory factory = cardTypes.get(viewType);
+        BaseViewHolder holder;
+
         // 尝试使用预加载的View
         if (layoutPreloader != null) {
             int layoutId = factory.getLayoutId();
             View preloadedView = layoutPreloader.getPreloadedView(layoutId, parent);
-            return factory.createViewHolder(preloadedView);
+            holder = factory.createViewHolder(preloadedView);
+        } else {
+            // 没有预加载器，使用默认方式创建
+            holder = factory.createViewHolder(parent);
         }
-        
-        // 没有预加载器，使用默认方式创建
-        return factory.createViewHolder(parent);
+        // 监听只在创建时设置一次，复用时不再重新设置
+        holder.setActionDispatcher(actionDispatcher);
+        holder.setImageLoader(imageLoader);
+        holder.setPlayerPool(playerPool);
+        return holder;
     }
 
     @Override
     public void onBindViewHolder(@NonNull BaseViewHolder holder, int position) {
-        NewsBean news = mData.get(position);
-        holder.bind(news);
-
-        // 长按监听
-        holder.itemView.setOnLongClickListener(v -> {
-            if (longClickListener != null) {
-                int pos = holder.getBindingAdapterPosition();
-                if (pos != RecyclerView.NO_POSITION) {
-                    longClickListener.onLongClick(pos);
-                }
-            }
-            return true;
-        });
+        NewsBean news = getItem(position);
+        // 空闲时已经预绑定过同一条数据，直接复用
+        boolean prerendered = holder.isPrerendered();
+        if (holder.consumePrerendered(news)) {
+            prerenderHits++;
+        } else {
+            if (prerendered) prerenderMismatches++;
+            holder.bind(news);
+        }
+    }
+
+    @Override
+    public void onViewRecycled(@NonNull BaseViewHolder holder) {
+        // 进入复用池的卡片不再需要原来的图片
+        holder.onRecycled();
     }
 
     @Override
     public int getItemCount() {
-        return mData == null ? 0 : mData.size();
+        return differ.getCurrentList().size();
     }
 }
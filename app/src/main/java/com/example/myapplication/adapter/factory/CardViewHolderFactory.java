@@ -1,8 +1,10 @@
 package com.example.myapplication.adapter.factory;
 
+import android.content.Context;
 import android.view.View;
 import android.view.ViewGroup;
 import com.example.myapplication.adapter.viewholder.BaseViewHolder;
+import com.example.myapplication.image.ImageSpec;
 
 /**
  * 卡片ViewHolder接口
@@ -10,10 +12,24 @@ import com.example.myapplication.adapter.viewholder.BaseViewHolder;
  */
 public interface CardViewHolderFactory {
 
+    // 创建（inflate + findViewById）成本
+    int INFLATE_COST_LOW = 1;
+    int INFLATE_COST_NORMAL = 2;
+    int INFLATE_COST_HIGH = 3;
+
+    // getDataType 返回此值表示匹配任意数据类型（只按排版匹配）
+    int ANY_DATA_TYPE = -1;
+
+    /**
+     * 匹配的数据类型（NewsBean.type），或 ANY_DATA_TYPE
+     * viewType 由 CardTypeRegistry 分配，卡片不需要自己定义
+     */
+    int getDataType();
+
     /**
-     * 获取此对应的ViewType
+     * 匹配的排版（NewsBean.SPAN_SINGLE / SPAN_DOUBLE）
      */
-    int getViewType();
+    int getSpan();
 
     /**
      * 获取此对应的布局ID
@@ -29,4 +45,33 @@ public interface CardViewHolderFactory {
      * 使用预加载的View创建ViewHolder
      */
     BaseViewHolder createViewHolder(View preloadedView);
+
+    /**
+     * 一屏最多同时出现的数量（复用池按此确定容量）
+     */
+    default int getMaxOnScreen() {
+        return 5;
+    }
+
+    /**
+     * 创建成本，越高复用池留的余量越多
+     */
+    default int getInflateCost() {
+        return INFLATE_COST_NORMAL;
+    }
+
+    /**
+     * 图片位的解码尺寸，没有图片的卡片返回 null
+     * ViewHolder 加载和图片预取使用同一尺寸，保证命中同一份缓存
+     */
+    default ImageSpec getImageSpec(Context context) {
+        return null;
+    }
+
+    /**
+     * 卡片展示的图片数（取 images 的前几张，数量不足时卡片不展示图片）
+     */
+    default int getImageCount() {
+        return 0;
+    }
 }
@@ -1,22 +1,29 @@
 package com.example.myapplication.adapter.factory;
 
+import android.content.Context;
 import android.view.LayoutInflater;
 import android.view.View;
 import android.view.ViewGroup;
 import com.example.myapplication.R;
 import com.example.myapplication.adapter.viewholder.BaseViewHolder;
 import com.example.myapplication.adapter.viewholder.GridViewHolder;
+import com.example.myapplication.image.ImageSpec;
+import com.example.myapplication.model.NewsBean;
 
 /**
  * 双列卡片
  */
 public class GridCardFactory implements CardViewHolderFactory {
 
-    public static final int VIEW_TYPE_GRID = 100;
+    @Override
+    public int getDataType() {
+        // 双列图文：除视频外的所有类型
+        return ANY_DATA_TYPE;
+    }
 
     @Override
-    public int getViewType() {
-        return VIEW_TYPE_GRID;
+    public int getSpan() {
+        return NewsBean.SPAN_DOUBLE;
     }
 
     @Override
@@ -28,12 +35,35 @@ public class GridCardFactory implements CardViewHolderFactory {
     public BaseViewHolder createViewHolder(ViewGroup parent) {
         return new GridViewHolder(
             LayoutInflater.from(parent.getContext())
-                .inflate(R.layout.item_news_grid, parent, false)
+                .inflate(R.layout.item_news_grid, parent, false),
+            getImageSpec(parent.getContext())
         );
     }
 
     @Override
     public BaseViewHolder createViewHolder(View preloadedView) {
-        return new GridViewHolder(preloadedView);
+        return new GridViewHolder(preloadedView, getImageSpec(preloadedView.getContext()));
+    }
+
+    @Override
+    public int getMaxOnScreen() {
+        // 双列，一屏两列各四张
+        return 8;
+    }
+
+    @Override
+    public int getInflateCost() {
+        return INFLATE_COST_NORMAL;
+    }
+
+    @Override
+    public ImageSpec getImageSpec(Context context) {
+        // 双列：卡片左右内边距 8dp，封面高 120dp
+        return ImageSpec.forColumns(context, 2, 16, 120, true);
+    }
+
+    @Override
+    public int getImageCount() {
+        return 1;
     }
 }
@@ -14,10 +14,15 @@ import com.example.myapplication.model.NewsBean;
 public class TextCardFactory implements CardViewHolderFactory {
 
     @Override
-    public int getViewType() {
+    public int getDataType() {
         return NewsBean.TYPE_TEXT;
     }
 
+    @Override
+    public int getSpan() {
+        return NewsBean.SPAN_SINGLE;
+    }
+
     @Override
     public int getLayoutId() {
         return R.layout.item_news_text;
@@ -35,4 +40,15 @@ public class TextCardFactory implements CardViewHolderFactory {
     public BaseViewHolder createViewHolder(View preloadedView) {
         return new TextViewHolder(preloadedView);
     }
+
+    @Override
+    public int getMaxOnScreen() {
+        // 纯文本卡片矮，一屏能放很多
+        return 8;
+    }
+
+    @Override
+    public int getInflateCost() {
+        return INFLATE_COST_LOW;
+    }
 }
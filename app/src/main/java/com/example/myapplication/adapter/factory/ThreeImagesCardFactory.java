@@ -1,11 +1,13 @@
 package com.example.myapplication.adapter.factory;
 
+import android.content.Context;
 import android.view.LayoutInflater;
 import android.view.View;
 import android.view.ViewGroup;
 import com.example.myapplication.R;
 import com.example.myapplication.adapter.viewholder.BaseViewHolder;
 import com.example.myapplication.adapter.viewholder.ThreeImagesViewHolder;
+import com.example.myapplication.image.ImageSpec;
 import com.example.myapplication.model.NewsBean;
 
 /**
@@ -14,10 +16,15 @@ import com.example.myapplication.model.NewsBean;
 public class ThreeImagesCardFactory implements CardViewHolderFactory {
 
     @Override
-    public int getViewType() {
+    public int getDataType() {
         return NewsBean.TYPE_THREE_IMAGES;
     }
 
+    @Override
+    public int getSpan() {
+        return NewsBean.SPAN_SINGLE;
+    }
+
     @Override
     public int getLayoutId() {
         return R.layout.item_news_three_images;
@@ -27,12 +34,34 @@ public class ThreeImagesCardFactory implements CardViewHolderFactory {
     public BaseViewHolder createViewHolder(ViewGroup parent) {
         return new ThreeImagesViewHolder(
             LayoutInflater.from(parent.getContext())
-                .inflate(R.layout.item_news_three_images, parent, false)
+                .inflate(R.layout.item_news_three_images, parent, false),
+            getImageSpec(parent.getContext())
         );
     }
 
     @Override
     public BaseViewHolder createViewHolder(View preloadedView) {
-        return new ThreeImagesViewHolder(preloadedView);
+        return new ThreeImagesViewHolder(preloadedView, getImageSpec(preloadedView.getContext()));
+    }
+
+    @Override
+    public int getMaxOnScreen() {
+        return 4;
+    }
+
+    @Override
+    public int getInflateCost() {
+        return INFLATE_COST_NORMAL;
+    }
+
+    @Override
+    public ImageSpec getImageSpec(Context context) {
+        // 三张并排：卡片左右内边距 15dp + 图片间距 4dp，高 80dp
+        return ImageSpec.forColumns(context, 3, 13, 80, false);
+    }
+
+    @Override
+    public int getImageCount() {
+        return 3;
     }
 }
@@ -1,11 +1,13 @@
 package com.example.myapplication.adapter.factory;
 
+import android.content.Context;
 import android.view.LayoutInflater;
 import android.view.View;
 import android.view.ViewGroup;
 import com.example.myapplication.R;
 import com.example.myapplication.adapter.viewholder.BaseViewHolder;
 import com.example.myapplication.adapter.viewholder.VideoViewHolder;
+import com.example.myapplication.image.ImageSpec;
 import com.example.myapplication.model.NewsBean;
 
 /**
@@ -14,10 +16,15 @@ import com.example.myapplication.model.NewsBean;
 public class VideoCardFactory implements CardViewHolderFactory {
 
     @Override
-    public int getViewType() {
+    public int getDataType() {
         return NewsBean.TYPE_VIDEO;
     }
 
+    @Override
+    public int getSpan() {
+        return NewsBean.SPAN_SINGLE;
+    }
+
     @Override
     public int getLayoutId() {
         return R.layout.item_news_video;
@@ -27,12 +34,35 @@ public class VideoCardFactory implements CardViewHolderFactory {
     public BaseViewHolder createViewHolder(ViewGroup parent) {
         return new VideoViewHolder(
             LayoutInflater.from(parent.getContext())
-                .inflate(R.layout.item_news_video, parent, false)
+                .inflate(R.layout.item_news_video, parent, false),
+            getImageSpec(parent.getContext())
         );
     }
 
     @Override
     public BaseViewHolder createViewHolder(View preloadedView) {
-        return new VideoViewHolder(preloadedView);
+        return new VideoViewHolder(preloadedView, getImageSpec(preloadedView.getContext()));
+    }
+
+    @Override
+    public int getMaxOnScreen() {
+        return 3;
+    }
+
+    @Override
+    public int getInflateCost() {
+        // 封面 + 播放控件
+        return INFLATE_COST_HIGH;
+    }
+
+    @Override
+    public ImageSpec getImageSpec(Context context) {
+        // 单列：卡片左右内边距 15dp，封面高 200dp
+        return ImageSpec.forColumns(context, 1, 30, 200, true);
+    }
+
+    @Override
+    public int getImageCount() {
+        return 1;
     }
 }
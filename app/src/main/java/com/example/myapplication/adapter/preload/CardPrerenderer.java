@@ -1,107 +1,217 @@
 package com.example.myapplication.adapter.preload;
 
-import android.os.Handler;
-import android.os.Looper;
-import android.util.LruCache;
+import android.util.SparseLongArray;
+import android.view.Choreographer;
+import android.view.Display;
 import androidx.recyclerview.widget.RecyclerView;
+import com.example.myapplication.adapter.NewsAdapter;
 import com.example.myapplication.adapter.viewholder.BaseViewHolder;
 import com.example.myapplication.model.NewsBean;
-import java.util.List;
 
 /**
  * 卡片预渲染器
- * 在空闲时提前绑定数据，控制预渲染时机避免影响滑动流畅性
+ * 列表静止时为即将出现的卡片提前创建并绑定 ViewHolder，放进 PrerenderedViewPool，
+ * 滑动时 RecyclerView 直接取用，不再在滑动的那一帧里 inflate + bind
+ * 1. 每帧绘制完成后才开始工作，创建/绑定一个就检查一次本帧剩余时间，超出预算留到下一帧
+ * 2. 已预渲染的 item 按稳定标识记录，数据增删导致位置变化后不会错乱
+ * 3. 开始滑动立即停止
  */
 public class CardPrerenderer {
 
-    private final Handler mainHandler = new Handler(Looper.getMainLooper());
-    
-    // 预渲染数据缓存（position -> 是否已预渲染）
-    private final LruCache<Integer, Boolean> prerenderedCache = new LruCache<>(50);
-    
+    // 预渲染最后可见位置之后的几个item
+    private static final int PRERENDER_COUNT = 5;
+    // 每种卡片最多预绑定几个
+    private static final int MAX_PER_TYPE = 3;
+    private static final long DEFAULT_FRAME_INTERVAL_NS = 16_666_666L;
+
+    private final Choreographer choreographer = Choreographer.getInstance();
+    private PrerenderedViewPool pool;
+
+    // 每种卡片创建/绑定耗时的滑动平均（纳秒），用于判断本帧是否还来得及
+    private final SparseLongArray createCostNs = new SparseLongArray();
+    private final SparseLongArray bindCostNs = new SparseLongArray();
+
+    private RecyclerView recyclerView;
+    private NewsAdapter adapter;
+    private long frameIntervalNs = DEFAULT_FRAME_INTERVAL_NS;
+
     // 是否正在滑动
     private boolean isScrolling = false;
-    
-    // 预渲染任务
-    private Runnable prerenderTask;
+    private boolean scheduled = false;
+
+    // 本轮预渲染的位置范围 [cursor, endPosition)
+    private int cursor;
+    private int endPosition;
+    private long frameDeadlineNs;
+
+    // 已创建、还没来得及绑定的 ViewHolder（下一帧继续）
+    private BaseViewHolder pendingHolder;
+
+    private int prerenderedCount = 0;
+    private int deferredFrames = 0;
+    private int skippedHeavy = 0;
+
+    private final Choreographer.FrameCallback frameCallback = new Choreographer.FrameCallback() {
+        @Override
+        public void doFrame(long frameTimeNanos) {
+            frameDeadlineNs = frameTimeNanos + frameIntervalNs;
+            // 等本帧布局、绘制完成后再执行（与 RecyclerView GapWorker 的时机一致）
+            recyclerView.post(prerenderTask);
+        }
+    };
+
+    private final Runnable prerenderTask = this::runUntilDeadline;
 
     /**
-     * 设置滑动状态
+     * 绑定到列表
+     * @param pool 列表使用的复用池，预渲染的卡片放在这里
+     */
+    public void attach(RecyclerView recyclerView, NewsAdapter adapter, PrerenderedViewPool pool) {
+        this.recyclerView = recyclerView;
+        this.adapter = adapter;
+        this.pool = pool;
+    }
+
+    /**
+     * 设置滑动状态，开始滑动时立即停止预渲染
      */
     public void setScrolling(boolean scrolling) {
         this.isScrolling = scrolling;
+        if (scrolling) {
+            cancel();
+        }
     }
 
     /**
      * 在空闲时执行预渲染
-     * @param recyclerView RecyclerView实例
-     * @param dataList 数据列表
      * @param lastVisiblePosition 最后可见位置
      */
-    public void prerenderWhenIdle(RecyclerView recyclerView, List<NewsBean> dataList, int lastVisiblePosition) {
-        // 取消之前的任务
-        if (prerenderTask != null) {
-            mainHandler.removeCallbacks(prerenderTask);
+    public void prerenderWhenIdle(int lastVisiblePosition) {
+        if (recyclerView == null || isScrolling) return;
+        // 按屏幕实际刷新率计算每帧预算（attach 时列表可能还没显示出来）
+        Display display = recyclerView.getDisplay();
+        if (display != null && display.getRefreshRate() >= 30f) {
+            frameIntervalNs = (long) (1_000_000_000L / display.getRefreshRate());
         }
+        cursor = lastVisiblePosition + 1;
+        endPosition = Math.min(cursor + PRERENDER_COUNT, adapter.getItemCount());
+        if (cursor >= endPosition) return;
+        scheduleNextFrame();
+    }
 
-        prerenderTask = () -> {
-            // 如果正在滑动，延迟执行
-            if (isScrolling) {
-                mainHandler.postDelayed(prerenderTask, 100);
-                return;
-            }
+    /**
+     * 在本帧剩余时间内逐个创建、绑定
+     */
+    private void runUntilDeadline() {
+        scheduled = false;
+        if (recyclerView == null || isScrolling) return;
 
-            // 预渲染后面5个item
-            int startPos = lastVisiblePosition + 1;
-            int endPos = Math.min(startPos + 5, dataList.size());
+        while (cursor < endPosition && cursor < adapter.getItemCount()) {
+            int position = cursor;
+            NewsBean item = adapter.getItem(position);
+            long stableId = item.getStableId();
+            int viewType = adapter.getItemViewType(position);
 
-            for (int i = startPos; i < endPos; i++) {
-                // 检查是否已预渲染
-                if (prerenderedCache.get(i) != null) {
-                    continue;
-                }
+            // 已预渲染、已在屏幕上、该类型已经够用的跳过
+            if (pool.isPrerendered(stableId)
+                    || recyclerView.findViewHolderForAdapterPosition(position) != null
+                    || pool.getPrerenderedCount(viewType) >= MAX_PER_TYPE) {
+                cursor++;
+                continue;
+            }
 
-                // 标记为已预渲染
-                prerenderedCache.put(i, true);
+            // 一帧都放不下的卡片不做预渲染，交给 RecyclerView 自己的预取
+            if (createCostNs.get(viewType) + bindCostNs.get(viewType) > frameIntervalNs) {
+                skippedHeavy++;
+                cursor++;
+                continue;
+            }
+
+            if (pendingHolder != null && pendingHolder.getItemViewType() != viewType) {
+                pool.putRecycledView(pendingHolder);
+                pendingHolder = null;
+            }
 
-                // 触发RecyclerView的预取机制
-                RecyclerView.ViewHolder holder = recyclerView.findViewHolderForAdapterPosition(i);
-                if (holder instanceof BaseViewHolder) {
-                    // ViewHolder已存在，数据已绑定
-                    continue;
+            if (pendingHolder == null) {
+                if (!fitsInFrame(createCostNs.get(viewType))) break;
+                long start = System.nanoTime();
+                RecyclerView.ViewHolder recycled = pool.takeRecycled(viewType);
+                pendingHolder = recycled != null
+                        ? (BaseViewHolder) recycled
+                        : adapter.createViewHolder(recyclerView, viewType);
+                // 从缓存池复用的不计入创建耗时
+                if (recycled == null) {
+                    recordCost(createCostNs, viewType, System.nanoTime() - start);
                 }
-                
-                // 让RecyclerView知道这个位置即将需要
-                recyclerView.smoothScrollBy(0, 1);
-                recyclerView.smoothScrollBy(0, -1);
             }
-        };
 
-        // 延迟50ms执行，确保滑动完全停止
-        mainHandler.postDelayed(prerenderTask, 50);
+            if (!fitsInFrame(bindCostNs.get(viewType))) break;
+            long start = System.nanoTime();
+            pendingHolder.prerender(item);
+            recordCost(bindCostNs, viewType, System.nanoTime() - start);
+            pool.putPrerendered(stableId, pendingHolder);
+            pendingHolder = null;
+            prerenderedCount++;
+            cursor++;
+        }
+
+        if (cursor < endPosition && cursor < adapter.getItemCount()) {
+            deferredFrames++;
+            scheduleNextFrame();
+        }
+    }
+
+    private boolean fitsInFrame(long estimatedCostNs) {
+        return System.nanoTime() + estimatedCostNs < frameDeadlineNs;
     }
 
     /**
-     * 清除指定位置的预渲染缓存
+     * 耗时滑动平均：新值占 1/4
      */
-    public void invalidate(int position) {
-        prerenderedCache.remove(position);
+    private static void recordCost(SparseLongArray costs, int viewType, long costNs) {
+        long old = costs.get(viewType);
+        costs.put(viewType, old == 0 ? costNs : old / 4 * 3 + costNs / 4);
+    }
+
+    private void scheduleNextFrame() {
+        if (scheduled) return;
+        scheduled = true;
+        choreographer.postFrameCallback(frameCallback);
+    }
+
+    private void cancel() {
+        scheduled = false;
+        choreographer.removeFrameCallback(frameCallback);
+        if (recyclerView != null) {
+            recyclerView.removeCallbacks(prerenderTask);
+        }
+        if (pendingHolder != null) {
+            pool.putRecycledView(pendingHolder);
+            pendingHolder = null;
+        }
     }
 
     /**
-     * 清除所有预渲染缓存
+     * 清除所有预渲染结果（切换频道时调用），已创建的视图退回缓存池继续复用
      */
     public void clearCache() {
-        prerenderedCache.evictAll();
-        if (prerenderTask != null) {
-            mainHandler.removeCallbacks(prerenderTask);
+        cancel();
+        if (pool != null) {
+            pool.discardPrerendered();
         }
     }
 
     /**
-     * 检查是否已预渲染
+     * 检查某个 item 是否已预渲染
      */
-    public boolean isPrerendered(int position) {
-        return prerenderedCache.get(position) != null;
+    public boolean isPrerendered(long stableId) {
+        return pool != null && pool.isPrerendered(stableId);
+    }
+
+    public String getStats() {
+        return "prerendered=" + prerenderedCount
+                + " hits=" + (adapter == null ? 0 : adapter.getPrerenderHits())
+                + " mismatched=" + (adapter == null ? 0 : adapter.getPrerenderMismatches())
+                + " deferredFrames=" + deferredFrames + " skippedHeavy=" + skippedHeavy;
     }
 }
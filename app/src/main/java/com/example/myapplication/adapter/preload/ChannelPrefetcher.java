@@ -0,0 +1,247 @@
+package com.example.myapplication.adapter.preload;
+
+import android.os.Handler;
+import android.os.Looper;
+
+import com.example.myapplication.cache.FeedMemoryCache;
+import com.example.myapplication.model.NewsBean;
+import com.example.myapplication.repository.FetchScheduler;
+import com.example.myapplication.repository.NewsRepository;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 相邻频道预取器
+ * 当前频道空闲后，把左右相邻频道的数据预取到内存缓存，并按卡片尺寸预加载前几张卡片的图片
+ * 1. 同时进行的请求数、预取字节数都有上限
+ * 2. 列表滑动时暂停，不和可见内容抢资源
+ * 3. 请求使用 PRIORITY_PREFETCH，且与正常加载同key：用户点进正在预取的频道时直接合并并提升优先级
+ * 所有方法都在主线程调用
+ */
+public class ChannelPrefetcher {
+
+    // 最多同时进行的预取请求
+    private static final int MAX_CONCURRENT = 1;
+
+    // 每轮预取的字节预算（数据 + 封面图）
+    private static final int DEFAULT_BYTE_BUDGET = 4 * 1024 * 1024;
+
+    // 每个频道预加载图片的卡片数
+    private static final int COVERS_PER_CHANNEL = 4;
+
+    // 空闲多久后开始预取
+    private static final long IDLE_DELAY_MS = 800;
+
+    private final ImagePrefetcher imagePrefetcher;
+    private final NewsRepository repository;
+    private final FeedMemoryCache memoryCache;
+    private final String[] channels;
+    private final Handler handler = new Handler(Looper.getMainLooper());
+    private final int byteBudget;
+
+    private final LinkedList<String> pending = new LinkedList<>();
+    private final Map<String, FetchScheduler.FetchHandle> running = new HashMap<>();
+
+    private String currentChannel;
+    private boolean scrolling = false;
+    private int bytesUsed = 0;
+
+    // 统计
+    private int prefetchedChannels = 0;
+    private long prefetchedBytes = 0;
+    private int skippedByBudget = 0;
+
+    private final Runnable dispatchRunnable = this::dispatch;
+
+    /**
+     * @param imagePrefetcher 图片按卡片尺寸预加载，与列表展示命中同一份缓存，并和列表共用暂停/恢复
+     * @param channels 按Tab顺序排列的频道文件名
+     */
+    public ChannelPrefetcher(ImagePrefetcher imagePrefetcher, NewsRepository repository,
+                             FeedMemoryCache memoryCache, String[] channels) {
+        this(imagePrefetcher, repository, memoryCache, channels, DEFAULT_BYTE_BUDGET);
+    }
+
+    public ChannelPrefetcher(ImagePrefetcher imagePrefetcher, NewsRepository repository,
+                             FeedMemoryCache memoryCache, String[] channels, int byteBudget) {
+        this.imagePrefetcher = imagePrefetcher;
+        this.repository = repository;
+        this.memoryCache = memoryCache;
+        this.channels = channels;
+        this.byteBudget = byteBudget;
+    }
+
+    /**
+     * 当前频道加载完成后调用，安排预取其相邻频道
+     */
+    public void prefetchNeighbours(String channel) {
+        if (!channel.equals(currentChannel)) {
+            // 换了频道：丢弃上一轮的排队和进行中的请求，重置预算
+            cancelAll();
+            currentChannel = channel;
+            bytesUsed = 0;
+        }
+
+        pending.clear();
+        int index = indexOf(channel);
+        if (index < 0) return;
+        // 右边优先（用户更常向后切换）
+        addCandidate(index + 1);
+        addCandidate(index - 1);
+        scheduleDispatch();
+    }
+
+    /**
+     * 列表滑动状态变化：滑动中暂停预取，停止后延迟恢复
+     */
+    public void setScrolling(boolean scrolling) {
+        if (this.scrolling == scrolling) return;
+        this.scrolling = scrolling;
+        if (scrolling) {
+            handler.removeCallbacks(dispatchRunnable);
+            // 进行中的请求取消后放回队首，空闲后重新发起
+            for (String channel : new ArrayList<>(running.keySet())) {
+                running.remove(channel).cancel();
+                pending.addFirst(channel);
+            }
+        } else {
+            scheduleDispatch();
+        }
+    }
+
+    /**
+     * 取消所有预取
+     */
+    public void cancelAll() {
+        handler.removeCallbacks(dispatchRunnable);
+        pending.clear();
+        for (FetchScheduler.FetchHandle handle : running.values()) {
+            handle.cancel();
+        }
+        running.clear();
+    }
+
+    public String getStats() {
+        return "prefetched=" + prefetchedChannels + " bytes=" + prefetchedBytes / 1024 + "KB"
+                + " skippedByBudget=" + skippedByBudget;
+    }
+
+    private void addCandidate(int index) {
+        if (index < 0 || index >= channels.length) return;
+        String channel = channels[index];
+        if (memoryCache.contains(channel) || running.containsKey(channel)) return;
+        pending.add(channel);
+    }
+
+    private void scheduleDispatch() {
+        handler.removeCallbacks(dispatchRunnable);
+        if (!scrolling && !pending.isEmpty()) {
+            handler.postDelayed(dispatchRunnable, IDLE_DELAY_MS);
+        }
+    }
+
+    private void dispatch() {
+        while (!scrolling && running.size() < MAX_CONCURRENT && !pending.isEmpty()) {
+            if (bytesUsed >= byteBudget) {
+                skippedByBudget += pending.size();
+                pending.clear();
+                return;
+            }
+            String channel = pending.removeFirst();
+            if (memoryCache.contains(channel)) continue;
+            running.put(channel, repository.fetchNewsPaged(channel,
+                    NewsRepository.DEFAULT_FIRST_PAGE_SIZE, NewsRepository.DEFAULT_BATCH_SIZE,
+                    FetchScheduler.PRIORITY_PREFETCH, new PrefetchCallback(channel)));
+        }
+    }
+
+    private void onChannelLoaded(String channel, List<NewsBean> data) {
+        running.remove(channel);
+
+        int dataBytes = FeedMemoryCache.estimateBytes(data);
+        if (bytesUsed + dataBytes > byteBudget) {
+            skippedByBudget++;
+        } else {
+            bytesUsed += dataBytes;
+            prefetchedBytes += dataBytes;
+            prefetchedChannels++;
+            memoryCache.put(channel, new FeedMemoryCache.ChannelState(
+                    data, 0, 0, null, null));
+            prefetchCovers(data);
+        }
+
+        if (!scrolling) dispatch();
+    }
+
+    /**
+     * 预加载前几张卡片的图片，按卡片尺寸解码，计入字节预算
+     */
+    private void prefetchCovers(List<NewsBean> data) {
+        int count = 0;
+        for (int i = 0; i < data.size() && count < COVERS_PER_CHANNEL; i++) {
+            NewsBean item = data.get(i);
+            int bytes = imagePrefetcher.estimateBytes(item);
+            if (bytes == 0) continue;
+            if (bytesUsed + bytes > byteBudget) {
+                skippedByBudget++;
+                return;
+            }
+            imagePrefetcher.prefetchDetached(item);
+            bytesUsed += bytes;
+            prefetchedBytes += bytes;
+            count++;
+        }
+    }
+
+    private int indexOf(String channel) {
+        for (int i = 0; i < channels.length; i++) {
+            if (channels[i].equals(channel)) return i;
+        }
+        return -1;
+    }
+
+    /**
+     * 预取回调：攒齐所有分页后写入内存缓存
+     */
+    private class PrefetchCallback implements NewsRepository.PagedDataCallback,
+            NewsRepository.RevalidationListener {
+
+        private final String channel;
+        private final List<NewsBean> data = new ArrayList<>();
+
+        PrefetchCallback(String channel) {
+            this.channel = channel;
+        }
+
+        @Override
+        public void onPage(List<NewsBean> page, int pageIndex, boolean last, boolean fromCache) {
+            data.addAll(page);
+            if (last) {
+                onChannelLoaded(channel, data);
+            }
+        }
+
+        @Override
+        public void onRevalidated(List<NewsBean> fresh) {
+            // 预取到的是过期缓存，后台刷新后替换内存中的快照
+            if (memoryCache.contains(channel) && !channel.equals(currentChannel)) {
+                memoryCache.put(channel, new FeedMemoryCache.ChannelState(
+                        fresh, 0, 0, null, null));
+            }
+        }
+
+        @Override
+        public void onRevalidateFailed(String message) {
+        }
+
+        @Override
+        public void onError(String message) {
+            running.remove(channel);
+            if (!scrolling) dispatch();
+        }
+    }
+}
@@ -0,0 +1,340 @@
+package com.example.myapplication.adapter.preload;
+
+import android.graphics.drawable.Drawable;
+import android.os.SystemClock;
+import android.util.SparseArray;
+import androidx.annotation.Nullable;
+import androidx.recyclerview.widget.LinearLayoutManager;
+import androidx.recyclerview.widget.RecyclerView;
+import com.bumptech.glide.load.DataSource;
+import com.bumptech.glide.load.engine.GlideException;
+import com.bumptech.glide.request.RequestListener;
+import com.bumptech.glide.request.target.Target;
+import com.example.myapplication.adapter.NewsAdapter;
+import com.example.myapplication.adapter.factory.CardViewHolderFactory;
+import com.example.myapplication.image.FeedImageLoader;
+import com.example.myapplication.image.ImageSpec;
+import com.example.myapplication.model.NewsBean;
+import com.example.myapplication.scroll.ScrollVelocityTracker;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+
+/**
+ * 信息流图片预取（类似 Glide 的 RecyclerViewPreloader），由页面的滑动监听驱动
+ * 1. 按滑动方向预取前方的卡片图片，滑得越快（ScrollVelocityTracker）预取得越远；图片请求限流时（FeedImageLoader 不允许加载完整图片）不预取
+ * 2. 解码尺寸取自卡片工厂的 ImageSpec，和 ViewHolder 展示时的请求命中同一份缓存
+ * 3. 同一张图片（地址 + 尺寸）同时只有一个请求
+ * 4. 前方已预取但还没展示的图片受字节预算限制
+ * 5. 滑动反向时取消原方向上还没完成的请求
+ */
+public class ImagePrefetcher {
+
+    // 前方至少预取几个item，最多几个
+    private static final int MIN_AHEAD = 3;
+    private static final int MAX_AHEAD = 12;
+    // 按当前速度预取未来多长时间内会滑到的item
+    private static final long LOOKAHEAD_MS = 800;
+    private static final int DEFAULT_BYTE_BUDGET = 8 * 1024 * 1024;
+
+    private final FeedImageLoader imageLoader;
+    private final ScrollVelocityTracker velocityTracker;
+    private final int byteBudget;
+
+    private RecyclerView recyclerView;
+    private NewsAdapter adapter;
+
+    // viewType -> 图片尺寸（没有图片的卡片为 null）
+    private final SparseArray<ImageSpec> specs = new SparseArray<>();
+    // 图片地址 + 尺寸 -> 前方的预取请求（进行中或已完成、还没展示）
+    private final Map<ImageKey, PrefetchRequest> tracked = new HashMap<>();
+    // 查找 tracked 时复用的键，滑动中不拼接字符串
+    private final ImageKey probe = new ImageKey(null, null);
+    private int trackedBytes = 0;
+
+    // 当前预取的方向：1 向下，-1 向上
+    private int direction = 1;
+    // 上一次预取的范围，范围不变时不重复计算
+    private int prefetchedFrom = -1;
+    private int prefetchedTo = -1;
+
+    private int issuedCount = 0;
+    private int dedupedCount = 0;
+    private int staleCancelled = 0;
+    private int skippedByBudget = 0;
+    private int failedCount = 0;
+
+    public ImagePrefetcher(FeedImageLoader imageLoader, ScrollVelocityTracker velocityTracker) {
+        this(imageLoader, velocityTracker, DEFAULT_BYTE_BUDGET);
+    }
+
+    /**
+     * @param velocityTracker 列表的滑动速度和方向（由页面的滑动监听更新）
+     * @param byteBudget 前方已预取、还没展示的图片的解码字节上限
+     */
+    public ImagePrefetcher(FeedImageLoader imageLoader, ScrollVelocityTracker velocityTracker, int byteBudget) {
+        this.imageLoader = imageLoader;
+        this.velocityTracker = velocityTracker;
+        this.byteBudget = byteBudget;
+    }
+
+    /**
+     * 绑定到列表（滑动事件由页面转交）
+     */
+    public void attach(RecyclerView recyclerView, NewsAdapter adapter) {
+        this.recyclerView = recyclerView;
+        this.adapter = adapter;
+    }
+
+    /**
+     * 列表滑动后调用（velocityTracker 更新之后）：方向变化时取消原方向的请求，再按当前速度预取
+     */
+    public void onScrolled() {
+        int newDirection = velocityTracker.getDirection();
+        if (newDirection != direction) {
+            direction = newDirection;
+            cancelStale();
+        }
+        prefetch();
+    }
+
+    /**
+     * 按当前方向预取前方的图片（列表数据更新、静止、限流解除时也可以主动调用）
+     */
+    public void prefetch() {
+        if (recyclerView == null || !imageLoader.allowsFullLoads()) return;
+        if (!(recyclerView.getLayoutManager() instanceof LinearLayoutManager)) return;
+        LinearLayoutManager layoutManager = (LinearLayoutManager) recyclerView.getLayoutManager();
+        int first = layoutManager.findFirstVisibleItemPosition();
+        int last = layoutManager.findLastVisibleItemPosition();
+        if (first == RecyclerView.NO_POSITION || last == RecyclerView.NO_POSITION) return;
+
+        releaseBehind(first, last);
+
+        int ahead = aheadCount(last - first + 1);
+        int from;
+        int to;
+        if (direction > 0) {
+            from = last + 1;
+            to = Math.min(last + ahead, adapter.getItemCount() - 1);
+        } else {
+            from = Math.max(first - ahead, 0);
+            to = first - 1;
+        }
+        if (from > to || (from == prefetchedFrom && to == prefetchedTo)) return;
+        prefetchedFrom = from;
+        prefetchedTo = to;
+
+        // 从近到远
+        for (int i = 0; i <= to - from; i++) {
+            int position = direction > 0 ? from + i : to - i;
+            if (!prefetchItem(position)) break;
+        }
+    }
+
+    /**
+     * 预估一条数据的图片解码字节数（用于相邻频道预取的预算）
+     */
+    public int estimateBytes(NewsBean item) {
+        int viewType = adapter.getCardTypeRegistry().resolve(item);
+        ImageSpec spec = specFor(viewType);
+        int count = imageCount(item, viewType);
+        return spec == null ? 0 : count * spec.width * spec.height * spec.bytesPerPixel();
+    }
+
+    /**
+     * 按卡片尺寸预取一条数据的图片，不跟随列表位置（相邻频道预取使用）
+     * @return 发起的解码字节数估算
+     */
+    public int prefetchDetached(NewsBean item) {
+        int viewType = adapter.getCardTypeRegistry().resolve(item);
+        ImageSpec spec = specFor(viewType);
+        int count = imageCount(item, viewType);
+        if (spec == null || count == 0) return 0;
+        for (int i = 0; i < count; i++) {
+            imageLoader.preload(item.images.get(i), spec, null);
+        }
+        issuedCount += count;
+        return count * spec.width * spec.height * spec.bytesPerPixel();
+    }
+
+    /**
+     * 取消所有预取（切换频道、数据整体替换时调用）
+     */
+    public void cancelAll() {
+        for (PrefetchRequest request : tracked.values()) {
+            if (!request.done) {
+                imageLoader.cancel(request.target);
+            }
+        }
+        tracked.clear();
+        trackedBytes = 0;
+        prefetchedFrom = -1;
+        prefetchedTo = -1;
+    }
+
+    public String getStats() {
+        return "issued=" + issuedCount + " deduped=" + dedupedCount + " staleCancelled=" + staleCancelled
+                + " skippedByBudget=" + skippedByBudget + " failed=" + failedCount
+                + " ahead=" + tracked.size() + "(" + trackedBytes / 1024 + "KB)";
+    }
+
+    /**
+     * 预取一个位置的图片
+     * @return false 表示预算已满，不再继续
+     */
+    private boolean prefetchItem(int position) {
+        NewsBean item = adapter.getItem(position);
+        int viewType = adapter.getItemViewType(position);
+        ImageSpec spec = specFor(viewType);
+        int count = imageCount(item, viewType);
+        if (spec == null || count == 0) return true;
+
+        int bytes = spec.width * spec.height * spec.bytesPerPixel();
+        for (int i = 0; i < count; i++) {
+            String path = item.images.get(i);
+            PrefetchRequest existing = tracked.get(probe.set(path, spec));
+            if (existing != null) {
+                existing.position = position;
+                dedupedCount++;
+                continue;
+            }
+            if (trackedBytes + bytes > byteBudget) {
+                skippedByBudget++;
+                return false;
+            }
+            PrefetchRequest request = new PrefetchRequest(new ImageKey(path, spec), position, bytes);
+            tracked.put(request.key, request);
+            trackedBytes += bytes;
+            issuedCount++;
+            request.target = imageLoader.preload(path, spec, request);
+        }
+        return true;
+    }
+
+    /**
+     * 已经滑到可见区域或者已经落到身后的请求不再计入预算；身后还没完成的直接取消
+     */
+    private void releaseBehind(int first, int last) {
+        Iterator<PrefetchRequest> iterator = tracked.values().iterator();
+        while (iterator.hasNext()) {
+            PrefetchRequest request = iterator.next();
+            boolean ahead = direction > 0 ? request.position > last : request.position < first;
+            if (ahead) continue;
+            boolean visible = request.position >= first && request.position <= last;
+            if (!visible && !request.done) {
+                imageLoader.cancel(request.target);
+                staleCancelled++;
+            }
+            iterator.remove();
+            trackedBytes -= request.bytes;
+        }
+    }
+
+    /**
+     * 滑动反向：原方向上还没完成的请求已经没用了
+     */
+    private void cancelStale() {
+        for (PrefetchRequest request : tracked.values()) {
+            if (!request.done) staleCancelled++;
+        }
+        cancelAll();
+    }
+
+    /**
+     * 前方预取的item数：按当前速度 LOOKAHEAD_MS 内会滑过的距离换算
+     */
+    private int aheadCount(int visibleCount) {
+        int height = recyclerView.getHeight();
+        if (height <= 0 || visibleCount <= 0) return MIN_AHEAD;
+        float pxPerItem = (float) height / visibleCount;
+        float velocity = velocityTracker.getVelocity(SystemClock.uptimeMillis());
+        int byVelocity = Math.round(velocity * LOOKAHEAD_MS / pxPerItem);
+        return Math.max(MIN_AHEAD, Math.min(MIN_AHEAD + byVelocity, MAX_AHEAD));
+    }
+
+    @Nullable
+    private ImageSpec specFor(int viewType) {
+        int index = specs.indexOfKey(viewType);
+        if (index >= 0) return specs.valueAt(index);
+        CardViewHolderFactory factory = adapter.getCardTypeRegistry().get(viewType);
+        ImageSpec spec = factory.getImageSpec(recyclerView.getContext());
+        specs.put(viewType, spec);
+        return spec;
+    }
+
+    /**
+     * 与 ViewHolder 一致：图片数量不足时卡片不展示图片
+     */
+    private int imageCount(NewsBean item, int viewType) {
+        int count = adapter.getCardTypeRegistry().get(viewType).getImageCount();
+        return item.images != null && item.images.size() >= count ? count : 0;
+    }
+
+    /**
+     * tracked 的键：图片地址 + 解码尺寸
+     */
+    private static final class ImageKey {
+        String path;
+        ImageSpec spec;
+
+        ImageKey(String path, ImageSpec spec) {
+            this.path = path;
+            this.spec = spec;
+        }
+
+        ImageKey set(String path, ImageSpec spec) {
+            this.path = path;
+            this.spec = spec;
+            return this;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof ImageKey)) return false;
+            ImageKey other = (ImageKey) o;
+            return spec.width == other.spec.width && spec.height == other.spec.height
+                    && spec.opaque == other.spec.opaque && path.equals(other.path);
+        }
+
+        @Override
+        public int hashCode() {
+            return (path.hashCode() * 31 + spec.width) * 31 + spec.height;
+        }
+    }
+
+    /**
+     * 单个预取请求，完成后保留在 tracked 中直到滑到可见区域
+     */
+    private final class PrefetchRequest implements RequestListener<Drawable> {
+        final ImageKey key;
+        final int bytes;
+        int position;
+        Target<Drawable> target;
+        boolean done = false;
+
+        PrefetchRequest(ImageKey key, int position, int bytes) {
+            this.key = key;
+            this.position = position;
+            this.bytes = bytes;
+        }
+
+        @Override
+        public boolean onLoadFailed(@Nullable GlideException e, Object model, Target<Drawable> target,
+                                    boolean isFirstResource) {
+            if (tracked.get(key) == this) {
+                tracked.remove(key);
+                trackedBytes -= bytes;
+                failedCount++;
+            }
+            return false;
+        }
+
+        @Override
+        public boolean onResourceReady(Drawable resource, Object model, Target<Drawable> target,
+                                       DataSource dataSource, boolean isFirstResource) {
+            done = true;
+            return false;
+        }
+    }
+}
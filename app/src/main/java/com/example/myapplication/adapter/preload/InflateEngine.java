@@ -0,0 +1,259 @@
+package com.example.myapplication.adapter.preload;
+
+import android.content.Context;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.Process;
+import android.os.SystemClock;
+import android.util.AttributeSet;
+import android.view.LayoutInflater;
+import android.view.View;
+import android.view.ViewGroup;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 多线程布局加载引擎，替代只有一个线程的 AsyncLayoutInflater
+ * 1. 多个后台线程并行 inflate，每个线程使用独立的 LayoutInflater
+ * 2. 按优先级执行：数值越小越先执行，同优先级先到先执行
+ * 3. 可取消：切换频道时丢弃还在排队的请求，已在执行的结果不再回调
+ * 4. 统计主线程同步 inflate 的次数和耗时（后台加载失败时也会退回主线程）
+ */
+public class InflateEngine {
+
+    public static final int PRIORITY_URGENT = 0;
+    public static final int PRIORITY_NORMAL = 10;
+
+    private static final int DEFAULT_THREADS = 2;
+
+    /**
+     * 加载完成回调（主线程）
+     */
+    public interface Callback {
+        void onInflated(Request request, View view);
+    }
+
+    private final Context context;
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private final ThreadPoolExecutor executor;
+    private final AtomicLong sequence = new AtomicLong();
+
+    // 每个工作线程一个 LayoutInflater（LayoutInflater 本身不是线程安全的）
+    private final ThreadLocal<LayoutInflater> inflaters = new ThreadLocal<LayoutInflater>() {
+        @Override
+        protected LayoutInflater initialValue() {
+            return new BasicInflater(context);
+        }
+    };
+
+    private final AtomicInteger backgroundCount = new AtomicInteger();
+    private final AtomicInteger mainThreadCount = new AtomicInteger();
+    private final AtomicLong mainThreadNanos = new AtomicLong();
+    private final AtomicInteger fallbackCount = new AtomicInteger();
+    private final AtomicInteger cancelledCount = new AtomicInteger();
+
+    public InflateEngine(Context context) {
+        this(context, DEFAULT_THREADS);
+    }
+
+    public InflateEngine(Context context, int threadCount) {
+        this.context = context;
+        AtomicInteger threadIndex = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threadCount, threadCount,
+                30, TimeUnit.SECONDS, new PriorityBlockingQueue<>(), runnable -> {
+                    Thread thread = new Thread(() -> {
+                        Process.setThreadPriority(Process.THREAD_PRIORITY_BACKGROUND);
+                        runnable.run();
+                    }, "inflate-" + threadIndex.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        executor.allowCoreThreadTimeOut(true);
+    }
+
+    /**
+     * 后台加载布局（主线程调用）
+     * @param parent 用于生成 LayoutParams，不会被添加进去
+     * @param priority 优先级，数值越小越先执行
+     */
+    public Request inflate(int layoutId, ViewGroup parent, int priority, Callback callback) {
+        Request request = new Request(this, layoutId, parent, priority, sequence.getAndIncrement(), callback);
+        executor.execute(request);
+        return request;
+    }
+
+    /**
+     * 在主线程同步加载（预加载没有命中时），计入主线程统计
+     */
+    public View inflateOnMainThread(int layoutId, ViewGroup parent) {
+        long start = SystemClock.elapsedRealtimeNanos();
+        View view = LayoutInflater.from(context).inflate(layoutId, parent, false);
+        mainThreadNanos.addAndGet(SystemClock.elapsedRealtimeNanos() - start);
+        mainThreadCount.incrementAndGet();
+        return view;
+    }
+
+    /**
+     * 取消所有排队中的请求，执行中的请求完成后不再回调
+     * @return 取消的排队请求数
+     */
+    public int cancelAll() {
+        int cancelled = 0;
+        Runnable queued;
+        while ((queued = executor.getQueue().poll()) != null) {
+            ((Request) queued).cancel();
+            cancelled++;
+        }
+        return cancelled;
+    }
+
+    /**
+     * 关闭引擎
+     */
+    public void shutdown() {
+        cancelAll();
+        executor.shutdownNow();
+    }
+
+    /**
+     * 后台完成的加载次数
+     */
+    public int getBackgroundCount() {
+        return backgroundCount.get();
+    }
+
+    /**
+     * 在主线程同步完成的加载次数（含后台失败后的回退）
+     */
+    public int getMainThreadCount() {
+        return mainThreadCount.get();
+    }
+
+    public long getMainThreadMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(mainThreadNanos.get());
+    }
+
+    public int getFallbackCount() {
+        return fallbackCount.get();
+    }
+
+    public int getCancelledCount() {
+        return cancelledCount.get();
+    }
+
+    public int getQueuedCount() {
+        return executor.getQueue().size();
+    }
+
+    public String getStats() {
+        return "bg=" + backgroundCount.get() + " main=" + mainThreadCount.get()
+                + "(" + getMainThreadMillis() + "ms, fallback=" + fallbackCount.get() + ")"
+                + " cancelled=" + cancelledCount.get() + " queued=" + getQueuedCount();
+    }
+
+    /**
+     * 单个加载请求
+     */
+    public static final class Request implements Runnable, Comparable<Request> {
+        private final InflateEngine engine;
+        private final int layoutId;
+        private final ViewGroup parent;
+        private final int priority;
+        private final long sequence;
+        private final Callback callback;
+        private volatile boolean cancelled = false;
+
+        Request(InflateEngine engine, int layoutId, ViewGroup parent, int priority, long sequence,
+                Callback callback) {
+            this.engine = engine;
+            this.layoutId = layoutId;
+            this.parent = parent;
+            this.priority = priority;
+            this.sequence = sequence;
+            this.callback = callback;
+        }
+
+        /**
+         * 取消后不再回调
+         */
+        public void cancel() {
+            if (cancelled) return;
+            cancelled = true;
+            engine.cancelledCount.incrementAndGet();
+            engine.executor.remove(this);
+        }
+
+        public boolean isCancelled() {
+            return cancelled;
+        }
+
+        public int getLayoutId() {
+            return layoutId;
+        }
+
+        @Override
+        public void run() {
+            if (cancelled) return;
+            View view = null;
+            try {
+                view = engine.inflaters.get().inflate(layoutId, parent, false);
+                engine.backgroundCount.incrementAndGet();
+            } catch (RuntimeException e) {
+                // 个别控件只能在主线程创建，交给主线程重试
+                engine.fallbackCount.incrementAndGet();
+            }
+            final View result = view;
+            engine.mainHandler.post(() -> {
+                if (cancelled) return;
+                View delivered = result != null ? result : engine.inflateOnMainThread(layoutId, parent);
+                callback.onInflated(this, delivered);
+            });
+        }
+
+        @Override
+        public int compareTo(Request other) {
+            if (priority != other.priority) {
+                return priority < other.priority ? -1 : 1;
+            }
+            return Long.compare(sequence, other.sequence);
+        }
+    }
+
+    /**
+     * 与 AsyncLayoutInflater 相同：不带 Factory，系统控件按 android.widget / android.webkit / android.app 查找
+     */
+    private static final class BasicInflater extends LayoutInflater {
+        private static final String[] CLASS_PREFIXES = {
+            "android.widget.",
+            "android.webkit.",
+            "android.app."
+        };
+
+        BasicInflater(Context context) {
+            super(context);
+        }
+
+        @Override
+        public LayoutInflater cloneInContext(Context newContext) {
+            return new BasicInflater(newContext);
+        }
+
+        @Override
+        protected View onCreateView(String name, AttributeSet attrs) throws ClassNotFoundException {
+            for (String prefix : CLASS_PREFIXES) {
+                try {
+                    View view = createView(name, prefix, attrs);
+                    if (view != null) {
+                        return view;
+                    }
+                } catch (ClassNotFoundException e) {
+                    // 换下一个前缀
+                }
+            }
+            return super.onCreateView(name, attrs);
+        }
+    }
+}
@@ -1,28 +1,27 @@
 package com.example.myapplication.adapter.preload;
 
+import android.content.ComponentCallbacks2;
 import android.content.Context;
 import android.util.SparseArray;
-import android.view.LayoutInflater;
+import android.util.SparseIntArray;
 import android.view.View;
 import android.view.ViewGroup;
-import androidx.asynclayoutinflater.view.AsyncLayoutInflater;
 import com.example.myapplication.R;
-import java.util.LinkedList;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * XML布局异步预加载器
- * 在后台线程预加载布局，减少主线程压力
+ * 在后台线程池（InflateEngine）预加载布局，减少主线程压力；快用完的布局优先加载
+ * 每种布局预加载多少个按当前信息流里各类卡片的占比决定，并根据取用时的未命中率动态加减；
+ * 缓存的视图总量受内存预算限制，内存紧张时释放
  */
 public class LayoutPreloader {
 
-    private final Context context;
-    private final AsyncLayoutInflater asyncInflater;
-    
-    // 预加载的View缓存池，按layoutId分类
-    private final SparseArray<Queue<View>> viewCache = new SparseArray<>();
-    
-    // 需要预加载的布局
+    // 已知的卡片布局，还没有数据时每种预加载 1 个
     private static final int[] PRELOAD_LAYOUTS = {
         R.layout.item_news_text,
         R.layout.item_news_three_images,
@@ -30,75 +29,340 @@ public class LayoutPreloader {
         R.layout.item_news_video,
         R.layout.item_news_video_grid
     };
-    
-    // 每种布局预加载的数量
-    private static final int PRELOAD_COUNT = 2;
+
+    // 按占比分配时，总共准备大约一屏多的卡片
+    private static final int DEMAND_WINDOW = 6;
+    // 单个布局最多缓存的数量
+    private static final int MAX_PER_LAYOUT = 6;
+    // 未命中率统计窗口（次数），以及窗口内未命中率超过多少时多预加载一个
+    private static final int MISS_WINDOW = 16;
+    private static final float MISS_RATE_GROW = 0.25f;
+    private static final int MAX_EXTRA = 3;
+    // 每个 View 节点的估算内存
+    private static final int BYTES_PER_VIEW = 1024;
+    private static final int DEFAULT_MAX_BYTES = 256 * 1024;
+
+    private final Context context;
+    private final InflateEngine inflateEngine;
+    private final int maxBytes;
+    private int budgetBytes;
+    private ViewGroup parent;
+
+    private final SparseArray<LayoutSlot> slots = new SparseArray<>();
+    private final AtomicInteger pooledBytes = new AtomicInteger();
+
+    private final AtomicInteger hitCount = new AtomicInteger();
+    private final AtomicInteger missCount = new AtomicInteger();
+    private final AtomicInteger droppedCount = new AtomicInteger();
+
+    /**
+     * 单个布局的缓存和统计
+     */
+    private static final class LayoutSlot {
+        final int layoutId;
+        final Queue<View> views = new ConcurrentLinkedQueue<>();
+        final AtomicInteger pooled = new AtomicInteger();
+        final AtomicInteger inFlight = new AtomicInteger();
+        // 排队/执行中的加载请求（只在主线程访问）
+        final List<InflateEngine.Request> requests = new ArrayList<>();
+        // 按信息流占比算出的基础数量 + 根据未命中率追加的数量
+        volatile int baseTarget = 1;
+        volatile int extra = 0;
+        // 首次加载后测得的单个视图估算内存，0 表示还没测过
+        volatile int bytesPerView = 0;
+        // 当前统计窗口内的取用次数 / 未命中次数（只在主线程修改）
+        int windowRequests = 0;
+        int windowMisses = 0;
+
+        LayoutSlot(int layoutId) {
+            this.layoutId = layoutId;
+        }
+
+        int target() {
+            return Math.min(baseTarget + extra, MAX_PER_LAYOUT);
+        }
+
+        void cancelInFlight() {
+            for (int i = 0; i < requests.size(); i++) {
+                requests.get(i).cancel();
+            }
+            requests.clear();
+            inFlight.set(0);
+        }
+    }
 
     public LayoutPreloader(Context context) {
+        this(context, DEFAULT_MAX_BYTES);
+    }
+
+    /**
+     * @param maxBytes 缓存视图的估算内存上限
+     */
+    public LayoutPreloader(Context context, int maxBytes) {
         this.context = context;
-        this.asyncInflater = new AsyncLayoutInflater(context);
-        
-        // 初始化缓存队列
+        this.inflateEngine = new InflateEngine(context);
+        this.maxBytes = maxBytes;
+        this.budgetBytes = maxBytes;
+
         for (int layoutId : PRELOAD_LAYOUTS) {
-            viewCache.put(layoutId, new LinkedList<>());
+            slots.put(layoutId, new LayoutSlot(layoutId));
         }
     }
 
     /**
-     * 开始异步预加载所有布局
+     * 开始异步预加载（在RecyclerView设置好后调用）
      */
     public void startPreload(ViewGroup parent) {
-        for (int layoutId : PRELOAD_LAYOUTS) {
-            for (int i = 0; i < PRELOAD_COUNT; i++) {
-                preloadLayout(layoutId, parent);
-            }
-        }
+        this.parent = parent;
+        refillAll();
     }
 
     /**
-     * 异步预加载单个布局
+     * 根据信息流中各布局的数量重新分配预加载数量（主线程调用）
+     * @param layoutCounts layoutId -> 该布局在当前列表中的卡片数
      */
-    private void preloadLayout(int layoutId, ViewGroup parent) {
-        asyncInflater.inflate(layoutId, parent, (view, resid, p) -> {
-            Queue<View> queue = viewCache.get(resid);
-            if (queue != null && queue.size() < PRELOAD_COUNT * 2) {
-                queue.offer(view);
-            }
-        });
+    public void updateDemand(SparseIntArray layoutCounts) {
+        int total = 0;
+        for (int i = 0; i < layoutCounts.size(); i++) {
+            total += layoutCounts.valueAt(i);
+        }
+        if (total == 0) return;
+
+        for (int i = 0; i < layoutCounts.size(); i++) {
+            slotFor(layoutCounts.keyAt(i));
+        }
+        for (int i = 0; i < slots.size(); i++) {
+            LayoutSlot slot = slots.valueAt(i);
+            int count = layoutCounts.get(slot.layoutId);
+            // 出现过的布局至少保留 1 个，没出现的不预加载
+            slot.baseTarget = count == 0 ? 0
+                    : Math.max(1, (int) Math.ceil((double) count * DEMAND_WINDOW / total));
+            if (count == 0) slot.extra = 0;
+            trimSlot(slot, slot.target());
+        }
+        // 内存紧张后的第一次数据更新恢复预算
+        budgetBytes = maxBytes;
+        refillAll();
     }
 
     /**
      * 获取预加载的View，如果没有则同步创建
      */
     public View getPreloadedView(int layoutId, ViewGroup parent) {
-        Queue<View> queue = viewCache.get(layoutId);
-        if (queue != null && !queue.isEmpty()) {
-            View view = queue.poll();
-            // 补充预加载
-            preloadLayout(layoutId, parent);
-            return view;
+        LayoutSlot slot = slotFor(layoutId);
+        View view = slot.views.poll();
+        boolean hit = view != null;
+        if (hit) {
+            slot.pooled.decrementAndGet();
+            pooledBytes.addAndGet(-slot.bytesPerView);
+            hitCount.incrementAndGet();
+        } else {
+            missCount.incrementAndGet();
         }
+        recordRequest(slot, hit);
+
+        // 补充预加载
+        refill(slot);
+        if (hit) return view;
+
         // 缓存中没有，同步创建
-        return LayoutInflater.from(context).inflate(layoutId, parent, false);
+        View created = inflateEngine.inflateOnMainThread(layoutId, parent);
+        if (slot.bytesPerView == 0) {
+            slot.bytesPerView = estimateBytes(created);
+        }
+        return created;
     }
 
     /**
      * 检查是否有预加载的View可用
      */
     public boolean hasPreloadedView(int layoutId) {
-        Queue<View> queue = viewCache.get(layoutId);
-        return queue != null && !queue.isEmpty();
+        LayoutSlot slot = slots.get(layoutId);
+        return slot != null && !slot.views.isEmpty();
+    }
+
+    /**
+     * 响应系统内存紧张回调
+     */
+    public void trimMemory(int level) {
+        if (level >= ComponentCallbacks2.TRIM_MEMORY_MODERATE) {
+            budgetBytes = 0;
+            clear();
+        } else if (level >= ComponentCallbacks2.TRIM_MEMORY_RUNNING_LOW) {
+            budgetBytes = maxBytes / 2;
+            for (int i = 0; i < slots.size(); i++) {
+                LayoutSlot slot = slots.valueAt(i);
+                trimSlot(slot, slot.target() / 2);
+            }
+        }
+    }
+
+    /**
+     * 取消还在排队的预加载（切换频道时调用，新频道的需求会重新分配）
+     */
+    public void cancelPending() {
+        for (int i = 0; i < slots.size(); i++) {
+            slots.valueAt(i).cancelInFlight();
+        }
     }
 
     /**
      * 清理缓存
      */
     public void clear() {
-        for (int i = 0; i < viewCache.size(); i++) {
-            Queue<View> queue = viewCache.valueAt(i);
-            if (queue != null) {
-                queue.clear();
+        cancelPending();
+        for (int i = 0; i < slots.size(); i++) {
+            trimSlot(slots.valueAt(i), 0);
+        }
+    }
+
+    /**
+     * 释放缓存并停止加载线程
+     */
+    public void release() {
+        clear();
+        inflateEngine.shutdown();
+    }
+
+    /**
+     * 主线程同步 inflate 的次数（未命中 + 后台失败回退）
+     */
+    public int getMainThreadInflateCount() {
+        return inflateEngine.getMainThreadCount();
+    }
+
+    public int getHitCount() {
+        return hitCount.get();
+    }
+
+    public int getMissCount() {
+        return missCount.get();
+    }
+
+    /**
+     * 当前缓存视图的估算内存
+     */
+    public int getPooledBytes() {
+        return pooledBytes.get();
+    }
+
+    public String getStats() {
+        int hits = hitCount.get();
+        int total = hits + missCount.get();
+        StringBuilder sb = new StringBuilder();
+        sb.append("hit=").append(hits).append('/').append(total)
+                .append(" pooled=").append(pooledBytes.get() / 1024).append("KB")
+                .append(" dropped=").append(droppedCount.get())
+                .append(" inflate[").append(inflateEngine.getStats()).append(']')
+                .append(" targets=");
+        for (int i = 0; i < slots.size(); i++) {
+            LayoutSlot slot = slots.valueAt(i);
+            if (i > 0) sb.append(',');
+            sb.append(context.getResources().getResourceEntryName(slot.layoutId))
+                    .append(':').append(slot.pooled.get()).append('/').append(slot.target());
+        }
+        return sb.toString();
+    }
+
+    private LayoutSlot slotFor(int layoutId) {
+        LayoutSlot slot = slots.get(layoutId);
+        if (slot == null) {
+            slot = new LayoutSlot(layoutId);
+            slots.put(layoutId, slot);
+        }
+        return slot;
+    }
+
+    /**
+     * 每 MISS_WINDOW 次取用评估一次：未命中多就多预加载，全部命中就少预加载
+     */
+    private void recordRequest(LayoutSlot slot, boolean hit) {
+        slot.windowRequests++;
+        if (!hit) slot.windowMisses++;
+        if (slot.windowRequests < MISS_WINDOW) return;
+
+        float missRate = (float) slot.windowMisses / slot.windowRequests;
+        if (missRate > MISS_RATE_GROW) {
+            slot.extra = Math.min(slot.extra + 1, MAX_EXTRA);
+        } else if (slot.windowMisses == 0 && slot.extra > 0) {
+            slot.extra--;
+        }
+        slot.windowRequests = 0;
+        slot.windowMisses = 0;
+    }
+
+    private void refillAll() {
+        for (int i = 0; i < slots.size(); i++) {
+            refill(slots.valueAt(i));
+        }
+    }
+
+    /**
+     * 把某个布局补充到目标数量（受内存预算限制）
+     * 缓存已经空了的布局紧急加载，其余按缓存数量从少到多排
+     */
+    private void refill(LayoutSlot slot) {
+        if (parent == null) return;
+        while (slot.pooled.get() + slot.inFlight.get() < slot.target()) {
+            int reserved = pooledBytes.get() + inFlightBytes();
+            if (reserved + slot.bytesPerView > budgetBytes) return;
+            int pooled = slot.pooled.get() + slot.inFlight.get();
+            int priority = pooled == 0 ? InflateEngine.PRIORITY_URGENT : InflateEngine.PRIORITY_NORMAL + pooled;
+            slot.inFlight.incrementAndGet();
+            slot.requests.add(inflateEngine.inflate(slot.layoutId, parent, priority,
+                    (request, view) -> onInflated(slot, request, view)));
+        }
+    }
+
+    private void onInflated(LayoutSlot slot, InflateEngine.Request request, View view) {
+        slot.requests.remove(request);
+        slot.inFlight.decrementAndGet();
+        if (slot.bytesPerView == 0) {
+            slot.bytesPerView = estimateBytes(view);
+        }
+        // 加载期间目标或预算变小了
+        if (slot.pooled.get() >= slot.target() || pooledBytes.get() + slot.bytesPerView > budgetBytes) {
+            droppedCount.incrementAndGet();
+            return;
+        }
+        slot.views.offer(view);
+        slot.pooled.incrementAndGet();
+        pooledBytes.addAndGet(slot.bytesPerView);
+    }
+
+    private int inFlightBytes() {
+        int bytes = 0;
+        for (int i = 0; i < slots.size(); i++) {
+            LayoutSlot slot = slots.valueAt(i);
+            bytes += slot.inFlight.get() * slot.bytesPerView;
+        }
+        return bytes;
+    }
+
+    private void trimSlot(LayoutSlot slot, int keep) {
+        while (slot.pooled.get() > keep) {
+            View view = slot.views.poll();
+            if (view == null) break;
+            slot.pooled.decrementAndGet();
+            pooledBytes.addAndGet(-slot.bytesPerView);
+        }
+    }
+
+    /**
+     * 按视图树的节点数估算内存
+     */
+    private static int estimateBytes(View view) {
+        return countViews(view) * BYTES_PER_VIEW;
+    }
+
+    private static int countViews(View view) {
+        int count = 1;
+        if (view instanceof ViewGroup) {
+            ViewGroup group = (ViewGroup) view;
+            for (int i = 0; i < group.getChildCount(); i++) {
+                count += countViews(group.getChildAt(i));
             }
         }
+        return count;
     }
 }
@@ -0,0 +1,94 @@
+package com.example.myapplication.adapter.preload;
+
+import android.util.LongSparseArray;
+import android.util.SparseArray;
+import androidx.recyclerview.widget.RecyclerView;
+import com.example.myapplication.adapter.viewholder.BaseViewHolder;
+import java.util.ArrayDeque;
+
+/**
+ * 带预绑定区的 RecycledViewPool
+ * RecyclerView 取同类型 ViewHolder 时优先拿预绑定好的（按预渲染顺序，离屏幕近的先出），
+ * 预绑定区按 item 稳定标识去重，不受数据增删导致的位置变化影响
+ */
+public class PrerenderedViewPool extends RecyclerView.RecycledViewPool {
+
+    // viewType -> 预绑定的 ViewHolder（按预渲染顺序）
+    private final SparseArray<ArrayDeque<BaseViewHolder>> prebound = new SparseArray<>();
+    // stableId -> 预绑定的 ViewHolder
+    private final LongSparseArray<BaseViewHolder> prerenderedIds = new LongSparseArray<>();
+
+    @Override
+    public RecyclerView.ViewHolder getRecycledView(int viewType) {
+        ArrayDeque<BaseViewHolder> queue = prebound.get(viewType);
+        if (queue != null && !queue.isEmpty()) {
+            BaseViewHolder holder = queue.pollFirst();
+            removeId(holder);
+            // 是否真的用上由 NewsAdapter 绑定时判断（取走的位置不一定是预绑定的数据）
+            return holder;
+        }
+        return super.getRecycledView(viewType);
+    }
+
+    @Override
+    public void clear() {
+        super.clear();
+        prebound.clear();
+        prerenderedIds.clear();
+    }
+
+    /**
+     * 从普通缓存池中取一个可复用的 ViewHolder（不取预绑定区）
+     */
+    RecyclerView.ViewHolder takeRecycled(int viewType) {
+        return super.getRecycledView(viewType);
+    }
+
+    /**
+     * 放入一个预绑定好的 ViewHolder
+     */
+    void putPrerendered(long stableId, BaseViewHolder holder) {
+        ArrayDeque<BaseViewHolder> queue = prebound.get(holder.getItemViewType());
+        if (queue == null) {
+            queue = new ArrayDeque<>();
+            prebound.put(holder.getItemViewType(), queue);
+        }
+        queue.offerLast(holder);
+        prerenderedIds.put(stableId, holder);
+    }
+
+    boolean isPrerendered(long stableId) {
+        return prerenderedIds.get(stableId) != null;
+    }
+
+    int getPrerenderedCount(int viewType) {
+        ArrayDeque<BaseViewHolder> queue = prebound.get(viewType);
+        return queue == null ? 0 : queue.size();
+    }
+
+    /**
+     * 放弃所有预绑定：ViewHolder 退回普通缓存池，视图仍可复用，下次使用时重新绑定
+     * @return 放弃的个数
+     */
+    int discardPrerendered() {
+        int discarded = 0;
+        for (int i = 0; i < prebound.size(); i++) {
+            ArrayDeque<BaseViewHolder> queue = prebound.valueAt(i);
+            BaseViewHolder holder;
+            while ((holder = queue.pollFirst()) != null) {
+                holder.clearPrerendered();
+                putRecycledView(holder);
+                discarded++;
+            }
+        }
+        prerenderedIds.clear();
+        return discarded;
+    }
+
+    private void removeId(BaseViewHolder holder) {
+        int index = prerenderedIds.indexOfValue(holder);
+        if (index >= 0) {
+            prerenderedIds.removeAt(index);
+        }
+    }
+}
@@ -1,42 +1,41 @@
 package com.example.myapplication.adapter.preload;
 
 import android.content.Context;
-import android.util.LruCache;
+import android.os.Handler;
+import android.os.Looper;
 
-import com.bumptech.glide.Glide;
 import com.example.myapplication.model.NewsBean;
+import com.example.myapplication.video.VideoPreloadEngine;
+import com.example.myapplication.video.VideoSegmentCache;
 
-import java.util.HashSet;
+import java.io.File;
 import java.util.List;
-import java.util.Set;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
 
 /**
  * 视频预加载器
- * 提前加载视频封面图和模拟视频数据预缓存
+ * 把即将出现的视频的开头几秒下载到磁盘片段缓存（VideoSegmentCache），自动播放时直接从缓存起播
+ * 预加载状态按视频地址记录在 VideoPreloadEngine 中，不随列表位置变化（删除、加载更多后不会错位）
+ * 封面图由 ImagePrefetcher 统一按卡片尺寸预取
  */
 public class VideoPreloader {
 
-    private final Context context;
-    private final ExecutorService executor;
-    
-    // 已预加载的视频位置缓存
-    private final LruCache<Integer, Boolean> preloadedCache = new LruCache<>(30);
-    
-    // 正在预加载的位置（防止重复预加载）
-    private final Set<Integer> loadingSet = new HashSet<>();
-    
     // 预加载数量
     private static final int PRELOAD_COUNT = 3;
+    // 每个视频预加载开头几秒，最多多少字节
+    private static final int PRELOAD_SECONDS = 3;
+    private static final int MAX_PREFIX_BYTES = 512 * 1024;
+    // 片段缓存目录和大小上限
+    private static final String CACHE_DIR = "video_segments";
+    private static final long CACHE_MAX_BYTES = 64L * 1024 * 1024;
 
-    public interface PreloadCallback {
-        void onPreloadComplete(int position);
-    }
+    private final VideoSegmentCache segmentCache;
+    private final VideoPreloadEngine engine;
 
     public VideoPreloader(Context context) {
-        this.context = context;
-        this.executor = Executors.newFixedThreadPool(2);
+        this.segmentCache = new VideoSegmentCache(new File(context.getCacheDir(), CACHE_DIR), CACHE_MAX_BYTES);
+        Handler mainHandler = new Handler(Looper.getMainLooper());
+        this.engine = new VideoPreloadEngine(segmentCache,
+                new VideoPreloadEngine.Config(PRELOAD_SECONDS, MAX_PREFIX_BYTES), mainHandler::post);
     }
 
     /**
@@ -45,139 +44,71 @@ public class VideoPreloader {
      * @param lastVisiblePosition 最后可见位置
      */
     public void preloadVideos(List<NewsBean> dataList, int lastVisiblePosition) {
-        preloadVideos(dataList, lastVisiblePosition, null);
-    }
-
-    /**
-     * 预加载即将显示的视频（带回调）
-     */
-    public void preloadVideos(List<NewsBean> dataList, int lastVisiblePosition, PreloadCallback callback) {
         int startPos = lastVisiblePosition + 1;
         int endPos = Math.min(startPos + PRELOAD_COUNT, dataList.size());
 
         for (int i = startPos; i < endPos; i++) {
-            final int position = i;
             NewsBean item = dataList.get(i);
-            
-            // 只预加载视频类型
-            if (item.type != NewsBean.TYPE_VIDEO) continue;
-            
-            // 检查是否已预加载或正在加载
-            if (isPreloaded(position) || isLoading(position)) continue;
-
-            // 标记为正在加载
-            markLoading(position);
-
-            // 异步预加载
-            executor.execute(() -> {
-                try {
-                    // 1. 预加载视频封面图
-                    preloadCoverImage(item);
-                    
-                    // 2. 模拟视频数据预缓存（实际项目中这里可以预下载视频首帧或部分数据）
-                    simulateVideoDataPreload(item);
-                    
-                    // 标记为已预加载
-                    markPreloaded(position);
-                    
-                    // 回调通知
-                    if (callback != null) {
-                        callback.onPreloadComplete(position);
-                    }
-                } catch (Exception e) {
-                    e.printStackTrace();
-                } finally {
-                    removeLoading(position);
-                }
-            });
-        }
-    }
-
-    /**
-     * 预加载视频封面图
-     */
-    private void preloadCoverImage(NewsBean item) {
-        if (item.images != null && !item.images.isEmpty()) {
-            String coverUrl = item.images.get(0);
-            String imagePath = coverUrl.startsWith("http") ? coverUrl : "file:///android_asset/images/" + coverUrl;
-            
-            // 使用Glide预加载封面图到内存
-            try {
-                Glide.with(context)
-                        .load(imagePath)
-                        .preload();
-            } catch (Exception e) {
-                // 忽略预加载失败
-            }
+            // 只预加载有视频地址的视频卡片，已缓存、正在下载或失败退避中的由引擎跳过
+            if (item.type != NewsBean.TYPE_VIDEO || item.videoUrl == null) continue;
+            engine.preload(item.videoUrl, parseDurationSeconds(item.duration));
         }
     }
 
     /**
-     * 模拟视频数据预缓存
-     * 实际项目中可以：
-     * 1. 预下载视频首帧
-     * 2. 预缓存视频前几秒数据
-     * 3. 预初始化播放器
+     * 开始播放：开头片段可用时回调（主线程），同时记录起播耗时
+     * 片段可用前同一条内容重复调用只回调一次（回调最后传入的 callback）
+     * @return 没有视频地址时返回 false，不会回调
      */
-    private void simulateVideoDataPreload(NewsBean item) {
-        try {
-            // 模拟预加载耗时（实际项目中这里是真实的视频数据预加载）
-            Thread.sleep(50);
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
-        }
+    public boolean startPlayback(NewsBean item, VideoPreloadEngine.Callback callback) {
+        if (item.videoUrl == null) return false;
+        engine.startPlayback(item.videoUrl, parseDurationSeconds(item.duration), callback);
+        return true;
     }
 
     /**
      * 检查是否已预加载
      */
-    public boolean isPreloaded(int position) {
-        return preloadedCache.get(position) != null;
+    public boolean isPreloaded(NewsBean item) {
+        return item.videoUrl != null && segmentCache.contains(item.videoUrl);
     }
 
     /**
-     * 检查是否正在加载
+     * 取消还在进行的预加载（切换频道时调用），已缓存的片段保留
      */
-    private synchronized boolean isLoading(int position) {
-        return loadingSet.contains(position);
-    }
-
-    /**
-     * 标记为正在加载
-     */
-    private synchronized void markLoading(int position) {
-        loadingSet.add(position);
+    public void clearCache() {
+        engine.cancelPreloads();
     }
 
-    /**
-     * 移除加载标记
-     */
-    private synchronized void removeLoading(int position) {
-        loadingSet.remove(position);
+    public String getStats() {
+        return engine.getStats();
     }
 
     /**
-     * 标记为已预加载
+     * 释放资源
      */
-    private void markPreloaded(int position) {
-        preloadedCache.put(position, true);
+    public void release() {
+        engine.shutdown();
     }
 
     /**
-     * 清除预加载缓存
+     * 解析 "mm:ss" 或 "hh:mm:ss" 格式的时长，无法解析时返回 0
      */
-    public void clearCache() {
-        preloadedCache.evictAll();
-        synchronized (this) {
-            loadingSet.clear();
+    static int parseDurationSeconds(String duration) {
+        if (duration == null || duration.isEmpty()) return 0;
+        int seconds = 0;
+        int field = 0;
+        for (int i = 0; i < duration.length(); i++) {
+            char c = duration.charAt(i);
+            if (c >= '0' && c <= '9') {
+                field = field * 10 + (c - '0');
+            } else if (c == ':') {
+                seconds = seconds * 60 + field;
+                field = 0;
+            } else {
+                return 0;
+            }
         }
-    }
-
-    /**
-     * 释放资源
-     */
-    public void release() {
-        clearCache();
-        executor.shutdown();
+        return seconds * 60 + field;
     }
 }
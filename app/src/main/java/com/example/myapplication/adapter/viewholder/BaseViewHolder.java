@@ -4,12 +4,41 @@ import android.view.View;
 import android.widget.ImageView;
 import androidx.recyclerview.widget.RecyclerView;
 import com.bumptech.glide.Glide;
+import com.example.myapplication.adapter.NewsAdapter;
+import com.example.myapplication.image.FeedImageLoader;
+import com.example.myapplication.image.ImageSpec;
 import com.example.myapplication.model.NewsBean;
+import com.example.myapplication.video.PlayerPool;
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  * ViewHolder基类，提供通用方法
+ * 点击、长按等监听在创建时设置一次，触发时按当前绑定位置派发，绑定时不再分配监听对象
  */
-public abstract class BaseViewHolder extends RecyclerView.ViewHolder {
+public abstract class BaseViewHolder extends RecyclerView.ViewHolder
+        implements View.OnClickListener, View.OnLongClickListener {
+
+    /**
+     * 卡片操作派发（由 Adapter 实现）
+     */
+    public interface ActionDispatcher {
+        /**
+         * @return 是否处理了该操作
+         */
+        boolean dispatchAction(BaseViewHolder holder, int action);
+    }
+
+    // 空闲时预先绑定的数据，null 表示没有预绑定
+    private NewsBean prerenderedItem;
+
+    private ActionDispatcher actionDispatcher;
+
+    private FeedImageLoader imageLoader;
+    // 加载过图片的图片位（回收时取消请求）
+    private final List<ImageView> loadedImages = new ArrayList<>(3);
+
+    private PlayerPool playerPool;
 
     public BaseViewHolder(View itemView) {
         super(itemView);
@@ -21,36 +50,112 @@ public abstract class BaseViewHolder extends RecyclerView.ViewHolder {
     public abstract void bind(NewsBean news);
 
     /**
-     * 加载图片的通用方法
+     * 空闲时预先绑定（由 CardPrerenderer 调用）
      */
-    protected void loadImage(ImageView view, String path) {
-        String imagePath;
-        if (path.startsWith("http://") || path.startsWith("https://")) {
-            imagePath = path;
-        } else {
-            imagePath = "file:///android_asset/images/" + path;
+    public final void prerender(NewsBean news) {
+        bind(news);
+        prerenderedItem = news;
+    }
+
+    /**
+     * 是否带着预绑定的数据（还没正式绑定）
+     */
+    public final boolean isPrerendered() {
+        return prerenderedItem != null;
+    }
+
+    /**
+     * 正式绑定前调用：预绑定的数据与要展示的一致时返回 true，可以跳过 bind
+     * 无论是否一致都会清除预绑定标记
+     */
+    public final boolean consumePrerendered(NewsBean news) {
+        NewsBean prerendered = prerenderedItem;
+        prerenderedItem = null;
+        return prerendered != null && prerendered.equals(news);
+    }
+
+    /**
+     * 放弃预绑定的数据（下次正式绑定时会重新 bind），预绑定时发起的图片请求一并取消
+     */
+    public final void clearPrerendered() {
+        if (prerenderedItem != null) {
+            onRecycled();
         }
-        Glide.with(view.getContext()).load(imagePath).centerCrop().into(view);
+        prerenderedItem = null;
     }
 
     /**
-     * 是否支持自动播放
+     * 设置操作派发，并给整个卡片设置点击、长按监听（创建 ViewHolder 时调用一次）
      */
-    public boolean isAutoPlayable() {
-        return false;
+    public final void setActionDispatcher(ActionDispatcher dispatcher) {
+        this.actionDispatcher = dispatcher;
+        itemView.setOnClickListener(this);
+        itemView.setOnLongClickListener(this);
+    }
+
+    @Override
+    public void onClick(View v) {
+        dispatchAction(NewsAdapter.ACTION_CLICK);
+    }
+
+    @Override
+    public boolean onLongClick(View v) {
+        return dispatchAction(NewsAdapter.ACTION_LONG_CLICK);
     }
 
     /**
-     * 开始自动播放
+     * 派发卡片操作，子类的按钮（不感兴趣、分享等）在构造时设置监听并调用这里
      */
-    public void startAutoPlay() {
-        // 默认空实现
+    protected final boolean dispatchAction(int action) {
+        return actionDispatcher != null && actionDispatcher.dispatchAction(this, action);
     }
 
     /**
-     * 停止自动播放
+     * 设置图片加载器（创建 ViewHolder 时调用一次）
      */
-    public void stopAutoPlay() {
-        // 默认空实现
+    public final void setImageLoader(FeedImageLoader loader) {
+        this.imageLoader = loader;
+    }
+
+    /**
+     * 设置共享的播放器池（创建 ViewHolder 时调用一次）
+     */
+    public final void setPlayerPool(PlayerPool pool) {
+        this.playerPool = pool;
+    }
+
+    protected final PlayerPool getPlayerPool() {
+        return playerPool;
+    }
+
+    /**
+     * 按图片位尺寸加载图片，记录图片位以便回收时取消
+     */
+    protected void loadImage(ImageView view, String path, ImageSpec spec) {
+        if (!loadedImages.contains(view)) {
+            loadedImages.add(view);
+        }
+        if (imageLoader != null) {
+            imageLoader.load(view, path, spec);
+        } else {
+            Glide.with(view.getContext()).load(FeedImageLoader.toModel(path)).centerCrop().into(view);
+        }
+    }
+
+    /**
+     * ViewHolder 被回收：取消还在进行的图片请求
+     */
+    public void onRecycled() {
+        if (imageLoader == null) return;
+        for (int i = 0; i < loadedImages.size(); i++) {
+            imageLoader.cancel(loadedImages.get(i));
+        }
+    }
+
+    /**
+     * 是否支持自动播放（播放由 PlayerPool 按内容的稳定标识控制）
+     */
+    public boolean isAutoPlayable() {
+        return false;
     }
 }
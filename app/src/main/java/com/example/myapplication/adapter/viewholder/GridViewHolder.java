@@ -4,6 +4,7 @@ import android.view.View;
 import android.widget.ImageView;
 import android.widget.TextView;
 import com.example.myapplication.R;
+import com.example.myapplication.image.ImageSpec;
 import com.example.myapplication.model.NewsBean;
 
 /**
@@ -15,9 +16,14 @@ public class GridViewHolder extends BaseViewHolder {
     private final TextView tvAuthor;
     private final TextView tvLike;
     private final ImageView imgCover;
+    private final ImageSpec coverSpec;
 
-    public GridViewHolder(View itemView) {
+    /**
+     * @param coverSpec 图片位解码尺寸（由卡片工厂提供，与图片预取一致）
+     */
+    public GridViewHolder(View itemView, ImageSpec coverSpec) {
         super(itemView);
+        this.coverSpec = coverSpec;
         tvTitle = itemView.findViewById(R.id.tv_title);
         tvAuthor = itemView.findViewById(R.id.tv_author);
         tvLike = itemView.findViewById(R.id.tv_like);
@@ -30,7 +36,7 @@ public class GridViewHolder extends BaseViewHolder {
         tvAuthor.setText(news.author);
         tvLike.setText(news.comment != null ? news.comment : "");
         if (news.images != null && !news.images.isEmpty()) {
-            loadImage(imgCover, news.images.get(0));
+            loadImage(imgCover, news.images.get(0), coverSpec);
         }
     }
 }
@@ -4,6 +4,7 @@ import android.view.View;
 import android.widget.ImageView;
 import android.widget.TextView;
 import com.example.myapplication.R;
+import com.example.myapplication.image.ImageSpec;
 import com.example.myapplication.model.NewsBean;
 
 /**
@@ -16,9 +17,14 @@ public class ThreeImagesViewHolder extends BaseViewHolder {
     private final ImageView img1;
     private final ImageView img2;
     private final ImageView img3;
+    private final ImageSpec imageSpec;
 
-    public ThreeImagesViewHolder(View itemView) {
+    /**
+     * @param imageSpec 图片位解码尺寸（由卡片工厂提供，与图片预取一致）
+     */
+    public ThreeImagesViewHolder(View itemView, ImageSpec imageSpec) {
         super(itemView);
+        this.imageSpec = imageSpec;
         tvTitle = itemView.findViewById(R.id.tv_title);
         tvAuthor = itemView.findViewById(R.id.tv_author);
         img1 = itemView.findViewById(R.id.img_1);
@@ -31,9 +37,9 @@ public class ThreeImagesViewHolder extends BaseViewHolder {
         tvTitle.setText(news.title);
         tvAuthor.setText(news.author);
         if (news.images != null && news.images.size() >= 3) {
-            loadImage(img1, news.images.get(0));
-            loadImage(img2, news.images.get(1));
-            loadImage(img3, news.images.get(2));
+            loadImage(img1, news.images.get(0), imageSpec);
+            loadImage(img2, news.images.get(1), imageSpec);
+            loadImage(img3, news.images.get(2), imageSpec);
         }
     }
 }
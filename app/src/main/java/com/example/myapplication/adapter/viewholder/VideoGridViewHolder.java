@@ -1,17 +1,19 @@
 package com.example.myapplication.adapter.viewholder;
 
-import android.os.CountDownTimer;
 import android.view.View;
 import android.widget.ImageView;
 import android.widget.TextView;
 import com.example.myapplication.R;
+import com.example.myapplication.image.ImageSpec;
 import com.example.myapplication.model.NewsBean;
+import com.example.myapplication.video.PlayerPool;
 
 /**
  * 双列视频卡片ViewHolder
  * 支持自动播放：滑入可见区域自动播放，滑出自动停止
+ * 不持有播放器，绑定时挂到共享的 PlayerPool 上，回收时摘下
  */
-public class VideoGridViewHolder extends BaseViewHolder {
+public class VideoGridViewHolder extends BaseViewHolder implements PlayerPool.Surface {
 
     private final TextView tvTitle;
     private final TextView tvAuthor;
@@ -20,11 +22,16 @@ public class VideoGridViewHolder extends BaseViewHolder {
     private final TextView tvCountdown;
     private final ImageView imgCover;
     private final ImageView btnPlay;
-    private CountDownTimer timer;
-    private boolean isPlaying = false;
+    private final ImageSpec coverSpec;
+    // 当前挂在播放器池上的内容标识
+    private long boundKey = PlayerPool.NO_KEY;
 
-    public VideoGridViewHolder(View itemView) {
+    /**
+     * @param coverSpec 图片位解码尺寸（由卡片工厂提供，与图片预取一致）
+     */
+    public VideoGridViewHolder(View itemView, ImageSpec coverSpec) {
         super(itemView);
+        this.coverSpec = coverSpec;
         tvTitle = itemView.findViewById(R.id.tv_title);
         tvAuthor = itemView.findViewById(R.id.tv_author);
         tvComment = itemView.findViewById(R.id.tv_comment);
@@ -33,18 +40,21 @@ public class VideoGridViewHolder extends BaseViewHolder {
         imgCover = itemView.findViewById(R.id.img_cover);
         btnPlay = itemView.findViewById(R.id.btn_play);
 
-        btnPlay.setOnClickListener(v -> startPlayback());
+        btnPlay.setOnClickListener(v -> {
+            PlayerPool pool = getPlayerPool();
+            if (pool != null && boundKey != PlayerPool.NO_KEY) pool.play(boundKey);
+        });
     }
 
     @Override
     public void bind(NewsBean news) {
-        stopPlayback();
+        attachPlayer(news.getStableId());
         tvTitle.setText(news.title);
         tvAuthor.setText(news.author);
         tvComment.setText(news.comment != null ? news.comment : "");
         tvDuration.setText(news.duration != null ? news.duration : "");
         if (news.images != null && !news.images.isEmpty()) {
-            loadImage(imgCover, news.images.get(0));
+            loadImage(imgCover, news.images.get(0), coverSpec);
         }
     }
 
@@ -54,45 +64,41 @@ public class VideoGridViewHolder extends BaseViewHolder {
     }
 
     @Override
-    public void startAutoPlay() {
-        if (!isPlaying) {
-            startPlayback();
-        }
+    public void onRecycled() {
+        super.onRecycled();
+        attachPlayer(PlayerPool.NO_KEY);
     }
 
     @Override
-    public void stopAutoPlay() {
-        stopPlayback();
-    }
-
-    private void startPlayback() {
-        if (isPlaying) return;
-        isPlaying = true;
+    public void onPlaybackStarted() {
         btnPlay.setVisibility(View.GONE);
         tvCountdown.setVisibility(View.VISIBLE);
-        if (timer != null) timer.cancel();
-        timer = new CountDownTimer(10000, 1000) {
-            public void onTick(long millisUntilFinished) {
-                tvCountdown.setText("播放中: " + (millisUntilFinished / 1000) + "s");
-            }
-            public void onFinish() {
-                resetUI();
-            }
-        }.start();
     }
 
-    public void stopPlayback() {
-        if (timer != null) {
-            timer.cancel();
-            timer = null;
-        }
-        isPlaying = false;
-        resetUI();
+    @Override
+    public void onPlaybackProgress(long remainingMs) {
+        tvCountdown.setText("播放中: " + (remainingMs / 1000) + "s");
     }
 
-    private void resetUI() {
-        isPlaying = false;
+    @Override
+    public void onPlaybackStopped() {
         tvCountdown.setVisibility(View.GONE);
         btnPlay.setVisibility(View.VISIBLE);
     }
+
+    /**
+     * 换绑到新的内容：先从池上摘下旧内容（会停止它的播放），NO_KEY 表示只摘下
+     */
+    private void attachPlayer(long key) {
+        if (key == boundKey) return;
+        PlayerPool pool = getPlayerPool();
+        if (pool != null && boundKey != PlayerPool.NO_KEY) {
+            pool.detach(boundKey, this);
+        }
+        onPlaybackStopped();
+        boundKey = key;
+        if (pool != null && key != PlayerPool.NO_KEY) {
+            pool.attach(key, this);
+        }
+    }
 }
@@ -0,0 +1,280 @@
+package com.example.myapplication.cache;
+
+import com.example.myapplication.model.NewsBean;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 基于文件的二进制存储实现
+ * 每个频道一个文件，读取时通过内存映射(mmap)直接解析，不经过JSON
+ *
+ * 文件格式：
+ * <pre>
+ * header: magic(int) | version(short) | timestamp(long) | count(int)
+ * record: length(int) | id | type(int) | span(int) | title | author | comment | duration | imageCount(int) | images... | videoUrl
+ * （新字段只追加在记录末尾，旧文件里没有的字段读出为 null）
+ * string: byteLength(int, -1表示null) | UTF-8 bytes
+ * </pre>
+ */
+public class BinaryFeedStore implements FeedStore {
+
+    private static final int MAGIC = 0x4E465344; // "NFSD"
+    static final short SCHEMA_VERSION = 2;
+    static final int HEADER_SIZE = 4 + 2 + 8 + 4;
+
+    private static final String FILE_SUFFIX = ".feed";
+    private static final int NULL_LENGTH = -1;
+
+    private final File dir;
+
+    public BinaryFeedStore(File dir) {
+        this.dir = dir;
+    }
+
+    @Override
+    public void write(String key, List<NewsBean> data, long timestamp) {
+        if (!dir.exists() && !dir.mkdirs()) return;
+
+        File target = fileFor(key);
+        // 先写临时文件再重命名，保证读取方不会看到写了一半的文件
+        File tmp = new File(dir, target.getName() + "." + Thread.currentThread().getId() + ".tmp");
+        try {
+            RecordBuffer record = new RecordBuffer();
+            try (DataOutputStream out = new DataOutputStream(
+                    new BufferedOutputStream(new FileOutputStream(tmp), 64 * 1024))) {
+                out.writeInt(MAGIC);
+                out.writeShort(SCHEMA_VERSION);
+                out.writeLong(timestamp);
+                out.writeInt(data.size());
+                for (NewsBean item : data) {
+                    record.reset();
+                    encode(item, record);
+                    out.writeInt(record.size());
+                    out.write(record.array(), 0, record.size());
+                }
+            }
+            if (!tmp.renameTo(target)) {
+                tmp.delete();
+            }
+        } catch (IOException e) {
+            e.printStackTrace();
+            tmp.delete();
+        }
+    }
+
+    @Override
+    public List<NewsBean> read(String key) {
+        File file = fileFor(key);
+        if (!file.exists()) return null;
+
+        try (RandomAccessFile raf = new RandomAccessFile(file, "r");
+             FileChannel channel = raf.getChannel()) {
+            long size = channel.size();
+            if (size < HEADER_SIZE) return null;
+
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            if (buffer.getInt() != MAGIC) return null;
+            if (buffer.getShort() != SCHEMA_VERSION) return null;
+            buffer.getLong(); // timestamp
+            int count = buffer.getInt();
+
+            List<NewsBean> result = new ArrayList<>(count);
+            byte[] scratch = new byte[256];
+            for (int i = 0; i < count; i++) {
+                int length = buffer.getInt();
+                int end = buffer.position() + length;
+                NewsBean item = new NewsBean();
+                scratch = decode(buffer, end, item, scratch);
+                // 跳过当前版本不认识的尾部字段
+                buffer.position(end);
+                result.add(item);
+            }
+            return result;
+        } catch (Exception e) {
+            e.printStackTrace();
+            return null;
+        }
+    }
+
+    @Override
+    public long readTimestamp(String key) {
+        File file = fileFor(key);
+        if (!file.exists()) return 0;
+
+        try (RandomAccessFile raf = new RandomAccessFile(file, "r");
+             FileChannel channel = raf.getChannel()) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+            while (header.hasRemaining()) {
+                if (channel.read(header) < 0) return 0;
+            }
+            header.flip();
+            if (header.getInt() != MAGIC) return 0;
+            if (header.getShort() != SCHEMA_VERSION) return 0;
+            return header.getLong();
+        } catch (IOException e) {
+            e.printStackTrace();
+            return 0;
+        }
+    }
+
+    @Override
+    public boolean contains(String key) {
+        return fileFor(key).exists();
+    }
+
+    @Override
+    public void remove(String key) {
+        fileFor(key).delete();
+    }
+
+    @Override
+    public void clear() {
+        File[] files = dir.listFiles();
+        if (files == null) return;
+        for (File file : files) {
+            if (file.getName().endsWith(FILE_SUFFIX)) {
+                file.delete();
+            }
+        }
+    }
+
+    private File fileFor(String key) {
+        StringBuilder name = new StringBuilder(key.length() + FILE_SUFFIX.length());
+        for (int i = 0; i < key.length(); i++) {
+            char c = key.charAt(i);
+            boolean safe = (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z')
+                    || (c >= '0' && c <= '9') || c == '.' || c == '_' || c == '-';
+            name.append(safe ? c : '_');
+        }
+        return new File(dir, name.append(FILE_SUFFIX).toString());
+    }
+
+    // ==================== 编解码 ====================
+
+    private static void encode(NewsBean item, RecordBuffer out) {
+        out.writeString(item.id);
+        out.writeInt(item.type);
+        out.writeInt(item.span);
+        out.writeString(item.title);
+        out.writeString(item.author);
+        out.writeString(item.comment);
+        out.writeString(item.duration);
+        if (item.images == null) {
+            out.writeInt(NULL_LENGTH);
+        } else {
+            out.writeInt(item.images.size());
+            for (String image : item.images) {
+                out.writeString(image);
+            }
+        }
+        out.writeString(item.videoUrl);
+    }
+
+    private static byte[] decode(ByteBuffer in, int end, NewsBean item, byte[] scratch) {
+        scratch = ensureCapacity(scratch, in);
+        item.id = readString(in, scratch);
+        item.type = in.getInt();
+        item.span = in.getInt();
+        scratch = ensureCapacity(scratch, in);
+        item.title = readString(in, scratch);
+        scratch = ensureCapacity(scratch, in);
+        item.author = readString(in, scratch);
+        scratch = ensureCapacity(scratch, in);
+        item.comment = readString(in, scratch);
+        scratch = ensureCapacity(scratch, in);
+        item.duration = readString(in, scratch);
+
+        int imageCount = in.getInt();
+        if (imageCount != NULL_LENGTH) {
+            List<String> images = new ArrayList<>(imageCount);
+            for (int i = 0; i < imageCount; i++) {
+                scratch = ensureCapacity(scratch, in);
+                images.add(readString(in, scratch));
+            }
+            item.images = images;
+        }
+        // 旧记录没有视频地址
+        if (in.position() < end) {
+            scratch = ensureCapacity(scratch, in);
+            item.videoUrl = readString(in, scratch);
+        }
+        return scratch;
+    }
+
+    /**
+     * 预读下一个字符串的长度，必要时扩容复用的解码缓冲区
+     */
+    private static byte[] ensureCapacity(byte[] scratch, ByteBuffer in) {
+        int length = in.getInt(in.position());
+        if (length > scratch.length) {
+            return new byte[Math.max(length, scratch.length * 2)];
+        }
+        return scratch;
+    }
+
+    private static String readString(ByteBuffer in, byte[] scratch) {
+        int length = in.getInt();
+        if (length == NULL_LENGTH) return null;
+        in.get(scratch, 0, length);
+        return new String(scratch, 0, length, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * 可复用的单条记录编码缓冲区，用于先算出记录长度再写入
+     */
+    private static final class RecordBuffer {
+        private byte[] buf = new byte[512];
+        private int size;
+
+        void reset() {
+            size = 0;
+        }
+
+        int size() {
+            return size;
+        }
+
+        byte[] array() {
+            return buf;
+        }
+
+        void writeInt(int v) {
+            ensure(4);
+            buf[size++] = (byte) (v >>> 24);
+            buf[size++] = (byte) (v >>> 16);
+            buf[size++] = (byte) (v >>> 8);
+            buf[size++] = (byte) v;
+        }
+
+        void writeString(String s) {
+            if (s == null) {
+                writeInt(NULL_LENGTH);
+                return;
+            }
+            byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+            writeInt(bytes.length);
+            ensure(bytes.length);
+            System.arraycopy(bytes, 0, buf, size, bytes.length);
+            size += bytes.length;
+        }
+
+        private void ensure(int extra) {
+            if (size + extra > buf.length) {
+                byte[] bigger = new byte[Math.max(buf.length * 2, size + extra)];
+                System.arraycopy(buf, 0, bigger, 0, size);
+                buf = bigger;
+            }
+        }
+    }
+}
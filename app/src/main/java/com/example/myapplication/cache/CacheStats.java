@@ -0,0 +1,117 @@
+package com.example.myapplication.cache;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 缓存命中统计（按频道）
+ * 记录命中、未命中、过期数据兜底展示次数以及后台刷新耗时，用于按频道调整缓存有效期
+ */
+public class CacheStats {
+
+    private final ConcurrentHashMap<String, ChannelStats> channels = new ConcurrentHashMap<>();
+
+    /**
+     * 单个频道的计数器
+     */
+    public static class ChannelStats {
+        private final AtomicLong hits = new AtomicLong();
+        private final AtomicLong misses = new AtomicLong();
+        private final AtomicLong staleServes = new AtomicLong();
+        private final AtomicLong revalidations = new AtomicLong();
+        private final AtomicLong revalidationFailures = new AtomicLong();
+        private final AtomicLong totalRevalidationMs = new AtomicLong();
+        private final AtomicLong maxRevalidationMs = new AtomicLong();
+
+        public long getHits() {
+            return hits.get();
+        }
+
+        public long getMisses() {
+            return misses.get();
+        }
+
+        public long getStaleServes() {
+            return staleServes.get();
+        }
+
+        public long getRevalidations() {
+            return revalidations.get();
+        }
+
+        public long getRevalidationFailures() {
+            return revalidationFailures.get();
+        }
+
+        /**
+         * 平均后台刷新耗时（毫秒）
+         */
+        public long getAverageRevalidationMs() {
+            long count = revalidations.get() + revalidationFailures.get();
+            return count == 0 ? 0 : totalRevalidationMs.get() / count;
+        }
+
+        public long getMaxRevalidationMs() {
+            return maxRevalidationMs.get();
+        }
+
+        @Override
+        public String toString() {
+            return "命中=" + hits.get()
+                    + " 未命中=" + misses.get()
+                    + " 过期展示=" + staleServes.get()
+                    + " 刷新=" + revalidations.get() + "/" + revalidationFailures.get() + "失败"
+                    + " 刷新耗时avg=" + getAverageRevalidationMs() + "ms max=" + maxRevalidationMs.get() + "ms";
+        }
+    }
+
+    public ChannelStats forChannel(String key) {
+        ChannelStats stats = channels.get(key);
+        if (stats == null) {
+            ChannelStats created = new ChannelStats();
+            stats = channels.putIfAbsent(key, created);
+            if (stats == null) stats = created;
+        }
+        return stats;
+    }
+
+    public void recordHit(String key) {
+        forChannel(key).hits.incrementAndGet();
+    }
+
+    public void recordMiss(String key) {
+        forChannel(key).misses.incrementAndGet();
+    }
+
+    public void recordStaleServe(String key) {
+        forChannel(key).staleServes.incrementAndGet();
+    }
+
+    /**
+     * 记录一次后台刷新
+     * @param latencyMs 从发起刷新到拿到结果的耗时
+     * @param success 是否刷新成功
+     */
+    public void recordRevalidation(String key, long latencyMs, boolean success) {
+        ChannelStats stats = forChannel(key);
+        if (success) {
+            stats.revalidations.incrementAndGet();
+        } else {
+            stats.revalidationFailures.incrementAndGet();
+        }
+        stats.totalRevalidationMs.addAndGet(latencyMs);
+        long max;
+        do {
+            max = stats.maxRevalidationMs.get();
+        } while (latencyMs > max && !stats.maxRevalidationMs.compareAndSet(max, latencyMs));
+    }
+
+    /**
+     * 获取所有频道统计的快照
+     */
+    public Map<String, ChannelStats> snapshot() {
+        return new HashMap<>(channels);
+    }
+}
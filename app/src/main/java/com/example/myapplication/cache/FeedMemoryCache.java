@@ -0,0 +1,153 @@
+package com.example.myapplication.cache;
+
+import android.content.ComponentCallbacks2;
+import android.util.LruCache;
+
+import com.example.myapplication.exposure.ExposureStateTable;
+import com.example.myapplication.model.NewsBean;
+
+import java.util.List;
+
+/**
+ * 频道内存缓存
+ * 保存已解码的频道列表及其滚动位置、曝光状态，切回频道时不需要任何IO和解析
+ * 按估算的字节数做LRU淘汰，而不是按条目数
+ */
+public class FeedMemoryCache {
+
+    // 对象头 + 字段的粗略开销
+    private static final int BEAN_OVERHEAD = 64;
+    private static final int STRING_OVERHEAD = 40;
+    private static final int LIST_OVERHEAD = 40;
+    private static final int STATE_OVERHEAD = 128;
+
+    private final int maxBytes;
+    private final LruCache<String, ChannelState> cache;
+
+    private int hitCount = 0;
+    private int missCount = 0;
+
+    /**
+     * 单个频道的快照
+     */
+    public static class ChannelState {
+        public final List<NewsBean> data;
+        public final int scrollPosition;
+        public final int scrollOffset;
+        public final ExposureStateTable exposureStates;
+        public final String nextCursor;
+        final int estimatedBytes;
+
+        /**
+         * @param data 频道数据（之后不能再修改）
+         * @param scrollPosition 第一个可见item的位置
+         * @param scrollOffset 第一个可见item顶部相对列表顶部的偏移
+         * @param exposureStates 曝光状态快照（之后不能再修改），可为 null
+         * @param nextCursor 加载更多的游标，null 表示从已有数据之后开始
+         */
+        public ChannelState(List<NewsBean> data, int scrollPosition, int scrollOffset,
+                            ExposureStateTable exposureStates, String nextCursor) {
+            this.data = data;
+            this.scrollPosition = scrollPosition;
+            this.scrollOffset = scrollOffset;
+            this.exposureStates = exposureStates;
+            this.nextCursor = nextCursor;
+            this.estimatedBytes = estimateBytes(data) + STATE_OVERHEAD
+                    + (exposureStates == null ? 0 : exposureStates.capacity() * exposureStates.bytesPerSlot());
+        }
+    }
+
+    public FeedMemoryCache(int maxBytes) {
+        this.maxBytes = maxBytes;
+        this.cache = new LruCache<String, ChannelState>(maxBytes) {
+            @Override
+            protected int sizeOf(String key, ChannelState value) {
+                return value.estimatedBytes;
+            }
+        };
+    }
+
+    public void put(String key, ChannelState state) {
+        if (state.data == null || state.data.isEmpty()) return;
+        cache.put(key, state);
+    }
+
+    public ChannelState get(String key) {
+        ChannelState state = cache.get(key);
+        if (state != null) {
+            hitCount++;
+        } else {
+            missCount++;
+        }
+        return state;
+    }
+
+    /**
+     * 是否已缓存，不计入命中统计
+     */
+    public boolean contains(String key) {
+        return cache.snapshot().containsKey(key);
+    }
+
+    public void remove(String key) {
+        cache.remove(key);
+    }
+
+    public void clear() {
+        cache.evictAll();
+    }
+
+    /**
+     * 响应系统内存紧张回调
+     */
+    public void trimMemory(int level) {
+        if (level >= ComponentCallbacks2.TRIM_MEMORY_MODERATE) {
+            cache.evictAll();
+        } else if (level >= ComponentCallbacks2.TRIM_MEMORY_RUNNING_LOW) {
+            cache.trimToSize(maxBytes / 2);
+        }
+    }
+
+    /**
+     * 当前占用的估算字节数
+     */
+    public int size() {
+        return cache.size();
+    }
+
+    public int getHitCount() {
+        return hitCount;
+    }
+
+    public int getMissCount() {
+        return missCount;
+    }
+
+    /**
+     * 估算一个频道列表占用的内存字节数
+     */
+    public static int estimateBytes(List<NewsBean> data) {
+        int bytes = LIST_OVERHEAD;
+        for (int i = 0; i < data.size(); i++) {
+            NewsBean item = data.get(i);
+            bytes += BEAN_OVERHEAD
+                    + stringBytes(item.id)
+                    + stringBytes(item.title)
+                    + stringBytes(item.author)
+                    + stringBytes(item.comment)
+                    + stringBytes(item.duration)
+                    + stringBytes(item.videoUrl);
+            if (item.images != null) {
+                bytes += LIST_OVERHEAD;
+                for (int j = 0; j < item.images.size(); j++) {
+                    bytes += stringBytes(item.images.get(j));
+                }
+            }
+        }
+        return bytes;
+    }
+
+    private static int stringBytes(String s) {
+        return s == null ? 0 : STRING_OVERHEAD + s.length() * 2;
+    }
+}
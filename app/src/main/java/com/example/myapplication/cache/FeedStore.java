@@ -0,0 +1,45 @@
+package com.example.myapplication.cache;
+
+import com.example.myapplication.model.NewsBean;
+
+import java.util.List;
+
+/**
+ * 频道数据存储后端接口
+ * NewsCacheManager 通过此接口读写缓存，可替换不同的存储实现
+ */
+public interface FeedStore {
+
+    /**
+     * 写入频道数据
+     * @param key 缓存key（如频道文件名）
+     * @param data 新闻数据列表
+     * @param timestamp 写入时间戳
+     */
+    void write(String key, List<NewsBean> data, long timestamp);
+
+    /**
+     * 读取频道数据，没有或数据损坏时返回null
+     */
+    List<NewsBean> read(String key);
+
+    /**
+     * 读取写入时间戳，没有缓存时返回0
+     */
+    long readTimestamp(String key);
+
+    /**
+     * 是否存在缓存
+     */
+    boolean contains(String key);
+
+    /**
+     * 删除指定key的缓存
+     */
+    void remove(String key);
+
+    /**
+     * 删除所有缓存
+     */
+    void clear();
+}
@@ -1,35 +1,36 @@
 package com.example.myapplication.cache;
 
 import android.content.Context;
-import android.content.SharedPreferences;
 
 import com.example.myapplication.model.NewsBean;
-import com.google.gson.Gson;
-import com.google.gson.reflect.TypeToken;
 
-import java.lang.reflect.Type;
+import java.io.File;
 import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * 新闻数据缓存管理器
- * 使用 SharedPreferences 存储 JSON 数据
+ * 默认使用 BinaryFeedStore 按频道存储二进制文件，可通过构造函数替换存储后端
  * 网络请求失败时可从缓存读取
  */
 public class NewsCacheManager {
 
-    private static final String PREF_NAME = "news_cache";
-    private static final String KEY_PREFIX = "cache_";
-    private static final String KEY_TIMESTAMP_PREFIX = "timestamp_";
-    
+    private static final String CACHE_DIR = "feed_cache";
+
     // 缓存有效期：1小时
     private static final long CACHE_EXPIRE_TIME = 60 * 60 * 1000;
 
-    private final SharedPreferences prefs;
-    private final Gson gson;
+    private final FeedStore store;
+
+    // 按频道单独配置的有效期，未配置的使用 CACHE_EXPIRE_TIME
+    private final ConcurrentHashMap<String, Long> expireTimes = new ConcurrentHashMap<>();
 
     public NewsCacheManager(Context context) {
-        this.prefs = context.getSharedPreferences(PREF_NAME, Context.MODE_PRIVATE);
-        this.gson = new Gson();
+        this(new BinaryFeedStore(new File(context.getFilesDir(), CACHE_DIR)));
+    }
+
+    public NewsCacheManager(FeedStore store) {
+        this.store = store;
     }
 
     /**
@@ -39,12 +40,8 @@ public class NewsCacheManager {
      */
     public void saveToCache(String key, List<NewsBean> data) {
         if (data == null || data.isEmpty()) return;
-        
-        String json = gson.toJson(data);
-        prefs.edit()
-                .putString(KEY_PREFIX + key, json)
-                .putLong(KEY_TIMESTAMP_PREFIX + key, System.currentTimeMillis())
-                .apply();
+
+        store.write(key, data, System.currentTimeMillis());
     }
 
     /**
@@ -53,70 +50,65 @@ public class NewsCacheManager {
      * @return 缓存的数据，如果没有或已过期返回null
      */
     public List<NewsBean> getFromCache(String key) {
-        String json = prefs.getString(KEY_PREFIX + key, null);
-        if (json == null) return null;
-
-        try {
-            Type listType = new TypeToken<List<NewsBean>>() {}.getType();
-            return gson.fromJson(json, listType);
-        } catch (Exception e) {
-            e.printStackTrace();
-            return null;
-        }
+        if (!isCacheValid(key)) return null;
+        return store.read(key);
     }
 
     /**
      * 从缓存读取数据（忽略过期时间，用于网络失败时兜底）
      */
     public List<NewsBean> getFromCacheIgnoreExpire(String key) {
-        String json = prefs.getString(KEY_PREFIX + key, null);
-        if (json == null) return null;
-
-        try {
-            Type listType = new TypeToken<List<NewsBean>>() {}.getType();
-            return gson.fromJson(json, listType);
-        } catch (Exception e) {
-            e.printStackTrace();
-            return null;
-        }
+        return store.read(key);
+    }
+
+    /**
+     * 设置指定频道的缓存有效期
+     */
+    public void setExpireTime(String key, long expireTimeMs) {
+        expireTimes.put(key, expireTimeMs);
+    }
+
+    /**
+     * 获取指定频道的缓存有效期
+     */
+    public long getExpireTime(String key) {
+        Long expireTime = expireTimes.get(key);
+        return expireTime != null ? expireTime : CACHE_EXPIRE_TIME;
     }
 
     /**
      * 检查缓存是否有效（未过期）
      */
     public boolean isCacheValid(String key) {
-        long timestamp = prefs.getLong(KEY_TIMESTAMP_PREFIX + key, 0);
-        return System.currentTimeMillis() - timestamp < CACHE_EXPIRE_TIME;
+        long timestamp = store.readTimestamp(key);
+        return System.currentTimeMillis() - timestamp < getExpireTime(key);
     }
 
     /**
      * 检查是否有缓存（不管是否过期）
      */
     public boolean hasCache(String key) {
-        return prefs.contains(KEY_PREFIX + key);
+        return store.contains(key);
     }
 
     /**
      * 清除指定key的缓存
      */
     public void clearCache(String key) {
-        prefs.edit()
-                .remove(KEY_PREFIX + key)
-                .remove(KEY_TIMESTAMP_PREFIX + key)
-                .apply();
+        store.remove(key);
     }
 
     /**
      * 清除所有缓存
      */
     public void clearAllCache() {
-        prefs.edit().clear().apply();
+        store.clear();
     }
 
     /**
      * 获取缓存时间戳
      */
     public long getCacheTimestamp(String key) {
-        return prefs.getLong(KEY_TIMESTAMP_PREFIX + key, 0);
+        return store.readTimestamp(key);
     }
 }
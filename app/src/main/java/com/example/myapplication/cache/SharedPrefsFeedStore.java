@@ -0,0 +1,80 @@
+package com.example.myapplication.cache;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+
+import com.example.myapplication.model.NewsBean;
+import com.example.myapplication.model.NewsBeanTypeAdapter;
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.reflect.TypeToken;
+
+import java.lang.reflect.Type;
+import java.util.List;
+
+/**
+ * 基于 SharedPreferences 的存储实现（旧方案）
+ * 整个列表序列化为一个JSON字符串，每次apply都会重写整个XML文件
+ */
+public class SharedPrefsFeedStore implements FeedStore {
+
+    private static final String PREF_NAME = "news_cache";
+    private static final String KEY_PREFIX = "cache_";
+    private static final String KEY_TIMESTAMP_PREFIX = "timestamp_";
+
+    private final SharedPreferences prefs;
+    private final Gson gson;
+
+    public SharedPrefsFeedStore(Context context) {
+        this.prefs = context.getSharedPreferences(PREF_NAME, Context.MODE_PRIVATE);
+        this.gson = new GsonBuilder()
+                .registerTypeAdapter(NewsBean.class, new NewsBeanTypeAdapter())
+                .create();
+    }
+
+    @Override
+    public void write(String key, List<NewsBean> data, long timestamp) {
+        String json = gson.toJson(data);
+        prefs.edit()
+                .putString(KEY_PREFIX + key, json)
+                .putLong(KEY_TIMESTAMP_PREFIX + key, timestamp)
+                .apply();
+    }
+
+    @Override
+    public List<NewsBean> read(String key) {
+        String json = prefs.getString(KEY_PREFIX + key, null);
+        if (json == null) return null;
+
+        try {
+            Type listType = new TypeToken<List<NewsBean>>() {}.getType();
+            return gson.fromJson(json, listType);
+        } catch (Exception e) {
+            e.printStackTrace();
+            return null;
+        }
+    }
+
+    @Override
+    public long readTimestamp(String key) {
+        return prefs.getLong(KEY_TIMESTAMP_PREFIX + key, 0);
+    }
+
+    @Override
+    public boolean contains(String key) {
+        return prefs.contains(KEY_PREFIX + key);
+    }
+
+    @Override
+    public void remove(String key) {
+        prefs.edit()
+                .remove(KEY_PREFIX + key)
+                .remove(KEY_TIMESTAMP_PREFIX + key)
+                .apply();
+    }
+
+    @Override
+    public void clear() {
+        prefs.edit().clear().apply();
+    }
+}
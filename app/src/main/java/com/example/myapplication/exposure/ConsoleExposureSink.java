@@ -0,0 +1,63 @@
+package com.example.myapplication.exposure;
+
+import android.view.View;
+import android.widget.ScrollView;
+import android.widget.TextView;
+
+/**
+ * 调试输出：把曝光事件打印到页面上的控制台
+ * 文本在上报线程拼好，每批只在主线程 append 一次并滚动一次
+ */
+public class ConsoleExposureSink implements ExposureSink {
+
+    private final TextView console;
+    private final StringBuilder text = new StringBuilder(1024);
+
+    public ConsoleExposureSink(TextView console) {
+        this.console = console;
+    }
+
+    @Override
+    public void write(ExposureEventBatch batch) {
+        text.setLength(0);
+        for (int i = 0; i < batch.size(); i++) {
+            text.append('\n');
+            int event = batch.getEvent(i);
+            if (event == ExposureEngine.EVENT_GONE) {
+                text.append("item ").append(Long.toHexString(batch.getStableId(i)));
+            } else {
+                text.append("item ").append(batch.getPosition(i));
+            }
+            text.append(" -> ").append(label(event));
+            if (event == ExposureEngine.EVENT_GONE) {
+                text.append("（停留").append(batch.getDwellMs(i)).append("ms）");
+            }
+        }
+        String lines = text.toString();
+        console.post(() -> {
+            console.append(lines);
+            // 自动滚动到底部
+            if (console.getParent() instanceof ScrollView) {
+                ((ScrollView) console.getParent()).fullScroll(View.FOCUS_DOWN);
+            }
+        });
+    }
+
+    /**
+     * 按默认规则的三级命名，其他级别直接显示级别数
+     */
+    private static String label(int event) {
+        switch (event) {
+            case ExposureEngine.STATE_VISIBLE:
+                return "🔴 开始露出";
+            case ExposureEngine.STATE_HALF:
+                return "🟡 露出超过50%";
+            case ExposureEngine.STATE_FULL:
+                return "🟢 完全展示";
+            case ExposureEngine.EVENT_GONE:
+                return "⚫ 已消失";
+            default:
+                return "曝光级别 " + event;
+        }
+    }
+}
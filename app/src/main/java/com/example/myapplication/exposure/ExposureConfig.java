@@ -0,0 +1,62 @@
+package com.example.myapplication.exposure;
+
+/**
+ * 曝光规则配置
+ * thresholds 为升序排列的可见比例阈值，第 i 个阈值对应第 i+1 级曝光；
+ * 比例需要持续不低于阈值达到 minDwellMs 才算达到该级（0 表示立即生效）
+ */
+public final class ExposureConfig {
+
+    public static final int MAX_LEVELS = 8;
+
+    private static final float[] DEFAULT_THRESHOLDS = {0f, 0.5f, 0.99f}; // 用 0.99 代替 1.0 防止浮点精度问题
+
+    private final float[] thresholds;
+    private final long minDwellMs;
+
+    /**
+     * @param thresholds 可见比例阈值，升序，取值 [0, 1]；0 表示只要露出就算
+     * @param minDwellMs 最短停留时间
+     */
+    public ExposureConfig(float[] thresholds, long minDwellMs) {
+        if (thresholds == null || thresholds.length == 0 || thresholds.length > MAX_LEVELS) {
+            throw new IllegalArgumentException("thresholds must have 1.." + MAX_LEVELS + " levels");
+        }
+        for (int i = 0; i < thresholds.length; i++) {
+            if (thresholds[i] < 0f || thresholds[i] > 1f || (i > 0 && thresholds[i] <= thresholds[i - 1])) {
+                throw new IllegalArgumentException("thresholds must be ascending within [0, 1]");
+            }
+        }
+        if (minDwellMs < 0) {
+            throw new IllegalArgumentException("minDwellMs must be >= 0");
+        }
+        this.thresholds = thresholds.clone();
+        this.minDwellMs = minDwellMs;
+    }
+
+    /**
+     * 默认规则：开始露出 / 露出超过50% / 完全展示，不要求停留时间
+     */
+    public static ExposureConfig defaults() {
+        return new ExposureConfig(DEFAULT_THRESHOLDS, 0);
+    }
+
+    /**
+     * 默认阈值 + 指定的最短停留时间
+     */
+    public static ExposureConfig withMinDwell(long minDwellMs) {
+        return new ExposureConfig(DEFAULT_THRESHOLDS, minDwellMs);
+    }
+
+    public int getLevelCount() {
+        return thresholds.length;
+    }
+
+    public float getThreshold(int index) {
+        return thresholds[index];
+    }
+
+    public long getMinDwellMs() {
+        return minDwellMs;
+    }
+}
@@ -0,0 +1,177 @@
+package com.example.myapplication.exposure;
+
+/**
+ * 曝光引擎
+ * 每帧调用 beginFrame -> 对每个可见item调用 onItemVisible -> endFrame，由帧回调驱动而不是每次滑动
+ * 1. 可见比例阈值、最短停留时间可配置（ExposureConfig）
+ * 2. 按 item 稳定标识累计可见时长（不随删除/插入导致的位置变化而错乱）
+ * 3. 只在达到新的曝光级别或消失时回调，稳态下不产生任何对象
+ */
+public class ExposureEngine {
+
+    // 曝光状态/事件：第 n 级曝光的事件值为 n
+    public static final int STATE_NONE = 0;
+    public static final int STATE_VISIBLE = 1;   // 默认规则：开始露出
+    public static final int STATE_HALF = 2;      // 默认规则：露出超过50%
+    public static final int STATE_FULL = 3;      // 默认规则：完全展示
+    public static final int EVENT_GONE = 16;     // 已消失
+
+    // 两帧间隔的上限，页面暂停、卡顿时不把整段时间算进停留时长
+    private static final long MAX_FRAME_GAP_MS = 500;
+
+    /**
+     * 曝光事件回调
+     */
+    public interface Listener {
+        /**
+         * @param stableId item 稳定标识
+         * @param position 当前位置，消失事件为 -1
+         * @param event 达到的曝光级别（1..n）或 EVENT_GONE
+         * @param dwellMs 本次可见累计时长
+         */
+        void onExposureEvent(long stableId, int position, int event, long dwellMs);
+    }
+
+    private final ExposureConfig config;
+    private final Listener listener;
+    private ExposureStateTable table;
+
+    private int frame = 0;
+    private long frameTimeMs;
+    private long frameDeltaMs;
+    private long lastFrameTimeMs = ExposureStateTable.NO_TIME;
+
+    // 清扫回调只创建一次
+    private final ExposureStateTable.RemovedListener goneListener = new ExposureStateTable.RemovedListener() {
+        @Override
+        public void onRemoved(long key, int state, long dwell) {
+            // 只有达到过曝光级别的才回调消失
+            if (state > STATE_NONE) {
+                listener.onExposureEvent(key, -1, EVENT_GONE, dwell);
+            }
+        }
+    };
+
+    public ExposureEngine(Listener listener) {
+        this(ExposureConfig.defaults(), listener);
+    }
+
+    public ExposureEngine(ExposureConfig config, Listener listener) {
+        this.config = config;
+        this.listener = listener;
+        this.table = new ExposureStateTable(32, config.getLevelCount());
+    }
+
+    /**
+     * 开始一帧
+     * @param frameTimeMs 帧时间（单调时钟，毫秒）
+     */
+    public void beginFrame(long frameTimeMs) {
+        frame++;
+        if (lastFrameTimeMs == ExposureStateTable.NO_TIME) {
+            frameDeltaMs = 0;
+        } else {
+            frameDeltaMs = Math.max(0, Math.min(frameTimeMs - lastFrameTimeMs, MAX_FRAME_GAP_MS));
+        }
+        lastFrameTimeMs = frameTimeMs;
+        this.frameTimeMs = frameTimeMs;
+    }
+
+    /**
+     * 记录一个可见item
+     * @return 该item的可见比例
+     */
+    public float onItemVisible(long stableId, int position, int visibleHeight, int totalHeight) {
+        if (totalHeight <= 0) totalHeight = 1; // 防止除以0
+        float ratio = (float) visibleHeight / totalHeight;
+
+        int slot = table.slotOf(stableId);
+        boolean visibleLastFrame = slot >= 0 && table.frameAt(slot) == frame - 1;
+        slot = table.acquire(stableId, frame);
+
+        // 累计可见时长：上一帧也可见时，把两帧间隔计入
+        long dwell = table.dwellAt(slot);
+        if (ratio > 0 && visibleLastFrame) {
+            dwell += frameDeltaMs;
+            table.setDwellAt(slot, dwell);
+        }
+
+        // 记录每一级阈值从何时开始持续满足，不满足时清空
+        int levels = config.getLevelCount();
+        for (int level = 0; level < levels; level++) {
+            if (ratio > 0 && ratio >= config.getThreshold(level)) {
+                if (table.timeAt(slot, level) == ExposureStateTable.NO_TIME) {
+                    table.setTimeAt(slot, level, frameTimeMs);
+                }
+            } else {
+                table.setTimeAt(slot, level, ExposureStateTable.NO_TIME);
+            }
+        }
+
+        // 状态机流转：按级别依次升级，每一级只回调一次
+        int state = table.stateAt(slot);
+        while (state < levels) {
+            long since = table.timeAt(slot, state);
+            if (since == ExposureStateTable.NO_TIME || frameTimeMs - since < config.getMinDwellMs()) break;
+            state++;
+            listener.onExposureEvent(stableId, position, state, dwell);
+        }
+        table.setStateAt(slot, state);
+        return ratio;
+    }
+
+    /**
+     * 结束一帧：本帧没有出现的item视为消失
+     */
+    public void endFrame() {
+        table.sweep(frame, goneListener);
+    }
+
+    /**
+     * 清空状态（不回调消失）
+     */
+    public void reset() {
+        table.clear();
+        lastFrameTimeMs = ExposureStateTable.NO_TIME;
+    }
+
+    /**
+     * 当前状态快照，用于切换频道时保存
+     */
+    public ExposureStateTable snapshot() {
+        return table.copy();
+    }
+
+    /**
+     * 恢复快照：保留已达到的级别和累计时长，停留计时重新开始
+     */
+    public void restore(ExposureStateTable snapshot) {
+        if (snapshot == null) {
+            reset();
+            return;
+        }
+        table = snapshot.copy();
+        table.resetTimes();
+        lastFrameTimeMs = ExposureStateTable.NO_TIME;
+    }
+
+    public ExposureConfig getConfig() {
+        return config;
+    }
+
+    public int getState(long stableId) {
+        return table.get(stableId);
+    }
+
+    /**
+     * 当前可见item的累计可见时长，不在屏幕上时返回 0
+     */
+    public long getDwellMs(long stableId) {
+        int slot = table.slotOf(stableId);
+        return slot < 0 ? 0 : table.dwellAt(slot);
+    }
+
+    public int size() {
+        return table.size();
+    }
+}
@@ -0,0 +1,93 @@
+package com.example.myapplication.exposure;
+
+/**
+ * 一批曝光事件
+ * 由上报线程复用，ExposureSink 只能在回调内读取，不能持有
+ */
+public final class ExposureEventBatch {
+
+    private final long[] stableIds;
+    private final int[] positions;
+    private final int[] events;
+    private final long[] timestamps;
+    private final long[] dwells;
+    private int size;
+
+    public ExposureEventBatch(int capacity) {
+        stableIds = new long[capacity];
+        positions = new int[capacity];
+        events = new int[capacity];
+        timestamps = new long[capacity];
+        dwells = new long[capacity];
+    }
+
+    void add(long stableId, int position, int event, long dwellMs, long timestamp) {
+        stableIds[size] = stableId;
+        positions[size] = position;
+        events[size] = event;
+        timestamps[size] = timestamp;
+        dwells[size] = dwellMs;
+        size++;
+    }
+
+    void clear() {
+        size = 0;
+    }
+
+    /**
+     * 原地保留 keep[i] 为 true 的记录
+     */
+    void compact(boolean[] keep) {
+        int out = 0;
+        for (int i = 0; i < size; i++) {
+            if (!keep[i]) continue;
+            stableIds[out] = stableIds[i];
+            positions[out] = positions[i];
+            events[out] = events[i];
+            timestamps[out] = timestamps[i];
+            dwells[out] = dwells[i];
+            out++;
+        }
+        size = out;
+    }
+
+    int remaining() {
+        return stableIds.length - size;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public long getStableId(int index) {
+        return stableIds[index];
+    }
+
+    /**
+     * 事件发生时的位置，消失事件为 -1
+     */
+    public int getPosition(int index) {
+        return positions[index];
+    }
+
+    /**
+     * 曝光级别（1..n）或 ExposureEngine.EVENT_GONE
+     */
+    public int getEvent(int index) {
+        return events[index];
+    }
+
+    /**
+     * 事件发生时该 item 的累计可见时长（毫秒）
+     */
+    public long getDwellMs(int index) {
+        return dwells[index];
+    }
+
+    /**
+     * 事件发生的时间（毫秒，System.currentTimeMillis）
+     */
+    public long getTimestamp(int index) {
+        return timestamps[index];
+    }
+}
@@ -0,0 +1,90 @@
+package com.example.myapplication.exposure;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 曝光事件环形缓冲区（单生产者 / 单消费者，无锁）
+ * 每条记录拆成几个基本类型数组存放，写入不产生对象；缓冲区满时丢弃新事件并计数，从不阻塞主线程
+ */
+public final class ExposureEventBuffer {
+
+    private final long[] stableIds;
+    private final int[] positions;
+    private final int[] events;
+    private final long[] timestamps;
+    private final long[] dwells;
+    private final int mask;
+
+    // 生产者写入位置 / 消费者读取位置，只增不减
+    private final AtomicLong tail = new AtomicLong();
+    private final AtomicLong head = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+
+    /**
+     * @param capacity 容量，会向上取整到2的幂
+     */
+    public ExposureEventBuffer(int capacity) {
+        int size = Integer.highestOneBit(Math.max(capacity - 1, 1)) << 1;
+        stableIds = new long[size];
+        positions = new int[size];
+        events = new int[size];
+        timestamps = new long[size];
+        dwells = new long[size];
+        mask = size - 1;
+    }
+
+    /**
+     * 写入一条事件（只能由同一个线程调用）
+     * @return false 表示缓冲区已满，事件被丢弃
+     */
+    public boolean offer(long stableId, int position, int event, long dwellMs, long timestamp) {
+        long t = tail.get();
+        if (t - head.get() > mask) {
+            dropped.incrementAndGet();
+            return false;
+        }
+        int slot = (int) (t & mask);
+        stableIds[slot] = stableId;
+        positions[slot] = position;
+        events[slot] = event;
+        timestamps[slot] = timestamp;
+        dwells[slot] = dwellMs;
+        // 发布：数组写入对读到新 tail 的消费者可见
+        tail.lazySet(t + 1);
+        return true;
+    }
+
+    /**
+     * 取出最多 batch 剩余容量的事件追加到 batch（只能由同一个线程调用）
+     * @return 取出的条数
+     */
+    public int drainTo(ExposureEventBatch batch) {
+        long h = head.get();
+        long t = tail.get();
+        int count = (int) Math.min(t - h, batch.remaining());
+        for (int i = 0; i < count; i++) {
+            int slot = (int) ((h + i) & mask);
+            batch.add(stableIds[slot], positions[slot], events[slot], dwells[slot], timestamps[slot]);
+        }
+        head.lazySet(h + count);
+        return count;
+    }
+
+    /**
+     * 当前待消费的条数（近似值）
+     */
+    public int size() {
+        return (int) (tail.get() - head.get());
+    }
+
+    public int capacity() {
+        return mask + 1;
+    }
+
+    /**
+     * 因缓冲区满被丢弃的事件数
+     */
+    public long getDroppedCount() {
+        return dropped.get();
+    }
+}
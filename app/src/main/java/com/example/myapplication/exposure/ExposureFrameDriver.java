@@ -0,0 +1,76 @@
+package com.example.myapplication.exposure;
+
+import android.view.Choreographer;
+
+/**
+ * 用 Choreographer 帧回调驱动曝光检测
+ * 滑动/数据变化时 invalidate() 在下一帧立即检测，静止时按固定间隔检测，让停留时长持续累计
+ * 监听可以在回调中用 requestFrameWithin() 缩短到下一次检测的间隔（等待某个时间点到达）
+ * 只在主线程调用
+ */
+public class ExposureFrameDriver implements Choreographer.FrameCallback {
+
+    // 静止时的检测间隔
+    private static final long IDLE_INTERVAL_MS = 200;
+
+    /**
+     * 每次帧回调
+     */
+    public interface FrameListener {
+        /**
+         * @param frameTimeMs 帧时间（单调时钟，毫秒）
+         */
+        void onFrame(long frameTimeMs);
+    }
+
+    private final Choreographer choreographer = Choreographer.getInstance();
+    private final FrameListener listener;
+    private boolean running = false;
+    // 正在回调监听，以及回调结束后到下一次检测的间隔
+    private boolean inFrame = false;
+    private long nextDelayMs = IDLE_INTERVAL_MS;
+
+    public ExposureFrameDriver(FrameListener listener) {
+        this.listener = listener;
+    }
+
+    public void start() {
+        if (running) return;
+        running = true;
+        choreographer.postFrameCallback(this);
+    }
+
+    public void stop() {
+        running = false;
+        choreographer.removeFrameCallback(this);
+    }
+
+    /**
+     * 画面发生变化，在下一帧检测（同一帧内多次调用只检测一次）
+     */
+    public void invalidate() {
+        if (!running) return;
+        choreographer.removeFrameCallback(this);
+        choreographer.postFrameCallback(this);
+    }
+
+    /**
+     * 在 delayMs 之内再检测一次（只在 onFrame 回调中调用，比静止时的检测间隔长时不起作用）
+     */
+    public void requestFrameWithin(long delayMs) {
+        if (!inFrame) return;
+        nextDelayMs = Math.min(nextDelayMs, Math.max(delayMs, 0));
+    }
+
+    @Override
+    public void doFrame(long frameTimeNanos) {
+        if (!running) return;
+        inFrame = true;
+        nextDelayMs = IDLE_INTERVAL_MS;
+        listener.onFrame(frameTimeNanos / 1_000_000);
+        inFrame = false;
+        if (running) {
+            choreographer.postFrameCallbackDelayed(this, nextDelayMs);
+        }
+    }
+}
@@ -0,0 +1,163 @@
+package com.example.myapplication.exposure;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 曝光事件上报管线
+ * 主线程只把事件写进无锁环形缓冲区；后台线程按批次取出、去重，再交给各个 ExposureSink
+ * 攒满一批或到达刷新间隔时刷新，主线程上不做任何格式化、IO 或 UI 操作
+ */
+public class ExposureReporter implements ExposureEngine.Listener {
+
+    public static final int DEFAULT_BUFFER_CAPACITY = 1024;
+    public static final int DEFAULT_BATCH_SIZE = 64;
+    public static final long DEFAULT_FLUSH_INTERVAL_MS = 1000;
+
+    private final ExposureEventBuffer buffer;
+    private final int batchSize;
+    private final long flushIntervalNanos;
+    private final List<ExposureSink> sinks = new CopyOnWriteArrayList<>();
+
+    // 以下只在上报线程访问
+    private final ExposureEventBatch batch;
+    private final boolean[] keep;
+    private final ExposureStateTable seen;
+
+    private final Thread worker;
+    private volatile boolean running = true;
+
+    // 统计
+    private final AtomicLong deliveredCount = new AtomicLong();
+    private final AtomicLong duplicateCount = new AtomicLong();
+    private final AtomicLong batchCount = new AtomicLong();
+
+    public ExposureReporter() {
+        this(DEFAULT_BUFFER_CAPACITY, DEFAULT_BATCH_SIZE, DEFAULT_FLUSH_INTERVAL_MS);
+    }
+
+    /**
+     * @param bufferCapacity 环形缓冲区容量，写满后新事件被丢弃
+     * @param batchSize 单批最大条数，积压到这个数量时立即唤醒上报线程
+     * @param flushIntervalMs 最长刷新间隔
+     */
+    public ExposureReporter(int bufferCapacity, int batchSize, long flushIntervalMs) {
+        this.buffer = new ExposureEventBuffer(bufferCapacity);
+        this.batchSize = batchSize;
+        this.flushIntervalNanos = TimeUnit.MILLISECONDS.toNanos(flushIntervalMs);
+        this.batch = new ExposureEventBatch(batchSize);
+        this.keep = new boolean[batchSize];
+        this.seen = new ExposureStateTable(batchSize);
+
+        worker = new Thread(this::runLoop, "exposure-reporter");
+        worker.setDaemon(true);
+        worker.setPriority(Thread.MIN_PRIORITY);
+        worker.start();
+    }
+
+    public void addSink(ExposureSink sink) {
+        sinks.add(sink);
+    }
+
+    public void removeSink(ExposureSink sink) {
+        sinks.remove(sink);
+    }
+
+    /**
+     * 记录一条曝光事件（主线程调用，不分配对象、不阻塞）
+     */
+    @Override
+    public void onExposureEvent(long stableId, int position, int event, long dwellMs) {
+        if (!running) return;
+        buffer.offer(stableId, position, event, dwellMs, System.currentTimeMillis());
+        // 刚好攒满一批时唤醒；更多积压时上报线程本来就不会休眠
+        if (buffer.size() == batchSize) {
+            LockSupport.unpark(worker);
+        }
+    }
+
+    /**
+     * 停止上报线程，停止前把剩余事件全部刷出
+     */
+    public void close() {
+        running = false;
+        LockSupport.unpark(worker);
+        try {
+            worker.join(TimeUnit.NANOSECONDS.toMillis(flushIntervalNanos) + 1000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    public long getDeliveredCount() {
+        return deliveredCount.get();
+    }
+
+    public long getDuplicateCount() {
+        return duplicateCount.get();
+    }
+
+    public long getDroppedCount() {
+        return buffer.getDroppedCount();
+    }
+
+    public long getBatchCount() {
+        return batchCount.get();
+    }
+
+    private void runLoop() {
+        while (running) {
+            if (buffer.size() < batchSize) {
+                LockSupport.parkNanos(this, flushIntervalNanos);
+            }
+            flush();
+        }
+        flush();
+    }
+
+    private void flush() {
+        while (buffer.size() > 0) {
+            batch.clear();
+            buffer.drainTo(batch);
+            deduplicate();
+            if (batch.size() == 0) continue;
+
+            batchCount.incrementAndGet();
+            deliveredCount.addAndGet(batch.size());
+            for (int i = 0; i < sinks.size(); i++) {
+                try {
+                    sinks.get(i).write(batch);
+                } catch (RuntimeException e) {
+                    e.printStackTrace();
+                }
+            }
+        }
+    }
+
+    /**
+     * 同一批里同一个 item 的同一种事件只保留第一条
+     */
+    private void deduplicate() {
+        seen.clear();
+        int size = batch.size();
+        int duplicates = 0;
+        for (int i = 0; i < size; i++) {
+            long id = batch.getStableId(i);
+            int bit = 1 << batch.getEvent(i);
+            int mask = seen.get(id);
+            keep[i] = (mask & bit) == 0;
+            if (keep[i]) {
+                seen.put(id, mask | bit, 0);
+            } else {
+                duplicates++;
+            }
+        }
+        if (duplicates > 0) {
+            duplicateCount.addAndGet(duplicates);
+            batch.compact(keep);
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package com.example.myapplication.exposure;
+
+import android.graphics.Rect;
+import android.view.View;
+
+import androidx.recyclerview.widget.LinearLayoutManager;
+import androidx.recyclerview.widget.RecyclerView;
+
+/**
+ * 遍历 RecyclerView 当前可见的 item，把可见高度交给 ExposureEngine
+ * 复用同一个 Rect，item 标识取自 Adapter.getItemId
+ */
+public class ExposureScanner {
+
+    /**
+     * 每个可见 item 的回调（如挑选自动播放的视频）
+     */
+    public interface VisibleItemListener {
+        void onItemVisible(int position, View view, float ratio);
+    }
+
+    private final ExposureEngine engine;
+    private final Rect visibleRect = new Rect();
+
+    public ExposureScanner(ExposureEngine engine) {
+        this.engine = engine;
+    }
+
+    /**
+     * 扫描一帧
+     * @param frameTimeMs 帧时间（单调时钟，毫秒）
+     */
+    public void scan(RecyclerView recyclerView, long frameTimeMs, VisibleItemListener visibleListener) {
+        RecyclerView.LayoutManager lm = recyclerView.getLayoutManager();
+        RecyclerView.Adapter<?> adapter = recyclerView.getAdapter();
+        if (!(lm instanceof LinearLayoutManager) || adapter == null) return;
+        LinearLayoutManager layoutManager = (LinearLayoutManager) lm;
+
+        int firstPos = layoutManager.findFirstVisibleItemPosition();
+        int lastPos = layoutManager.findLastVisibleItemPosition();
+        int itemCount = adapter.getItemCount();
+
+        engine.beginFrame(frameTimeMs);
+        for (int i = Math.max(firstPos, 0); i <= lastPos && i < itemCount; i++) {
+            View view = layoutManager.findViewByPosition(i);
+            if (view == null) continue;
+            if (!view.getGlobalVisibleRect(visibleRect)) continue;
+
+            float ratio = engine.onItemVisible(adapter.getItemId(i), i, visibleRect.height(), view.getHeight());
+            if (visibleListener != null) {
+                visibleListener.onItemVisible(i, view, ratio);
+            }
+        }
+        engine.endFrame();
+    }
+}
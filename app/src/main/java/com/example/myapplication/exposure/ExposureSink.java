@@ -0,0 +1,9 @@
+package com.example.myapplication.exposure;
+
+/**
+ * 曝光事件的去向（埋点上报、调试输出等）
+ * 在上报线程回调，batch 会被复用，不能在回调外持有
+ */
+public interface ExposureSink {
+    void write(ExposureEventBatch batch);
+}
@@ -0,0 +1,286 @@
+package com.example.myapplication.exposure;
+
+import java.util.Arrays;
+
+/**
+ * 曝光状态表：long key -> (state, frame, dwell, times[])
+ * 开放寻址 + 线性探测，全部存放在基本类型数组里，读写和清扫都不产生对象
+ * key 不能为 0（0 表示空槽，NewsBean.getStableId 不会返回 0）
+ *
+ * 除了按 key 读写 state 的简单用法，也可以先用 acquire 拿到槽位再直接读写各列，
+ * 槽位在下一次 acquire/put/sweep 之前有效
+ */
+public final class ExposureStateTable {
+
+    private static final long EMPTY = 0L;
+    private static final int DEFAULT_CAPACITY = 32;
+
+    // 时间列的空值
+    public static final long NO_TIME = -1L;
+
+    private final int timesPerSlot;
+
+    private long[] keys;
+    private int[] states;
+    private int[] frames;
+    private long[] dwells;
+    private long[] times;
+    private int mask;
+    private int size;
+
+    /**
+     * 清扫时被移除的条目回调
+     */
+    public interface RemovedListener {
+        void onRemoved(long key, int state, long dwell);
+    }
+
+    public ExposureStateTable() {
+        this(DEFAULT_CAPACITY, 0);
+    }
+
+    public ExposureStateTable(int expectedSize) {
+        this(expectedSize, 0);
+    }
+
+    /**
+     * @param expectedSize 预计条目数
+     * @param timesPerSlot 每个条目额外的时间列数
+     */
+    public ExposureStateTable(int expectedSize, int timesPerSlot) {
+        this.timesPerSlot = timesPerSlot;
+        int capacity = Integer.highestOneBit(Math.max(expectedSize * 2 - 1, 4)) << 1;
+        allocate(capacity);
+    }
+
+    private ExposureStateTable(ExposureStateTable other) {
+        timesPerSlot = other.timesPerSlot;
+        keys = other.keys.clone();
+        states = other.states.clone();
+        frames = other.frames.clone();
+        dwells = other.dwells.clone();
+        times = other.times.clone();
+        mask = other.mask;
+        size = other.size;
+    }
+
+    /**
+     * @return 状态，不存在时返回 0
+     */
+    public int get(long key) {
+        int slot = find(key);
+        return slot < 0 ? 0 : states[slot];
+    }
+
+    /**
+     * 写入状态并记录所在帧
+     */
+    public void put(long key, int state, int frame) {
+        int slot = acquire(key, frame);
+        states[slot] = state;
+    }
+
+    /**
+     * 查找或新建条目，并把它标记为在 frame 这一帧出现过
+     * 新建的条目 state/dwell 为 0，时间列为 NO_TIME
+     * @return 槽位
+     */
+    public int acquire(long key, int frame) {
+        int slot = find(key);
+        if (slot < 0) {
+            if ((size + 1) * 2 > keys.length) {
+                grow();
+            }
+            slot = mix(key) & mask;
+            while (keys[slot] != EMPTY) {
+                slot = (slot + 1) & mask;
+            }
+            keys[slot] = key;
+            states[slot] = 0;
+            dwells[slot] = 0;
+            Arrays.fill(times, slot * timesPerSlot, (slot + 1) * timesPerSlot, NO_TIME);
+            size++;
+        }
+        frames[slot] = frame;
+        return slot;
+    }
+
+    /**
+     * @return 槽位，不存在时返回 -1
+     */
+    public int slotOf(long key) {
+        return find(key);
+    }
+
+    /**
+     * 槽位上次出现的帧
+     */
+    public int frameAt(int slot) {
+        return frames[slot];
+    }
+
+    public int stateAt(int slot) {
+        return states[slot];
+    }
+
+    public void setStateAt(int slot, int state) {
+        states[slot] = state;
+    }
+
+    public long dwellAt(int slot) {
+        return dwells[slot];
+    }
+
+    public void setDwellAt(int slot, long dwell) {
+        dwells[slot] = dwell;
+    }
+
+    public long timeAt(int slot, int column) {
+        return times[slot * timesPerSlot + column];
+    }
+
+    public void setTimeAt(int slot, int column, long time) {
+        times[slot * timesPerSlot + column] = time;
+    }
+
+    /**
+     * 把所有时间列重置为 NO_TIME
+     */
+    public void resetTimes() {
+        Arrays.fill(times, NO_TIME);
+    }
+
+    /**
+     * 移除所有不是在 frame 这一帧出现的条目
+     * @return 移除的条数
+     */
+    public int sweep(int frame, RemovedListener listener) {
+        int removed = 0;
+        int i = 0;
+        while (i < keys.length) {
+            if (keys[i] != EMPTY && frames[i] != frame) {
+                long key = keys[i];
+                int state = states[i];
+                long dwell = dwells[i];
+                removeAt(i);
+                removed++;
+                if (listener != null) {
+                    listener.onRemoved(key, state, dwell);
+                }
+                // 后移删除可能把后面的条目搬到 i，需要重新检查这一格
+                continue;
+            }
+            i++;
+        }
+        return removed;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * 当前数组容量，用于估算内存
+     */
+    public int capacity() {
+        return keys.length;
+    }
+
+    /**
+     * 每个槽位占用的字节数，用于估算内存
+     */
+    public int bytesPerSlot() {
+        return 8 + 4 + 4 + 8 + timesPerSlot * 8;
+    }
+
+    public void clear() {
+        Arrays.fill(keys, EMPTY);
+        size = 0;
+    }
+
+    /**
+     * 复制一份快照
+     */
+    public ExposureStateTable copy() {
+        return new ExposureStateTable(this);
+    }
+
+    private int find(long key) {
+        int slot = mix(key) & mask;
+        while (true) {
+            long k = keys[slot];
+            if (k == EMPTY) return -1;
+            if (k == key) return slot;
+            slot = (slot + 1) & mask;
+        }
+    }
+
+    /**
+     * 线性探测的后移删除：把同一探测链上后面的条目往前挪，不留墓碑
+     */
+    private void removeAt(int hole) {
+        int slot = hole;
+        while (true) {
+            slot = (slot + 1) & mask;
+            long k = keys[slot];
+            if (k == EMPTY) break;
+            int home = mix(k) & mask;
+            // home 不在 (hole, slot] 区间内时，这个条目可以挪到 hole
+            boolean movable = hole <= slot ? (home <= hole || home > slot) : (home <= hole && home > slot);
+            if (movable) {
+                moveSlot(slot, hole);
+                hole = slot;
+            }
+        }
+        keys[hole] = EMPTY;
+        size--;
+    }
+
+    private void moveSlot(int from, int to) {
+        keys[to] = keys[from];
+        states[to] = states[from];
+        frames[to] = frames[from];
+        dwells[to] = dwells[from];
+        if (timesPerSlot > 0) {
+            System.arraycopy(times, from * timesPerSlot, times, to * timesPerSlot, timesPerSlot);
+        }
+    }
+
+    private void grow() {
+        long[] oldKeys = keys;
+        int[] oldStates = states;
+        int[] oldFrames = frames;
+        long[] oldDwells = dwells;
+        long[] oldTimes = times;
+        allocate(oldKeys.length * 2);
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != EMPTY) {
+                int slot = mix(oldKeys[i]) & mask;
+                while (keys[slot] != EMPTY) {
+                    slot = (slot + 1) & mask;
+                }
+                keys[slot] = oldKeys[i];
+                states[slot] = oldStates[i];
+                frames[slot] = oldFrames[i];
+                dwells[slot] = oldDwells[i];
+                if (timesPerSlot > 0) {
+                    System.arraycopy(oldTimes, i * timesPerSlot, times, slot * timesPerSlot, timesPerSlot);
+                }
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        states = new int[capacity];
+        frames = new int[capacity];
+        dwells = new long[capacity];
+        times = new long[capacity * timesPerSlot];
+        mask = capacity - 1;
+    }
+
+    private static int mix(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+}
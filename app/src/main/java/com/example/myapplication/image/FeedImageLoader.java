@@ -0,0 +1,475 @@
+package com.example.myapplication.image;
+
+import android.content.Context;
+import android.graphics.drawable.BitmapDrawable;
+import android.graphics.drawable.Drawable;
+import android.os.SystemClock;
+import android.util.LruCache;
+import android.view.View;
+import android.widget.ImageView;
+import androidx.annotation.Nullable;
+import com.bumptech.glide.Glide;
+import com.bumptech.glide.Priority;
+import com.bumptech.glide.RequestBuilder;
+import com.bumptech.glide.RequestManager;
+import com.bumptech.glide.load.DataSource;
+import com.bumptech.glide.load.DecodeFormat;
+import com.bumptech.glide.load.engine.DiskCacheStrategy;
+import com.bumptech.glide.load.engine.GlideException;
+import com.bumptech.glide.request.RequestListener;
+import com.bumptech.glide.request.target.Target;
+import com.bumptech.glide.request.target.ViewTarget;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * 信息流图片加载
+ * 1. 按卡片图片位的实际尺寸解码（ImageSpec），不透明的封面用 RGB_565
+ * 2. 先出 1/4 尺寸的缩略图，再换成完整图片
+ * 3. ViewHolder 回收时取消请求
+ * 4. 按 ImageRequestThrottler 的档位限流：只加载缩略图时完整图片命中内存缓存照常显示，否则延后到恢复正常再加载；暂停时所有请求排队
+ * 5. 统计解码的字节数和图片位空白时长（图片位在屏幕上、还没显示出第一张图片的时长），按滑动会话汇总（从一次开始滑动到下一次开始滑动）
+ */
+public class FeedImageLoader {
+
+    private static final String ASSET_PREFIX = "file:///android_asset/images/";
+    // 缩略图边长为完整图片的 1/4（像素数 1/16）
+    private static final int THUMBNAIL_DIVISOR = 4;
+    // 图片路径 -> Glide 加载地址
+    private static final int MODEL_CACHE_SIZE = 256;
+    // 空白超过一帧的图片位计入空白次数
+    private static final long BLANK_VISIBLE_MS = 16;
+
+    private final RequestManager glide;
+    private final LruCache<String, String> models = new LruCache<>(MODEL_CACHE_SIZE);
+
+    private final DecodeListener fullListener = new DecodeListener(false);
+    private final DecodeListener thumbnailListener = new DecodeListener(true);
+    private final MemoryProbeListener memoryProbeListener = new MemoryProbeListener();
+
+    // 图片位 -> 空白计时和延后的完整图片（每个图片位一个，随 ImageView 回收）
+    private final Map<ImageView, Slot> slots = new WeakHashMap<>();
+    private int throttleLevel = ImageRequestThrottler.LEVEL_FULL;
+    // 完整图片被延后的图片位（回收时移除），恢复正常时补上
+    private final List<ImageView> deferred = new ArrayList<>();
+    // 在屏幕上、正在计空白时长的图片位
+    private final List<Slot> blanking = new ArrayList<>();
+    // 恢复正常时要补上完整图片的图片位（复用）
+    private final List<ImageView> upgrading = new ArrayList<>();
+
+    // 当前滑动会话（主线程访问）
+    private long sessionBytes = 0;
+    private int sessionDecodes = 0;
+    private int sessionThumbnails = 0;
+    private int sessionCancelled = 0;
+    private long sessionBlankMs = 0;
+    private int sessionBlankSlots = 0;
+    private int sessionDeferred = 0;
+    // 已结束的滑动会话：数量、单次最长空白时长、最近一次的统计（切换频道时和其他统计一起输出）
+    private int sessionCount = 0;
+    private long maxSessionBlankMs = 0;
+    private long lastBytes = 0;
+    private int lastDecodes = 0;
+    private int lastThumbnails = 0;
+    private int lastCancelled = 0;
+    private int lastDeferred = 0;
+    private long lastBlankMs = 0;
+    private int lastBlankSlots = 0;
+
+    private long totalBytes = 0;
+    private int totalDecodes = 0;
+    private int memoryHits = 0;
+    private int failedCount = 0;
+    private long totalBlankMs = 0;
+
+    /**
+     * @param context Activity，请求跟随其生命周期，并和列表共用暂停/恢复
+     */
+    public FeedImageLoader(Context context) {
+        this.glide = Glide.with(context);
+    }
+
+    /**
+     * 加载图片到卡片的图片位
+     * 限流只允许缩略图时，完整图片只查内存缓存（命中直接显示），同时加载低优先级的缩略图；
+     * 没命中的完整图片需要读取和解码，等恢复正常后再加载
+     */
+    public void load(ImageView view, String path, ImageSpec spec) {
+        Slot slot = slots.get(view);
+        if (slot == null) {
+            slot = new Slot();
+            slots.put(view, slot);
+            view.addOnAttachStateChangeListener(slot);
+        }
+        if (!slot.blank) {
+            slot.blank = true;
+            // 预取绑定的卡片还不在屏幕上，等显示出来再开始计时
+            if (view.isAttachedToWindow()) {
+                startBlank(slot, SystemClock.uptimeMillis());
+            }
+        }
+        issue(view, slot, path, spec);
+    }
+
+    /**
+     * 发出请求（不改空白计时），限流时记下延后的完整图片
+     */
+    private void issue(ImageView view, Slot slot, String path, ImageSpec spec) {
+        // 内存缓存命中时 into 中同步完成，先标记再发请求
+        slot.running = true;
+        String model = resolve(path);
+        if (throttleLevel != ImageRequestThrottler.LEVEL_FULL) {
+            if (slot.deferredPath == null) {
+                deferred.add(view);
+            }
+            slot.deferredPath = path;
+            slot.deferredSpec = spec;
+            // 不读磁盘缓存、不加载，只查内存缓存
+            request(model, spec.width, spec.height, spec)
+                    .diskCacheStrategy(DiskCacheStrategy.NONE)
+                    .onlyRetrieveFromCache(true)
+                    .listener(memoryProbeListener)
+                    .thumbnail(thumbnailRequest(model, spec).priority(Priority.LOW))
+                    .into(view);
+            return;
+        }
+        clearDeferred(view, slot);
+        request(model, spec.width, spec.height, spec)
+                .listener(fullListener)
+                .thumbnail(thumbnailRequest(model, spec))
+                .into(view);
+    }
+
+    /**
+     * 按卡片尺寸预加载（与 load 的完整图片缓存 key 一致，之后展示时直接命中内存缓存）
+     * @param listener 完成/失败回调（主线程），可为 null
+     * @return 预加载请求，可用 cancel(Target) 取消
+     */
+    public Target<Drawable> preload(String path, ImageSpec spec, @Nullable RequestListener<Drawable> listener) {
+        return request(resolve(path), spec.width, spec.height, spec)
+                .listener(fullListener)
+                .addListener(listener)
+                .preload(spec.width, spec.height);
+    }
+
+    /**
+     * 取消预加载请求
+     */
+    public void cancel(Target<Drawable> target) {
+        glide.clear(target);
+    }
+
+    /**
+     * 切换限流档位（由 ImageRequestThrottler 回调）
+     * 暂停时所有请求排队（和列表共用同一个 RequestManager）；回到正常时补上延后的完整图片
+     */
+    public void setThrottleLevel(int level) {
+        if (level == throttleLevel) return;
+        if (throttleLevel == ImageRequestThrottler.LEVEL_PAUSED) {
+            glide.resumeRequests();
+        }
+        if (level == ImageRequestThrottler.LEVEL_PAUSED) {
+            glide.pauseRequests();
+        }
+        throttleLevel = level;
+        if (level == ImageRequestThrottler.LEVEL_FULL && !deferred.isEmpty()) {
+            // issue 会从 deferred 中移除，先复制一份
+            upgrading.addAll(deferred);
+            for (int i = 0; i < upgrading.size(); i++) {
+                ImageView view = upgrading.get(i);
+                Slot slot = slots.get(view);
+                // 缩略图命中内存缓存，换成完整图片时不会闪白；已经显示着缩略图，不重新计空白
+                issue(view, slot, slot.deferredPath, slot.deferredSpec);
+            }
+            upgrading.clear();
+        }
+    }
+
+    /**
+     * 当前是否可以加载完整图片（限流时预取也应暂停）
+     */
+    public boolean allowsFullLoads() {
+        return throttleLevel == ImageRequestThrottler.LEVEL_FULL;
+    }
+
+    /**
+     * 取消图片位上的请求并释放图片（ViewHolder 回收时调用）
+     */
+    public void cancel(ImageView view) {
+        glide.clear(view);
+        Slot slot = slots.get(view);
+        if (slot != null) {
+            // 只统计还没完成就被取消的请求
+            if (slot.running) {
+                slot.running = false;
+                sessionCancelled++;
+            }
+            clearDeferred(view, slot);
+            endBlank(slot, SystemClock.uptimeMillis());
+        }
+    }
+
+    /**
+     * 图片路径转成 Glide 加载地址：网络地址原样使用，其余按 assets 下的图片处理
+     * 结果缓存，绑定时不再重复拼接字符串
+     */
+    public String resolve(String path) {
+        String model = models.get(path);
+        if (model == null) {
+            model = toModel(path);
+            models.put(path, model);
+        }
+        return model;
+    }
+
+    /**
+     * 不带缓存的路径转换（没有 FeedImageLoader 时使用）
+     */
+    public static String toModel(String path) {
+        if (path.startsWith("http://") || path.startsWith("https://")) {
+            return path;
+        }
+        return ASSET_PREFIX + path;
+    }
+
+    /**
+     * 开始新的滑动会话（列表从静止开始滑动时调用），上一个会话的统计记下来，由 getSessionStats 输出
+     */
+    public void startScrollSession() {
+        // 还在空白的图片位：到现在为止的空白时长算进上一个会话
+        long now = SystemClock.uptimeMillis();
+        for (int i = 0; i < blanking.size(); i++) {
+            Slot slot = blanking.get(i);
+            addBlank(now - slot.blankSinceMs);
+            slot.blankSinceMs = now;
+        }
+        // 在开始滑动的这一帧只记数字，拼接字符串留到输出时
+        sessionCount++;
+        maxSessionBlankMs = Math.max(maxSessionBlankMs, sessionBlankMs);
+        lastBytes = sessionBytes;
+        lastDecodes = sessionDecodes;
+        lastThumbnails = sessionThumbnails;
+        lastCancelled = sessionCancelled;
+        lastDeferred = sessionDeferred;
+        lastBlankMs = sessionBlankMs;
+        lastBlankSlots = sessionBlankSlots;
+        sessionBytes = 0;
+        sessionDecodes = 0;
+        sessionThumbnails = 0;
+        sessionCancelled = 0;
+        sessionDeferred = 0;
+        sessionBlankMs = 0;
+        sessionBlankSlots = 0;
+    }
+
+    /**
+     * @return 已结束的滑动会话的解码统计（最近一次的明细）
+     */
+    public String getSessionStats() {
+        return "sessions=" + sessionCount + " maxBlank=" + maxSessionBlankMs + "ms"
+                + " last[decoded=" + lastBytes / 1024 + "KB(" + lastDecodes
+                + " full, " + lastThumbnails + " thumb) cancelled=" + lastCancelled
+                + " deferred=" + lastDeferred
+                + " blank=" + lastBlankMs + "ms(" + lastBlankSlots + " slots)]";
+    }
+
+    public long getSessionDecodedBytes() {
+        return sessionBytes;
+    }
+
+    public long getTotalDecodedBytes() {
+        return totalBytes;
+    }
+
+    public String getStats() {
+        return "decoded=" + totalBytes / 1024 + "KB(" + totalDecodes + ") memoryHits=" + memoryHits
+                + " failed=" + failedCount + " blank=" + totalBlankMs + "ms";
+    }
+
+    private RequestBuilder<Drawable> request(String model, int width, int height, ImageSpec spec) {
+        return glide.load(model)
+                .override(width, height)
+                .centerCrop()
+                .format(spec.opaque ? DecodeFormat.PREFER_RGB_565 : DecodeFormat.PREFER_ARGB_8888);
+    }
+
+    /**
+     * 1/4 尺寸的缩略图请求（与 load 中完整图片附带的缩略图缓存 key 一致）
+     */
+    private RequestBuilder<Drawable> thumbnailRequest(String model, ImageSpec spec) {
+        return request(model, Math.max(spec.width / THUMBNAIL_DIVISOR, 1),
+                Math.max(spec.height / THUMBNAIL_DIVISOR, 1), spec)
+                .listener(thumbnailListener);
+    }
+
+    private void clearDeferred(ImageView view, Slot slot) {
+        if (slot.deferredPath == null) return;
+        slot.deferredPath = null;
+        slot.deferredSpec = null;
+        deferred.remove(view);
+    }
+
+    /**
+     * 还空白的图片位显示到屏幕上，开始计时
+     */
+    private void startBlank(Slot slot, long now) {
+        if (slot.blankSinceMs >= 0) return;
+        slot.blankSinceMs = now;
+        blanking.add(slot);
+    }
+
+    /**
+     * 图片位离开屏幕，到现在为止的空白时长计入统计，再显示出来时继续计时
+     */
+    private void pauseBlank(Slot slot, long now) {
+        if (slot.blankSinceMs < 0) return;
+        addBlank(now - slot.blankSinceMs);
+        slot.blankSinceMs = -1;
+        blanking.remove(slot);
+    }
+
+    /**
+     * 图片位显示出第一张图片（缩略图或完整图片）、加载失败或被取消，结束空白计时
+     */
+    private void endBlank(Slot slot, long now) {
+        if (!slot.blank) return;
+        slot.blank = false;
+        if (slot.blankSinceMs < 0) return;
+        long blank = now - slot.blankSinceMs;
+        pauseBlank(slot, now);
+        if (blank >= BLANK_VISIBLE_MS) {
+            sessionBlankSlots++;
+        }
+    }
+
+    private void addBlank(long blankMs) {
+        sessionBlankMs += blankMs;
+        totalBlankMs += blankMs;
+    }
+
+    @Nullable
+    private Slot slotOf(Target<Drawable> target) {
+        if (!(target instanceof ViewTarget)) return null;
+        Object view = ((ViewTarget<?, ?>) target).getView();
+        return view instanceof ImageView ? slots.get(view) : null;
+    }
+
+    private void onTargetDone(Target<Drawable> target, boolean thumbnail) {
+        Slot slot = slotOf(target);
+        if (slot == null) return;
+        endBlank(slot, SystemClock.uptimeMillis());
+        // 完整图片结束（只加载缩略图时为缩略图结束），图片位上的请求才算完成
+        if (!thumbnail || slot.deferredPath != null) {
+            slot.running = false;
+        }
+    }
+
+    private void onDecoded(Drawable resource, DataSource dataSource, boolean thumbnail) {
+        // 内存缓存命中没有解码
+        if (dataSource == DataSource.MEMORY_CACHE) {
+            memoryHits++;
+            return;
+        }
+        long bytes = decodedBytes(resource);
+        sessionBytes += bytes;
+        totalBytes += bytes;
+        totalDecodes++;
+        if (thumbnail) {
+            sessionThumbnails++;
+        } else {
+            sessionDecodes++;
+        }
+    }
+
+    private static long decodedBytes(Drawable drawable) {
+        if (drawable instanceof BitmapDrawable && ((BitmapDrawable) drawable).getBitmap() != null) {
+            return ((BitmapDrawable) drawable).getBitmap().getAllocationByteCount();
+        }
+        // GIF 等非位图，按 ARGB_8888 估算
+        return (long) Math.max(drawable.getIntrinsicWidth(), 0) * Math.max(drawable.getIntrinsicHeight(), 0) * 4;
+    }
+
+    /**
+     * 解码回调（主线程），所有请求共用
+     */
+    private final class DecodeListener implements RequestListener<Drawable> {
+        private final boolean thumbnail;
+
+        DecodeListener(boolean thumbnail) {
+            this.thumbnail = thumbnail;
+        }
+
+        @Override
+        public boolean onLoadFailed(@Nullable GlideException e, Object model, Target<Drawable> target,
+                                    boolean isFirstResource) {
+            failedCount++;
+            onTargetDone(target, thumbnail);
+            return false;
+        }
+
+        @Override
+        public boolean onResourceReady(Drawable resource, Object model, Target<Drawable> target,
+                                       DataSource dataSource, boolean isFirstResource) {
+            onDecoded(resource, dataSource, thumbnail);
+            onTargetDone(target, thumbnail);
+            return false;
+        }
+    }
+
+    /**
+     * 限流时完整图片的内存缓存查询（主线程）
+     */
+    private final class MemoryProbeListener implements RequestListener<Drawable> {
+
+        @Override
+        public boolean onLoadFailed(@Nullable GlideException e, Object model, Target<Drawable> target,
+                                    boolean isFirstResource) {
+            // 没命中，完整图片延后，只显示缩略图
+            if (slotOf(target) != null) {
+                sessionDeferred++;
+            }
+            return false;
+        }
+
+        @Override
+        public boolean onResourceReady(Drawable resource, Object model, Target<Drawable> target,
+                                       DataSource dataSource, boolean isFirstResource) {
+            Slot slot = slotOf(target);
+            if (slot != null) {
+                clearDeferred((ImageView) ((ViewTarget<?, ?>) target).getView(), slot);
+            }
+            onDecoded(resource, dataSource, false);
+            onTargetDone(target, false);
+            return false;
+        }
+    }
+
+    /**
+     * 单个图片位的状态，随图片位的显示/离开屏幕暂停、继续空白计时
+     */
+    private final class Slot implements View.OnAttachStateChangeListener {
+        // 图片位还没显示出图片
+        boolean blank;
+        // 在屏幕上开始空白的时间，-1 表示没有在计时（已显示图片或不在屏幕上）
+        long blankSinceMs = -1;
+        // 图片位上的请求还没完成
+        boolean running;
+        // 只加载了缩略图、等待补上的完整图片
+        String deferredPath;
+        ImageSpec deferredSpec;
+
+        @Override
+        public void onViewAttachedToWindow(View v) {
+            if (blank) {
+                startBlank(this, SystemClock.uptimeMillis());
+            }
+        }
+
+        @Override
+        public void onViewDetachedFromWindow(View v) {
+            pauseBlank(this, SystemClock.uptimeMillis());
+        }
+    }
+}
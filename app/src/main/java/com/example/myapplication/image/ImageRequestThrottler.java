@@ -0,0 +1,156 @@
+package com.example.myapplication.image;
+
+import com.example.myapplication.scroll.ScrollVelocityTracker;
+
+/**
+ * 滑动时的图片请求限流
+ * 按滑动速度（ScrollVelocityTracker）和最近的帧耗时分三档：
+ * 1. LEVEL_FULL：正常加载（静止、慢速拖动）
+ * 2. LEVEL_THUMBNAIL：新绑定的卡片只加载低优先级的缩略图，完整图片等回到 LEVEL_FULL 再加载（滑得较快，或者开始掉帧）
+ * 3. LEVEL_PAUSED：暂停所有图片请求（快速甩动，或者滑得较快且掉帧）
+ * 降档的速度阈值比升档低 1/4，避免在阈值附近来回切换
+ * 不依赖 Android，时间由调用方传入（单调时钟，毫秒）；只在主线程使用
+ */
+public class ImageRequestThrottler {
+
+    public static final int LEVEL_FULL = 0;
+    public static final int LEVEL_THUMBNAIL = 1;
+    public static final int LEVEL_PAUSED = 2;
+
+    // 超过这个间隔的两帧之间没有连续绘制（静止时的低频检测），不计入帧耗时
+    private static final long MAX_FRAME_GAP_MS = 100;
+    // 平均帧耗时超过帧预算的这个倍数视为掉帧
+    private static final float JANK_FACTOR = 1.5f;
+    // 降档阈值 = 升档阈值 * HYSTERESIS
+    private static final float HYSTERESIS = 0.75f;
+
+    /**
+     * 档位变化回调（交给 FeedImageLoader）
+     */
+    public interface Listener {
+        void onLevelChanged(int level);
+    }
+
+    private final Listener listener;
+    private final ScrollVelocityTracker velocityTracker;
+    private final float thumbnailVelocity;
+    private final float pauseVelocity;
+    private final float frameBudgetMs;
+
+    private int level = LEVEL_FULL;
+    private long lastFrameMs = -1;
+    private float frameMs = 0f;
+
+    // 各档位累计时长
+    private final long[] levelMs = new long[3];
+    private long levelSinceMs = -1;
+    private int pauseCount = 0;
+    private int thumbnailCount = 0;
+
+    /**
+     * @param velocityTracker 列表的滑动速度（由页面的滑动监听更新）
+     * @param thumbnailVelocity 超过此速度（px/ms）只加载缩略图
+     * @param pauseVelocity 超过此速度（px/ms）暂停图片请求
+     * @param frameBudgetMs 一帧的时间预算（按屏幕刷新率）
+     */
+    public ImageRequestThrottler(Listener listener, ScrollVelocityTracker velocityTracker,
+                                 float thumbnailVelocity, float pauseVelocity, float frameBudgetMs) {
+        if (thumbnailVelocity <= 0 || pauseVelocity < thumbnailVelocity || frameBudgetMs <= 0) {
+            throw new IllegalArgumentException("invalid thresholds");
+        }
+        this.listener = listener;
+        this.velocityTracker = velocityTracker;
+        this.thumbnailVelocity = thumbnailVelocity;
+        this.pauseVelocity = pauseVelocity;
+        this.frameBudgetMs = frameBudgetMs;
+    }
+
+    /**
+     * 滑动回调（velocityTracker 更新之后调用），按新的速度更新档位
+     */
+    public void onScrolled(long nowMs) {
+        update(nowMs);
+    }
+
+    /**
+     * 滑动状态变化（velocityTracker 更新之后调用），停下时清空帧耗时
+     */
+    public void onScrollStateChanged(long nowMs) {
+        if (velocityTracker.isIdle()) {
+            lastFrameMs = -1;
+            frameMs = 0f;
+        }
+        update(nowMs);
+    }
+
+    /**
+     * 每帧回调，记录连续两帧的间隔作为帧耗时
+     */
+    public void onFrame(long frameTimeMs) {
+        long interval = lastFrameMs < 0 ? 0 : frameTimeMs - lastFrameMs;
+        lastFrameMs = frameTimeMs;
+        if (interval > 0 && interval <= MAX_FRAME_GAP_MS) {
+            frameMs = frameMs == 0f ? interval : frameMs * 0.75f + interval * 0.25f;
+        }
+        update(frameTimeMs);
+    }
+
+    public int getLevel() {
+        return level;
+    }
+
+    /**
+     * 是否可以加载完整图片（预取、正常绑定）
+     */
+    public boolean allowsFullLoads() {
+        return level == LEVEL_FULL;
+    }
+
+    /**
+     * @return 累计处于某个档位的时长（毫秒），不含当前还没结束的一段
+     */
+    public long getLevelMs(int level) {
+        return levelMs[level];
+    }
+
+    public String getStats() {
+        return "paused=" + pauseCount + "(" + levelMs[LEVEL_PAUSED] + "ms)"
+                + " thumbnailOnly=" + thumbnailCount + "(" + levelMs[LEVEL_THUMBNAIL] + "ms)"
+                + " frame=" + Math.round(frameMs) + "/" + Math.round(frameBudgetMs) + "ms";
+    }
+
+    private boolean isJanky() {
+        return frameMs > frameBudgetMs * JANK_FACTOR;
+    }
+
+    private void update(long nowMs) {
+        float velocity = velocityTracker.getVelocity(nowMs);
+        int target;
+        if (velocity == 0f) {
+            target = LEVEL_FULL;
+        } else {
+            float pauseAt = level == LEVEL_PAUSED ? pauseVelocity * HYSTERESIS : pauseVelocity;
+            float thumbnailAt = level != LEVEL_FULL ? thumbnailVelocity * HYSTERESIS : thumbnailVelocity;
+            boolean janky = isJanky();
+            if (velocity >= pauseAt || (janky && velocity >= thumbnailAt)) {
+                target = LEVEL_PAUSED;
+            } else if (velocity >= thumbnailAt || janky) {
+                target = LEVEL_THUMBNAIL;
+            } else {
+                target = LEVEL_FULL;
+            }
+        }
+        if (target == level) return;
+        if (levelSinceMs >= 0) {
+            levelMs[level] += Math.max(nowMs - levelSinceMs, 0);
+        }
+        levelSinceMs = nowMs;
+        level = target;
+        if (target == LEVEL_PAUSED) {
+            pauseCount++;
+        } else if (target == LEVEL_THUMBNAIL) {
+            thumbnailCount++;
+        }
+        listener.onLevelChanged(target);
+    }
+}
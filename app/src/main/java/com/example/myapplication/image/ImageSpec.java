@@ -0,0 +1,50 @@
+package com.example.myapplication.image;
+
+import android.content.Context;
+import android.util.DisplayMetrics;
+
+/**
+ * 卡片上一个图片位的解码尺寸
+ * 每种卡片在创建 ViewHolder 时按屏幕宽度算一次，图片按这个尺寸解码，不再按原图大小
+ */
+public final class ImageSpec {
+
+    public final int width;
+    public final int height;
+    // 不透明的图（封面）用 RGB_565 解码，内存减半
+    public final boolean opaque;
+
+    public ImageSpec(int width, int height, boolean opaque) {
+        if (width <= 0 || height <= 0) {
+            throw new IllegalArgumentException("invalid size " + width + "x" + height);
+        }
+        this.width = width;
+        this.height = height;
+        this.opaque = opaque;
+    }
+
+    /**
+     * 按屏幕宽度等分计算图片位尺寸
+     * @param columns 一行并排几张（双列卡片为 2，三图卡片为 3）
+     * @param insetDp 每张图左右的内边距、间距之和
+     * @param heightDp 图片位高度（布局中写死的高度）
+     */
+    public static ImageSpec forColumns(Context context, int columns, int insetDp, int heightDp, boolean opaque) {
+        DisplayMetrics metrics = context.getResources().getDisplayMetrics();
+        int width = metrics.widthPixels / columns - Math.round(insetDp * metrics.density);
+        int height = Math.round(heightDp * metrics.density);
+        return new ImageSpec(Math.max(width, 1), Math.max(height, 1), opaque);
+    }
+
+    /**
+     * 每个像素的解码字节数
+     */
+    public int bytesPerPixel() {
+        return opaque ? 2 : 4;
+    }
+
+    @Override
+    public String toString() {
+        return width + "x" + height + (opaque ? " RGB_565" : " ARGB_8888");
+    }
+}
@@ -1,6 +1,7 @@
 package com.example.myapplication.model;
 
 import java.util.List;
+import java.util.Objects;
 
 /**
  * 新闻数据模型
@@ -16,6 +17,8 @@ public class NewsBean {
     public static final int SPAN_SINGLE = 2; // 单列（占满2格）
     public static final int SPAN_DOUBLE = 1; // 双列（占1格）
 
+    // 服务端下发的唯一标识，可为空（为空时由内容推导）
+    public String id;
     public int type;
     public int span = SPAN_SINGLE;
     public String title;
@@ -23,7 +26,113 @@ public class NewsBean {
     public String comment;
     public List<String> images;
     public String duration;
+    // 视频地址（视频卡片），可为空
+    public String videoUrl;
+
+    // 缓存的稳定标识，0 表示尚未计算
+    private transient long stableId;
+
+    // 卡片类型注册表解析出的 viewType 及解析时注册表的版本，版本为 0 表示尚未解析（只在主线程读写）
+    private transient int cardViewType;
+    private transient int cardRegistryVersion;
 
     public NewsBean() {
     }
+
+    /**
+     * 复制一条内容（图片列表共享）
+     */
+    public NewsBean(NewsBean other) {
+        this.id = other.id;
+        this.type = other.type;
+        this.span = other.span;
+        this.title = other.title;
+        this.author = other.author;
+        this.comment = other.comment;
+        this.images = other.images;
+        this.duration = other.duration;
+        this.videoUrl = other.videoUrl;
+    }
+
+    /**
+     * 获取稳定标识，不随在列表中的位置变化
+     * 有 id 时由 id 计算，否则由标题、作者、首图推导
+     */
+    public long getStableId() {
+        long result = stableId;
+        if (result == 0) {
+            if (id != null) {
+                result = hash(FNV_OFFSET, id);
+            } else {
+                result = hash(FNV_OFFSET, title);
+                result = hash(result, author);
+                result = hash(result, images != null && !images.isEmpty() ? images.get(0) : null);
+            }
+            if (result == 0) result = 1;
+            stableId = result;
+        }
+        return result;
+    }
+
+    /**
+     * 取缓存的 viewType
+     * @param registryVersion 当前注册表版本
+     * @return 版本一致时返回缓存值，否则返回 -1
+     */
+    public int getCachedViewType(int registryVersion) {
+        return cardRegistryVersion == registryVersion ? cardViewType : -1;
+    }
+
+    /**
+     * 缓存解析出的 viewType
+     */
+    public void cacheViewType(int registryVersion, int viewType) {
+        this.cardViewType = viewType;
+        this.cardRegistryVersion = registryVersion;
+    }
+
+    /**
+     * 是否为同一条内容（标识相同，内容可能已更新）
+     */
+    public boolean isSameItem(NewsBean other) {
+        return other != null && getStableId() == other.getStableId();
+    }
+
+    private static final long FNV_OFFSET = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    // FNV-1a 64位哈希，逐字符计算，不产生临时对象
+    private static long hash(long h, String s) {
+        if (s == null) {
+            return (h ^ 0xff) * FNV_PRIME;
+        }
+        for (int i = 0; i < s.length(); i++) {
+            h = (h ^ s.charAt(i)) * FNV_PRIME;
+        }
+        return (h ^ 0xfe) * FNV_PRIME;
+    }
+
+    /**
+     * 按内容比较，用于判断刷新后的数据是否有变化
+     */
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof NewsBean)) return false;
+        NewsBean other = (NewsBean) o;
+        return type == other.type
+                && Objects.equals(id, other.id)
+                && span == other.span
+                && Objects.equals(title, other.title)
+                && Objects.equals(author, other.author)
+                && Objects.equals(comment, other.comment)
+                && Objects.equals(images, other.images)
+                && Objects.equals(duration, other.duration)
+                && Objects.equals(videoUrl, other.videoUrl);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(id, type, span, title, author, comment, images, duration, videoUrl);
+    }
 }
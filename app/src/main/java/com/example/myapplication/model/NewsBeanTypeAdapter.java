@@ -0,0 +1,114 @@
+package com.example.myapplication.model;
+
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * NewsBean 的手写 Gson TypeAdapter
+ * 按字段名直接读写，不走反射，未知字段直接跳过
+ */
+public class NewsBeanTypeAdapter extends TypeAdapter<NewsBean> {
+
+    @Override
+    public void write(JsonWriter out, NewsBean item) throws IOException {
+        if (item == null) {
+            out.nullValue();
+            return;
+        }
+        out.beginObject();
+        writeString(out, "id", item.id);
+        out.name("type").value(item.type);
+        out.name("span").value(item.span);
+        writeString(out, "title", item.title);
+        writeString(out, "author", item.author);
+        writeString(out, "comment", item.comment);
+        if (item.images != null) {
+            out.name("images").beginArray();
+            for (String image : item.images) {
+                out.value(image);
+            }
+            out.endArray();
+        }
+        writeString(out, "duration", item.duration);
+        writeString(out, "videoUrl", item.videoUrl);
+        out.endObject();
+    }
+
+    @Override
+    public NewsBean read(JsonReader in) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+        NewsBean item = new NewsBean();
+        in.beginObject();
+        while (in.hasNext()) {
+            String name = in.nextName();
+            if (in.peek() == JsonToken.NULL) {
+                in.nextNull();
+                continue;
+            }
+            switch (name) {
+                case "id":
+                    item.id = in.nextString();
+                    break;
+                case "type":
+                    item.type = in.nextInt();
+                    break;
+                case "span":
+                    item.span = in.nextInt();
+                    break;
+                case "title":
+                    item.title = in.nextString();
+                    break;
+                case "author":
+                    item.author = in.nextString();
+                    break;
+                case "comment":
+                    item.comment = in.nextString();
+                    break;
+                case "images":
+                    item.images = readStringList(in);
+                    break;
+                case "duration":
+                    item.duration = in.nextString();
+                    break;
+                case "videoUrl":
+                    item.videoUrl = in.nextString();
+                    break;
+                default:
+                    in.skipValue();
+                    break;
+            }
+        }
+        in.endObject();
+        return item;
+    }
+
+    private static List<String> readStringList(JsonReader in) throws IOException {
+        List<String> list = new ArrayList<>(3);
+        in.beginArray();
+        while (in.hasNext()) {
+            if (in.peek() == JsonToken.NULL) {
+                in.nextNull();
+                list.add(null);
+            } else {
+                list.add(in.nextString());
+            }
+        }
+        in.endArray();
+        return list;
+    }
+
+    private static void writeString(JsonWriter out, String name, String value) throws IOException {
+        if (value != null) {
+            out.name(name).value(value);
+        }
+    }
+}
@@ -0,0 +1,288 @@
+package com.example.myapplication.repository;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 数据请求调度器
+ * 1. 按优先级执行：当前可见频道优先于后台预取
+ * 2. 相同key的请求合并：排队或执行中的任务直接复用，后加入的订阅者会补发已产生的事件
+ * 3. 可取消：返回的 FetchHandle 取消后不再回调，所有订阅者都取消时任务本身也会中止
+ */
+public class FetchScheduler {
+
+    public static final int PRIORITY_VISIBLE = 0;
+    public static final int PRIORITY_PREFETCH = 10;
+
+    private final ThreadPoolExecutor executor;
+    private final Executor callbackExecutor;
+    private final AtomicLong sequence = new AtomicLong();
+
+    // 排队或执行中的任务，按key合并
+    private final Map<String, Task<?>> inFlight = new HashMap<>();
+
+    /**
+     * 请求句柄
+     */
+    public interface FetchHandle {
+        void cancel();
+        boolean isCancelled();
+    }
+
+    /**
+     * 后台执行的任务体
+     */
+    public interface Job<L> {
+        void run(Task<L> task) throws InterruptedException;
+    }
+
+    /**
+     * 任务产生的事件，会被投递给每个未取消的订阅者
+     */
+    public interface Event<L> {
+        void deliver(L listener);
+    }
+
+    /**
+     * @param threadCount 工作线程数
+     * @param callbackExecutor 事件回调执行器（如主线程Handler）
+     */
+    public FetchScheduler(int threadCount, Executor callbackExecutor) {
+        this.callbackExecutor = callbackExecutor;
+        this.executor = new ThreadPoolExecutor(threadCount, threadCount,
+                30, TimeUnit.SECONDS, new PriorityBlockingQueue<>());
+    }
+
+    /**
+     * 提交请求
+     * @param key 合并key，相同key且仍在排队/执行中的请求会被合并
+     * @param priority 优先级，数值越小越先执行
+     * @param listener 事件接收者
+     * @param job 任务体，只在新建任务时使用
+     */
+    @SuppressWarnings("unchecked")
+    public <L> FetchHandle submit(String key, int priority, L listener, Job<L> job) {
+        synchronized (this) {
+            Task<L> existing = (Task<L>) inFlight.get(key);
+            if (existing != null) {
+                Subscription<L> joined = existing.join(listener);
+                if (joined != null) {
+                    if (priority < existing.priority && executor.getQueue().remove(existing)) {
+                        // 提升优先级需要重新入队，否则堆顺序不会更新
+                        existing.priority = priority;
+                        executor.execute(existing);
+                    }
+                    return joined;
+                }
+            }
+
+            Task<L> task = new Task<>(this, key, priority, sequence.getAndIncrement(), job);
+            Subscription<L> subscription = task.join(listener);
+            inFlight.put(key, task);
+            executor.execute(task);
+            return subscription;
+        }
+    }
+
+    /**
+     * 关闭调度器，取消所有任务
+     */
+    public void shutdown() {
+        List<Task<?>> tasks;
+        synchronized (this) {
+            tasks = new ArrayList<>(inFlight.values());
+            inFlight.clear();
+        }
+        for (Task<?> task : tasks) {
+            task.cancelAll();
+        }
+        executor.shutdownNow();
+    }
+
+    /**
+     * 当前排队中的任务数
+     */
+    public int getQueuedCount() {
+        return executor.getQueue().size();
+    }
+
+    private synchronized void onTaskDone(Task<?> task) {
+        if (inFlight.get(task.key) == task) {
+            inFlight.remove(task.key);
+        }
+    }
+
+    private void onTaskCancelled(Task<?> task) {
+        synchronized (this) {
+            if (inFlight.get(task.key) == task) {
+                inFlight.remove(task.key);
+            }
+        }
+        executor.remove(task);
+    }
+
+    /**
+     * 单个订阅
+     */
+    public static final class Subscription<L> implements FetchHandle {
+        private final Task<L> task;
+        private final L listener;
+        private volatile boolean cancelled = false;
+
+        Subscription(Task<L> task, L listener) {
+            this.task = task;
+            this.listener = listener;
+        }
+
+        @Override
+        public void cancel() {
+            if (cancelled) return;
+            cancelled = true;
+            task.onSubscriptionCancelled();
+        }
+
+        @Override
+        public boolean isCancelled() {
+            return cancelled;
+        }
+    }
+
+    /**
+     * 调度任务
+     */
+    public static final class Task<L> implements Runnable, Comparable<Task<?>> {
+        private final FetchScheduler scheduler;
+        private final String key;
+        private final long sequence;
+        private final Job<L> job;
+        private volatile int priority;
+
+        private final List<Subscription<L>> subscriptions = new ArrayList<>(1);
+        private final List<Event<L>> history = new ArrayList<>();
+        private boolean cancelled = false;
+        private boolean done = false;
+
+        Task(FetchScheduler scheduler, String key, int priority, long sequence, Job<L> job) {
+            this.scheduler = scheduler;
+            this.key = key;
+            this.priority = priority;
+            this.sequence = sequence;
+            this.job = job;
+        }
+
+        /**
+         * 任务是否已被取消（所有订阅者都已取消）
+         */
+        public synchronized boolean isCancelled() {
+            return cancelled;
+        }
+
+        /**
+         * 可被取消打断的等待
+         * @return true 表示正常等待结束，false 表示任务已被取消
+         */
+        public boolean sleep(long millis) throws InterruptedException {
+            long deadline = System.currentTimeMillis() + millis;
+            synchronized (this) {
+                while (!cancelled) {
+                    long remaining = deadline - System.currentTimeMillis();
+                    if (remaining <= 0) return true;
+                    wait(remaining);
+                }
+                return false;
+            }
+        }
+
+        /**
+         * 产生事件：记录下来供后加入的订阅者补发，并投递给当前订阅者
+         */
+        public void emit(Event<L> event) {
+            List<Subscription<L>> targets;
+            synchronized (this) {
+                if (cancelled) return;
+                history.add(event);
+                targets = new ArrayList<>(subscriptions);
+            }
+            for (Subscription<L> subscription : targets) {
+                deliver(subscription, event);
+            }
+        }
+
+        @Override
+        public void run() {
+            synchronized (this) {
+                if (cancelled || done) return;
+            }
+            try {
+                job.run(this);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (RuntimeException e) {
+                e.printStackTrace();
+            } finally {
+                synchronized (this) {
+                    done = true;
+                }
+                scheduler.onTaskDone(this);
+            }
+        }
+
+        @Override
+        public int compareTo(Task<?> other) {
+            if (priority != other.priority) {
+                return priority < other.priority ? -1 : 1;
+            }
+            return Long.compare(sequence, other.sequence);
+        }
+
+        /**
+         * 加入订阅，任务已结束或已取消时返回null
+         */
+        synchronized Subscription<L> join(L listener) {
+            if (cancelled || done) return null;
+            Subscription<L> subscription = new Subscription<>(this, listener);
+            subscriptions.add(subscription);
+            for (Event<L> event : history) {
+                deliver(subscription, event);
+            }
+            return subscription;
+        }
+
+        private void deliver(Subscription<L> subscription, Event<L> event) {
+            scheduler.callbackExecutor.execute(() -> {
+                if (!subscription.isCancelled()) {
+                    event.deliver(subscription.listener);
+                }
+            });
+        }
+
+        private void onSubscriptionCancelled() {
+            synchronized (this) {
+                if (cancelled) return;
+                for (Subscription<L> subscription : subscriptions) {
+                    if (!subscription.isCancelled()) return;
+                }
+                cancelled = true;
+                notifyAll();
+            }
+            scheduler.onTaskCancelled(this);
+        }
+
+        private void cancelAll() {
+            synchronized (this) {
+                for (Subscription<L> subscription : subscriptions) {
+                    subscription.cancelled = true;
+                }
+                cancelled = true;
+                notifyAll();
+            }
+        }
+    }
+}
@@ -3,60 +3,129 @@ package com.example.myapplication.repository;
 import android.content.Context;
 import android.os.Handler;
 import android.os.Looper;
+import android.os.SystemClock;
 
+import com.example.myapplication.cache.CacheStats;
 import com.example.myapplication.cache.NewsCacheManager;
 import com.example.myapplication.model.NewsBean;
-import com.google.gson.Gson;
-import com.google.gson.reflect.TypeToken;
 
-import java.io.BufferedReader;
-import java.io.InputStreamReader;
-import java.lang.reflect.Type;
+import java.io.InputStream;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Random;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
 
 /**
  * 新闻数据仓库
- * 统一管理数据获取：网络优先，失败时使用本地缓存
+ * 统一管理数据获取：有缓存时先展示缓存（stale-while-revalidate），无缓存时网络优先，失败时使用本地缓存
+ * 请求由 FetchScheduler 调度：可取消、相同请求合并、可见频道优先于后台预取
  */
 public class NewsRepository {
 
     private final Context context;
     private final NewsCacheManager cacheManager;
-    private final ExecutorService executor;
+    private final FetchScheduler scheduler;
     private final Handler mainHandler;
-    private final Gson gson;
+    private final NewsStreamDecoder decoder;
+    private final CacheStats cacheStats = new CacheStats();
 
     // 模拟网络请求失败的概率（用于测试缓存功能）
     private static final float NETWORK_FAIL_RATE = 0.3f;
 
+    // 模拟网络延迟
+    private static final long NETWORK_DELAY_MS = 500;
+
+    // 续页数据源（模拟服务端）的总条数上限
+    private static final int MAX_FEED_SIZE = 100_000;
+
+    // 调度线程数
+    private static final int FETCH_THREADS = 2;
+
+    // 分页下发：首屏条数 / 后续每批条数
+    public static final int DEFAULT_FIRST_PAGE_SIZE = 6;
+    public static final int DEFAULT_BATCH_SIZE = 10;
+
     public interface DataCallback {
         void onSuccess(List<NewsBean> data, boolean fromCache);
         void onError(String message);
     }
 
+    /**
+     * 分页回调：数据边解析边分批下发，首屏不用等整个频道解析完
+     */
+    public interface PagedDataCallback {
+        /**
+         * @param page 本批数据
+         * @param pageIndex 批次序号，0 表示首屏
+         * @param last 是否为最后一批
+         */
+        void onPage(List<NewsBean> page, int pageIndex, boolean last, boolean fromCache);
+        void onError(String message);
+    }
+
+    /**
+     * 按游标加载更多的回调
+     */
+    public interface PageCallback {
+        /**
+         * @param items 本页数据
+         * @param nextCursor 下一页游标，null 表示没有更多
+         */
+        void onPageLoaded(List<NewsBean> items, String nextCursor);
+        void onError(String message);
+    }
+
+    /**
+     * 后台刷新结果回调
+     * DataCallback / PagedDataCallback 同时实现此接口时，先收到缓存数据，后台刷新完成后再收到新数据
+     */
+    public interface RevalidationListener {
+        /**
+         * 刷新得到的数据与缓存不同时回调（主线程）
+         */
+        void onRevalidated(List<NewsBean> fresh);
+
+        /**
+         * 后台刷新失败，界面继续使用缓存数据（主线程）
+         */
+        void onRevalidateFailed(String message);
+    }
+
     public NewsRepository(Context context) {
         this.context = context;
         this.cacheManager = new NewsCacheManager(context);
-        this.executor = Executors.newSingleThreadExecutor();
         this.mainHandler = new Handler(Looper.getMainLooper());
-        this.gson = new Gson();
+        this.scheduler = new FetchScheduler(FETCH_THREADS, mainHandler::post);
+        this.decoder = new NewsStreamDecoder();
     }
 
     /**
      * 获取新闻数据
-     * 策略：模拟网络请求，成功则更新缓存，失败则使用缓存
+     * 策略：有缓存时立即返回缓存，过期则后台刷新；无缓存时模拟网络请求，成功则更新缓存，失败则使用缓存
      */
-    public void fetchNews(String fileName, DataCallback callback) {
-        executor.execute(() -> {
-            // 模拟网络延迟
-            try {
-                Thread.sleep(500);
-            } catch (InterruptedException e) {
-                e.printStackTrace();
+    public FetchScheduler.FetchHandle fetchNews(String fileName, DataCallback callback) {
+        return fetchNews(fileName, FetchScheduler.PRIORITY_VISIBLE, callback);
+    }
+
+    /**
+     * 获取新闻数据（指定优先级）
+     */
+    public FetchScheduler.FetchHandle fetchNews(String fileName, int priority, DataCallback callback) {
+        return scheduler.submit("news:" + fileName, priority, callback, task -> {
+            List<NewsBean> cached = cacheManager.getFromCacheIgnoreExpire(fileName);
+            if (cached != null && !cached.isEmpty()) {
+                task.emit(l -> l.onSuccess(cached, true));
+                if (cacheManager.isCacheValid(fileName)) {
+                    cacheStats.recordHit(fileName);
+                } else {
+                    cacheStats.recordStaleServe(fileName);
+                    revalidate(task, fileName, cached);
+                }
+                return;
             }
+            cacheStats.recordMiss(fileName);
+
+            // 模拟网络延迟
+            if (!task.sleep(NETWORK_DELAY_MS)) return;
 
             // 模拟网络请求（随机失败）
             boolean networkSuccess = new Random().nextFloat() > NETWORK_FAIL_RATE;
@@ -67,28 +136,163 @@ public class NewsRepository {
                 if (data != null) {
                     // 保存到缓存
                     cacheManager.saveToCache(fileName, data);
-                    postSuccess(callback, data, false);
+                    task.emit(l -> l.onSuccess(data, false));
                 } else {
                     // 读取失败，尝试缓存
-                    tryLoadFromCache(fileName, callback, "数据加载失败");
+                    tryLoadFromCache(task, fileName, "数据加载失败");
+                }
+            } else {
+                // 网络失败：使用缓存
+                tryLoadFromCache(task, fileName, "网络请求失败");
+            }
+        });
+    }
+
+    /**
+     * 分页获取新闻数据（默认首屏/批次大小）
+     */
+    public FetchScheduler.FetchHandle fetchNewsPaged(String fileName, PagedDataCallback callback) {
+        return fetchNewsPaged(fileName, DEFAULT_FIRST_PAGE_SIZE, DEFAULT_BATCH_SIZE,
+                FetchScheduler.PRIORITY_VISIBLE, callback);
+    }
+
+    /**
+     * 分页获取新闻数据
+     * 策略同 fetchNews，但解析出首屏条数后立即回调，其余按批次追加
+     */
+    public FetchScheduler.FetchHandle fetchNewsPaged(String fileName, int firstPageSize, int batchSize,
+                                                     int priority, PagedDataCallback callback) {
+        String key = "paged:" + fileName + ":" + firstPageSize + ":" + batchSize;
+        return scheduler.submit(key, priority, callback, task -> {
+            List<NewsBean> cached = cacheManager.getFromCacheIgnoreExpire(fileName);
+            if (cached != null && !cached.isEmpty()) {
+                PageEmitter emitter = new PageEmitter(task, firstPageSize, batchSize, true);
+                for (NewsBean item : cached) {
+                    emitter.add(item);
+                }
+                emitter.finish();
+                if (cacheManager.isCacheValid(fileName)) {
+                    cacheStats.recordHit(fileName);
+                } else {
+                    cacheStats.recordStaleServe(fileName);
+                    revalidate(task, fileName, cached);
+                }
+                return;
+            }
+            cacheStats.recordMiss(fileName);
+
+            // 模拟网络延迟
+            if (!task.sleep(NETWORK_DELAY_MS)) return;
+
+            // 模拟网络请求（随机失败）
+            boolean networkSuccess = new Random().nextFloat() > NETWORK_FAIL_RATE;
+
+            if (networkSuccess) {
+                // 网络成功：边解析边下发
+                List<NewsBean> all = new ArrayList<>();
+                PageEmitter emitter = new PageEmitter(task, firstPageSize, batchSize, false);
+                int count = loadFromAssets(fileName, (item, index) -> {
+                    all.add(item);
+                    emitter.add(item);
+                    // 请求被取消时停止解析
+                    return !task.isCancelled();
+                });
+                if (task.isCancelled()) return;
+                if (count >= 0) {
+                    emitter.finish();
+                    cacheManager.saveToCache(fileName, all);
+                } else if (emitter.hasDelivered()) {
+                    // 解析中途失败，已下发的部分保留，不写缓存
+                    emitter.finish();
+                } else {
+                    tryLoadPagedFromCache(task, fileName, firstPageSize, batchSize, "数据加载失败");
                 }
             } else {
                 // 网络失败：使用缓存
-                tryLoadFromCache(fileName, callback, "网络请求失败");
+                tryLoadPagedFromCache(task, fileName, firstPageSize, batchSize, "网络请求失败");
+            }
+        });
+    }
+
+    /**
+     * 按游标加载下一页
+     * 游标由上一页返回（首屏之后的第一页用 cursorAfter 生成），对调用方不透明
+     * @param cursor 页游标
+     * @param pageSize 每页条数
+     */
+    public FetchScheduler.FetchHandle fetchPage(String fileName, String cursor, int pageSize, PageCallback callback) {
+        String key = "page:" + fileName + ":" + cursor + ":" + pageSize;
+        return scheduler.submit(key, FetchScheduler.PRIORITY_VISIBLE, callback, task -> {
+            int offset = parseCursor(cursor);
+            if (offset < 0) {
+                task.emit(l -> l.onError("无效的分页游标"));
+                return;
+            }
+
+            // 模拟网络延迟
+            if (!task.sleep(NETWORK_DELAY_MS)) return;
+            if (new Random().nextFloat() <= NETWORK_FAIL_RATE) {
+                task.emit(l -> l.onError("加载更多失败"));
+                return;
+            }
+
+            List<NewsBean> source = cacheManager.getFromCacheIgnoreExpire(fileName);
+            if (source == null || source.isEmpty()) {
+                source = loadFromAssets(fileName);
             }
+            if (source == null || source.isEmpty()) {
+                task.emit(l -> l.onError("加载更多失败"));
+                return;
+            }
+
+            int end = Math.min(offset + pageSize, MAX_FEED_SIZE);
+            List<NewsBean> items = new ArrayList<>(Math.max(end - offset, 0));
+            for (int i = offset; i < end; i++) {
+                items.add(itemAt(fileName, source, i));
+            }
+            String next = end < MAX_FEED_SIZE ? cursorAfter(end) : null;
+            task.emit(l -> l.onPageLoaded(items, next));
         });
     }
 
+    /**
+     * 生成从第 loadedCount 条之后开始的游标
+     */
+    public static String cursorAfter(int loadedCount) {
+        return Integer.toString(loadedCount);
+    }
+
+    private static int parseCursor(String cursor) {
+        if (cursor == null) return 0;
+        try {
+            return Integer.parseInt(cursor);
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * 模拟服务端的无限信息流：循环使用频道数据，第二轮起生成新的 id，保证标识唯一
+     */
+    private static NewsBean itemAt(String fileName, List<NewsBean> source, int offset) {
+        NewsBean base = source.get(offset % source.size());
+        int round = offset / source.size();
+        if (round == 0) return base;
+        NewsBean item = new NewsBean(base);
+        item.id = fileName + "#" + offset;
+        return item;
+    }
+
     /**
      * 强制从缓存加载（离线模式）
      */
-    public void fetchFromCacheOnly(String fileName, DataCallback callback) {
-        executor.execute(() -> {
+    public FetchScheduler.FetchHandle fetchFromCacheOnly(String fileName, DataCallback callback) {
+        return scheduler.submit("cache:" + fileName, FetchScheduler.PRIORITY_VISIBLE, callback, task -> {
             List<NewsBean> cached = cacheManager.getFromCacheIgnoreExpire(fileName);
             if (cached != null && !cached.isEmpty()) {
-                postSuccess(callback, cached, true);
+                task.emit(l -> l.onSuccess(cached, true));
             } else {
-                postError(callback, "无缓存数据");
+                task.emit(l -> l.onError("无缓存数据"));
             }
         });
     }
@@ -96,65 +300,162 @@ public class NewsRepository {
     /**
      * 强制刷新（忽略缓存）
      */
-    public void forceRefresh(String fileName, DataCallback callback) {
-        executor.execute(() -> {
-            try {
-                Thread.sleep(500);
-            } catch (InterruptedException e) {
-                e.printStackTrace();
-            }
+    public FetchScheduler.FetchHandle forceRefresh(String fileName, DataCallback callback) {
+        return scheduler.submit("refresh:" + fileName, FetchScheduler.PRIORITY_VISIBLE, callback, task -> {
+            if (!task.sleep(NETWORK_DELAY_MS)) return;
 
             List<NewsBean> data = loadFromAssets(fileName);
             if (data != null) {
                 cacheManager.saveToCache(fileName, data);
-                postSuccess(callback, data, false);
+                task.emit(l -> l.onSuccess(data, false));
             } else {
-                postError(callback, "刷新失败");
+                task.emit(l -> l.onError("刷新失败"));
             }
         });
     }
 
+    /**
+     * 后台刷新过期缓存（在调度线程执行）
+     * 刷新成功则更新缓存，数据有变化时通知实现了 RevalidationListener 的订阅者
+     */
+    private <L> void revalidate(FetchScheduler.Task<L> task, String fileName, List<NewsBean> cached)
+            throws InterruptedException {
+        long start = SystemClock.uptimeMillis();
+
+        // 模拟网络延迟
+        if (!task.sleep(NETWORK_DELAY_MS)) return;
+        boolean networkSuccess = new Random().nextFloat() > NETWORK_FAIL_RATE;
+        List<NewsBean> fresh = networkSuccess ? loadFromAssets(fileName) : null;
+        cacheStats.recordRevalidation(fileName, SystemClock.uptimeMillis() - start, fresh != null);
+
+        if (fresh == null) {
+            task.emit(l -> {
+                if (l instanceof RevalidationListener) {
+                    ((RevalidationListener) l).onRevalidateFailed("网络请求失败，当前为缓存数据");
+                }
+            });
+            return;
+        }
+        cacheManager.saveToCache(fileName, fresh);
+        if (!fresh.equals(cached)) {
+            task.emit(l -> {
+                if (l instanceof RevalidationListener) {
+                    ((RevalidationListener) l).onRevalidated(fresh);
+                }
+            });
+        }
+    }
+
     /**
      * 尝试从缓存加载
      */
-    private void tryLoadFromCache(String fileName, DataCallback callback, String networkError) {
+    private void tryLoadFromCache(FetchScheduler.Task<DataCallback> task, String fileName, String networkError) {
         List<NewsBean> cached = cacheManager.getFromCacheIgnoreExpire(fileName);
         if (cached != null && !cached.isEmpty()) {
-            postSuccess(callback, cached, true);
+            task.emit(l -> l.onSuccess(cached, true));
         } else {
-            postError(callback, networkError + "，且无本地缓存");
+            task.emit(l -> l.onError(networkError + "，且无本地缓存"));
         }
     }
 
     /**
-     * 从Assets加载JSON（模拟网络请求返回）
+     * 尝试从缓存分页加载
      */
-    private List<NewsBean> loadFromAssets(String fileName) {
-        try {
-            InputStreamReader isr = new InputStreamReader(
-                    context.getAssets().open(fileName), "UTF-8");
-            BufferedReader reader = new BufferedReader(isr);
-            StringBuilder sb = new StringBuilder();
-            String line;
-            while ((line = reader.readLine()) != null) {
-                sb.append(line);
+    private void tryLoadPagedFromCache(FetchScheduler.Task<PagedDataCallback> task, String fileName,
+                                       int firstPageSize, int batchSize, String networkError) {
+        List<NewsBean> cached = cacheManager.getFromCacheIgnoreExpire(fileName);
+        if (cached != null && !cached.isEmpty()) {
+            PageEmitter emitter = new PageEmitter(task, firstPageSize, batchSize, true);
+            for (NewsBean item : cached) {
+                emitter.add(item);
             }
-            reader.close();
+            emitter.finish();
+        } else {
+            task.emit(l -> l.onError(networkError + "，且无本地缓存"));
+        }
+    }
 
-            Type listType = new TypeToken<List<NewsBean>>() {}.getType();
-            return gson.fromJson(sb.toString(), listType);
+    /**
+     * 从Assets加载JSON（模拟网络请求返回）
+     */
+    private List<NewsBean> loadFromAssets(String fileName) {
+        try (InputStream input = context.getAssets().open(fileName)) {
+            return decoder.decodeAll(input);
         } catch (Exception e) {
             e.printStackTrace();
             return null;
         }
     }
 
-    private void postSuccess(DataCallback callback, List<NewsBean> data, boolean fromCache) {
-        mainHandler.post(() -> callback.onSuccess(data, fromCache));
+    /**
+     * 从Assets流式加载JSON，每解析出一条就回调一次
+     * @return 解析的条数，失败返回-1
+     */
+    private int loadFromAssets(String fileName, NewsStreamDecoder.ItemListener listener) {
+        try (InputStream input = context.getAssets().open(fileName)) {
+            return decoder.decode(input, listener);
+        } catch (Exception e) {
+            e.printStackTrace();
+            return -1;
+        }
+    }
+
+    /**
+     * 把逐条解析出的数据攒成批次，作为事件投递给订阅者
+     */
+    private static class PageEmitter {
+        private final FetchScheduler.Task<PagedDataCallback> task;
+        private final int batchSize;
+        private final boolean fromCache;
+        private int limit;
+        private int pageIndex = 0;
+        private List<NewsBean> page;
+
+        PageEmitter(FetchScheduler.Task<PagedDataCallback> task, int firstPageSize, int batchSize,
+                    boolean fromCache) {
+            this.task = task;
+            this.batchSize = batchSize;
+            this.fromCache = fromCache;
+            this.limit = firstPageSize;
+            this.page = new ArrayList<>(firstPageSize);
+        }
+
+        void add(NewsBean item) {
+            page.add(item);
+            if (page.size() >= limit) {
+                post(false);
+                limit = batchSize;
+                page = new ArrayList<>(batchSize);
+            }
+        }
+
+        void finish() {
+            post(true);
+        }
+
+        boolean hasDelivered() {
+            return pageIndex > 0 || !page.isEmpty();
+        }
+
+        private void post(boolean last) {
+            List<NewsBean> data = page;
+            int index = pageIndex++;
+            task.emit(l -> l.onPage(data, index, last, fromCache));
+        }
+    }
+
+    /**
+     * 设置指定频道的缓存有效期
+     */
+    public void setCacheExpireTime(String fileName, long expireTimeMs) {
+        cacheManager.setExpireTime(fileName, expireTimeMs);
     }
 
-    private void postError(DataCallback callback, String message) {
-        mainHandler.post(() -> callback.onError(message));
+    /**
+     * 获取缓存命中统计
+     */
+    public CacheStats getCacheStats() {
+        return cacheStats;
     }
 
     /**
@@ -170,4 +471,11 @@ public class NewsRepository {
     public void clearCache() {
         cacheManager.clearAllCache();
     }
+
+    /**
+     * 释放资源，取消所有请求
+     */
+    public void release() {
+        scheduler.shutdown();
+    }
 }
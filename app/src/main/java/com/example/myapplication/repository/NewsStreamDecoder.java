@@ -0,0 +1,63 @@
+package com.example.myapplication.repository;
+
+import com.example.myapplication.model.NewsBean;
+import com.example.myapplication.model.NewsBeanTypeAdapter;
+import com.google.gson.stream.JsonReader;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 新闻列表流式解码器
+ * 基于 JsonReader 边读边解析，不需要先把整个响应读成字符串
+ */
+public class NewsStreamDecoder {
+
+    private final NewsBeanTypeAdapter itemAdapter = new NewsBeanTypeAdapter();
+
+    /**
+     * 逐条解码回调
+     */
+    public interface ItemListener {
+        /**
+         * 每解析出一条数据回调一次（在解码线程）
+         * @return false 表示停止继续解析
+         */
+        boolean onItem(NewsBean item, int index);
+    }
+
+    /**
+     * 流式解码，每解析出一条就回调一次
+     * @return 实际解析的条数
+     */
+    public int decode(InputStream input, ItemListener listener) throws IOException {
+        JsonReader reader = new JsonReader(new InputStreamReader(input, StandardCharsets.UTF_8));
+        try {
+            int count = 0;
+            reader.beginArray();
+            while (reader.hasNext()) {
+                NewsBean item = itemAdapter.read(reader);
+                if (item == null) continue;
+                if (!listener.onItem(item, count++)) {
+                    break;
+                }
+            }
+            return count;
+        } finally {
+            reader.close();
+        }
+    }
+
+    /**
+     * 解码完整列表
+     */
+    public List<NewsBean> decodeAll(InputStream input) throws IOException {
+        List<NewsBean> result = new ArrayList<>();
+        decode(input, (item, index) -> result.add(item));
+        return result;
+    }
+}
@@ -0,0 +1,59 @@
+package com.example.myapplication.scroll;
+
+/**
+ * 列表滑动速度估算，页面的滑动监听统一喂入，自动播放调度、图片限流、图片预取共用
+ * 速度为相邻两次滑动回调的瞬时速度的指数平均；静止或一段时间没有滑动回调（手指按住不动时不会回到 IDLE）时为 0
+ * 不依赖 Android，时间由调用方传入（单调时钟，毫秒）；只在主线程使用
+ */
+public class ScrollVelocityTracker {
+
+    // 超过这么久没有滑动回调，认为列表已经停住
+    public static final long STALE_MS = 100;
+    // 新一轮滑动的第一次回调没有上一次可比，按一帧估算
+    private static final long FRAME_MS = 16;
+
+    private boolean idle = true;
+    private float velocityPxPerMs = 0f;
+    private long lastScrollMs = -1;
+    // 1 向下，-1 向上
+    private int direction = 1;
+
+    /**
+     * 滑动回调
+     */
+    public void onScrolled(int dy, long nowMs) {
+        if (dy == 0) return;
+        long elapsed = nowMs - lastScrollMs;
+        boolean continuous = lastScrollMs >= 0 && elapsed > 0 && elapsed <= STALE_MS;
+        lastScrollMs = nowMs;
+        direction = dy > 0 ? 1 : -1;
+        float instant = Math.abs(dy) / (float) (continuous ? elapsed : FRAME_MS);
+        velocityPxPerMs = continuous && velocityPxPerMs > 0f
+                ? velocityPxPerMs * 0.5f + instant * 0.5f : instant;
+    }
+
+    public void onScrollStateChanged(boolean idle) {
+        this.idle = idle;
+        if (idle) {
+            velocityPxPerMs = 0f;
+        }
+    }
+
+    /**
+     * @return 当前滑动速度（px/ms，不分方向），静止或超过 STALE_MS 没有滑动回调时为 0
+     */
+    public float getVelocity(long nowMs) {
+        return idle || nowMs - lastScrollMs > STALE_MS ? 0f : velocityPxPerMs;
+    }
+
+    /**
+     * @return 最近一次滑动的方向：1 向下，-1 向上
+     */
+    public int getDirection() {
+        return direction;
+    }
+
+    public boolean isIdle() {
+        return idle;
+    }
+}
@@ -0,0 +1,193 @@
+package com.example.myapplication.video;
+
+import com.example.myapplication.scroll.ScrollVelocityTracker;
+
+/**
+ * 视频自动播放调度
+ * 1. 每帧接收曝光检测选出的候选视频，候选连续保持 debounceMs 才开始播放，快速划过的卡片不起播；
+ *    onFrame 返回防抖到期的时间，调用方在该时间再检测一次，列表静止时不必等下一次低频检测
+ * 2. 列表静止或滑动速度（ScrollVelocityTracker）低于阈值时才开始播放；正在播放的视频不再是候选时立即停止
+ * 3. 预热下一个候选同样等速度降下来，快速甩动时不反复准备播放器
+ * 4. 统计：起播延迟直方图（从成为候选到开始播放）、浪费的起播次数（播放不到 WASTED_PLAY_MS 就停止）
+ * 不依赖 Android，时间由调用方传入（单调时钟，毫秒）；只在主线程使用
+ */
+public class AutoPlayScheduler {
+
+    public static final long NO_KEY = -1;
+    // onFrame 的返回值：没有等待中的防抖
+    public static final long NO_DEADLINE = -1;
+
+    // 候选需要连续保持的时间
+    private static final long DEFAULT_DEBOUNCE_MS = 150;
+    // 播放不到这么久就停止的起播算浪费
+    private static final long WASTED_PLAY_MS = 1000;
+    // 起播延迟直方图各桶的上限（毫秒），最后一桶为超过最大上限的部分
+    private static final long[] LATENCY_BUCKETS_MS = {100, 200, 400, 800, 1600};
+
+    /**
+     * 播放控制（由页面实现，交给 PlayerPool）
+     */
+    public interface Listener {
+        /**
+         * @return 是否开始了播放（卡片已被回收等情况返回 false，下一帧重试）
+         */
+        boolean onStartPlayback(long key, int position);
+
+        void onStopPlayback(long key, int position);
+
+        void onWarmUp(long key);
+    }
+
+    private final Listener listener;
+    private final ScrollVelocityTracker velocityTracker;
+    // 允许起播的最大滑动速度（px/ms）
+    private final float maxStartVelocity;
+    private final long debounceMs;
+
+    private long candidateKey = NO_KEY;
+    private long candidateSinceMs = 0;
+    // 当前候选是否因为滑动推迟过起播
+    private boolean candidateDeferred = false;
+
+    private long playingKey = NO_KEY;
+    private int playingPosition = -1;
+    private long playingSinceMs = 0;
+
+    private final int[] latencyHistogram = new int[LATENCY_BUCKETS_MS.length + 1];
+    private int startCount = 0;
+    private int wastedStarts = 0;
+    private int deferredCount = 0;
+
+    public AutoPlayScheduler(Listener listener, ScrollVelocityTracker velocityTracker, float maxStartVelocity) {
+        this(listener, velocityTracker, maxStartVelocity, DEFAULT_DEBOUNCE_MS);
+    }
+
+    /**
+     * @param velocityTracker 列表的滑动速度（由页面的滑动监听更新）
+     * @param maxStartVelocity 允许起播的最大滑动速度（px/ms）
+     * @param debounceMs 候选需要连续保持的时间
+     */
+    public AutoPlayScheduler(Listener listener, ScrollVelocityTracker velocityTracker, float maxStartVelocity,
+                             long debounceMs) {
+        this.listener = listener;
+        this.velocityTracker = velocityTracker;
+        this.maxStartVelocity = maxStartVelocity;
+        this.debounceMs = debounceMs;
+    }
+
+    /**
+     * 每帧曝光检测后调用
+     * @param key 本帧的自动播放候选（露出超过阈值且比例最大的视频），没有时传 NO_KEY
+     * @param warmUpKey 下一个候选，没有时传 NO_KEY
+     * @return 候选还在防抖时返回到期时间（需要在那时再调用一次），否则返回 NO_DEADLINE
+     */
+    public long onFrame(long nowMs, long key, int position, long warmUpKey) {
+        if (key != candidateKey) {
+            candidateKey = key;
+            candidateSinceMs = nowMs;
+            candidateDeferred = false;
+        }
+
+        // 正在播放的视频不再是候选：立即停止
+        if (playingKey != NO_KEY && playingKey != key) {
+            stopPlaying(nowMs);
+        }
+
+        boolean waiting = key != NO_KEY && key != playingKey;
+        if (!isSettled(nowMs)) {
+            if (waiting && !candidateDeferred) {
+                candidateDeferred = true;
+                deferredCount++;
+            }
+            return debounceDeadline(waiting, nowMs);
+        }
+        if (waiting && nowMs - candidateSinceMs >= debounceMs && listener.onStartPlayback(key, position)) {
+            playingKey = key;
+            playingPosition = position;
+            playingSinceMs = nowMs;
+            startCount++;
+            recordLatency(nowMs - candidateSinceMs);
+            waiting = false;
+        }
+        if (warmUpKey != NO_KEY && warmUpKey != playingKey) {
+            listener.onWarmUp(warmUpKey);
+        }
+        return debounceDeadline(waiting, nowMs);
+    }
+
+    /**
+     * 停止播放并清空候选（切换频道、离开页面时调用）
+     */
+    public void stopAll(long nowMs) {
+        if (playingKey != NO_KEY) {
+            stopPlaying(nowMs);
+        }
+        candidateKey = NO_KEY;
+        candidateDeferred = false;
+    }
+
+    public long getPlayingKey() {
+        return playingKey;
+    }
+
+    public int getStartCount() {
+        return startCount;
+    }
+
+    public int getWastedStarts() {
+        return wastedStarts;
+    }
+
+    /**
+     * 起播延迟直方图（副本），各桶上限见 getStats
+     */
+    public int[] getLatencyHistogram() {
+        return latencyHistogram.clone();
+    }
+
+    public String getStats() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("starts=").append(startCount)
+                .append(" wasted=").append(wastedStarts)
+                .append(" deferred=").append(deferredCount)
+                .append(" latency[");
+        for (int i = 0; i < LATENCY_BUCKETS_MS.length; i++) {
+            sb.append('<').append(LATENCY_BUCKETS_MS[i]).append("ms:").append(latencyHistogram[i]).append(' ');
+        }
+        sb.append(">=").append(LATENCY_BUCKETS_MS[LATENCY_BUCKETS_MS.length - 1]).append("ms:")
+                .append(latencyHistogram[LATENCY_BUCKETS_MS.length]).append(']');
+        return sb.toString();
+    }
+
+    /**
+     * 候选还没到防抖时间时返回到期时间
+     */
+    private long debounceDeadline(boolean waiting, long nowMs) {
+        long deadline = candidateSinceMs + debounceMs;
+        return waiting && deadline > nowMs ? deadline : NO_DEADLINE;
+    }
+
+    /**
+     * 列表静止，或者滑动速度低于阈值
+     */
+    private boolean isSettled(long nowMs) {
+        return velocityTracker.getVelocity(nowMs) < maxStartVelocity;
+    }
+
+    private void stopPlaying(long nowMs) {
+        listener.onStopPlayback(playingKey, playingPosition);
+        if (nowMs - playingSinceMs < WASTED_PLAY_MS) {
+            wastedStarts++;
+        }
+        playingKey = NO_KEY;
+        playingPosition = -1;
+    }
+
+    private void recordLatency(long latencyMs) {
+        int bucket = 0;
+        while (bucket < LATENCY_BUCKETS_MS.length && latencyMs >= LATENCY_BUCKETS_MS[bucket]) {
+            bucket++;
+        }
+        latencyHistogram[bucket]++;
+    }
+}
@@ -0,0 +1,270 @@
+package com.example.myapplication.video;
+
+import java.util.Arrays;
+
+/**
+ * 全局共享的播放器池，所有视频卡片共用
+ * 1. 最多两个播放器（解码器）：一个正在播放，一个为下一个候选预热，不随卡片数量增加
+ * 2. 卡片绑定时按内容的稳定标识挂到池上，回收时摘下；播放、停止都按稳定标识，不依赖列表位置
+ * 3. 预热过的内容开始播放时直接复用已准备好的播放器（热启动），否则占用空闲播放器重新准备（冷启动）
+ * 目前播放器是占位实现（倒计时），接入真实播放器时替换 Player 的 prepare/start/stop
+ * 不依赖 Android，倒计时通过构造时传入的 Scheduler 派发（界面传主线程 Handler）；只在主线程使用
+ */
+public class PlayerPool {
+
+    // 播放器数量上限：一个播放 + 一个预热
+    private static final int MAX_PLAYERS = 2;
+    // 占位播放时长和进度回调间隔
+    private static final long PLAY_DURATION_MS = 10_000;
+    private static final long TICK_MS = 1000;
+
+    public static final long NO_KEY = -1;
+
+    /**
+     * 播放画面的输出（视频卡片实现）
+     */
+    public interface Surface {
+        void onPlaybackStarted();
+
+        /**
+         * @param remainingMs 剩余播放时长
+         */
+        void onPlaybackProgress(long remainingMs);
+
+        void onPlaybackStopped();
+    }
+
+    /**
+     * 播放进度的定时回调（界面用主线程 Handler 实现）
+     */
+    public interface Scheduler {
+        void postDelayed(Runnable task, long delayMs);
+
+        void remove(Runnable task);
+    }
+
+    private final Scheduler scheduler;
+    private final Player[] players = new Player[MAX_PLAYERS];
+    // 稳定标识 -> 当前绑定该内容的卡片；绑定的视频卡片只有几张，线性查找，不装箱
+    private long[] surfaceKeys = new long[8];
+    private Surface[] surfaceValues = new Surface[8];
+    private int surfaceCount = 0;
+    private Player active;
+    // 为下一个候选预热的播放器，不会同时是 active
+    private Player warm;
+
+    private int warmStarts = 0;
+    private int coldStarts = 0;
+    private int warmUps = 0;
+    private int completed = 0;
+
+    public PlayerPool(Scheduler scheduler) {
+        this.scheduler = scheduler;
+        for (int i = 0; i < MAX_PLAYERS; i++) {
+            players[i] = new Player();
+        }
+    }
+
+    /**
+     * 卡片绑定了某条内容（同一张卡片换绑时先 detach 旧的）
+     * 该内容正在播放时，画面切到新卡片上
+     */
+    public void attach(long key, Surface surface) {
+        putSurface(key, surface);
+        if (active != null && active.key == key && active.surface != surface) {
+            active.surface = surface;
+            surface.onPlaybackStarted();
+            surface.onPlaybackProgress(active.remainingMs);
+        }
+    }
+
+    /**
+     * 卡片被回收或换绑：停止它正在进行的播放，该内容的预热一并释放
+     */
+    public void detach(long key, Surface surface) {
+        int index = indexOfSurface(key);
+        if (index < 0 || surfaceValues[index] != surface) return;
+        removeSurfaceAt(index);
+        if (active != null && active.key == key) {
+            stopActive();
+        }
+        if (warm != null && warm.key == key) {
+            warm.release();
+            warm = null;
+        }
+    }
+
+    /**
+     * 开始播放某条内容，已在播放的内容先停止
+     * @return 该内容没有绑定卡片时返回 false
+     */
+    public boolean play(long key) {
+        int index = indexOfSurface(key);
+        if (index < 0) return false;
+        Surface surface = surfaceValues[index];
+        if (active != null && active.key == key) return true;
+        stopActive();
+
+        // 优先用已为该内容准备好的播放器，否则用预热播放器之外的（保留预热），其中优先用空闲的
+        Player player = players[0].key == key ? players[0] : players[1].key == key ? players[1] : null;
+        if (player != null) {
+            warmStarts++;
+        } else {
+            for (Player candidate : players) {
+                if (candidate == warm) continue;
+                if (player == null || (player.key != NO_KEY && candidate.key == NO_KEY)) player = candidate;
+            }
+            player.prepare(key);
+            coldStarts++;
+        }
+        if (player == warm) warm = null;
+        active = player;
+        player.start(surface);
+        return true;
+    }
+
+    /**
+     * 为下一个候选预热播放器（占用不在播放的那个播放器）
+     */
+    public void warmUp(long key) {
+        if (key == NO_KEY || (active != null && active.key == key)) return;
+        Player spare = warm != null ? warm : players[0] == active ? players[1] : players[0];
+        warm = spare;
+        if (spare.key == key) return;
+        spare.prepare(key);
+        warmUps++;
+    }
+
+    /**
+     * 停止某条内容的播放（没有在播放时忽略）
+     */
+    public void stop(long key) {
+        if (active != null && active.key == key) {
+            stopActive();
+        }
+    }
+
+    public void stopAll() {
+        stopActive();
+    }
+
+    public boolean isPlaying(long key) {
+        return active != null && active.key == key;
+    }
+
+    /**
+     * 释放所有播放器（页面销毁时调用）
+     */
+    public void release() {
+        stopActive();
+        for (Player player : players) {
+            player.release();
+        }
+        warm = null;
+        Arrays.fill(surfaceValues, 0, surfaceCount, null);
+        surfaceCount = 0;
+    }
+
+    /**
+     * 复用预热（或之前准备过）的播放器开始播放的次数
+     */
+    public int getWarmStarts() {
+        return warmStarts;
+    }
+
+    /**
+     * 需要重新准备播放器才能开始播放的次数
+     */
+    public int getColdStarts() {
+        return coldStarts;
+    }
+
+    public String getStats() {
+        return "players=" + MAX_PLAYERS + " warmStarts=" + warmStarts + " coldStarts=" + coldStarts
+                + " warmUps=" + warmUps + " completed=" + completed + " attached=" + surfaceCount;
+    }
+
+    private int indexOfSurface(long key) {
+        for (int i = 0; i < surfaceCount; i++) {
+            if (surfaceKeys[i] == key) return i;
+        }
+        return -1;
+    }
+
+    private void putSurface(long key, Surface surface) {
+        int index = indexOfSurface(key);
+        if (index >= 0) {
+            surfaceValues[index] = surface;
+            return;
+        }
+        if (surfaceCount == surfaceKeys.length) {
+            surfaceKeys = Arrays.copyOf(surfaceKeys, surfaceCount * 2);
+            surfaceValues = Arrays.copyOf(surfaceValues, surfaceCount * 2);
+        }
+        surfaceKeys[surfaceCount] = key;
+        surfaceValues[surfaceCount] = surface;
+        surfaceCount++;
+    }
+
+    private void removeSurfaceAt(int index) {
+        int last = surfaceCount - 1;
+        surfaceKeys[index] = surfaceKeys[last];
+        surfaceValues[index] = surfaceValues[last];
+        surfaceValues[last] = null;
+        surfaceCount = last;
+    }
+
+    private void stopActive() {
+        if (active == null) return;
+        Player player = active;
+        active = null;
+        player.stop();
+    }
+
+    /**
+     * 单个播放器（解码器），准备好的内容在停止后保留，可以直接再次播放
+     */
+    private final class Player implements Runnable {
+        long key = NO_KEY;
+        Surface surface;
+        long remainingMs;
+
+        void prepare(long newKey) {
+            release();
+            key = newKey;
+        }
+
+        void start(Surface output) {
+            surface = output;
+            remainingMs = PLAY_DURATION_MS;
+            output.onPlaybackStarted();
+            output.onPlaybackProgress(remainingMs);
+            scheduler.postDelayed(this, TICK_MS);
+        }
+
+        void stop() {
+            scheduler.remove(this);
+            Surface output = surface;
+            surface = null;
+            if (output != null) output.onPlaybackStopped();
+        }
+
+        void release() {
+            stop();
+            key = NO_KEY;
+        }
+
+        @Override
+        public void run() {
+            remainingMs -= TICK_MS;
+            if (remainingMs <= 0) {
+                completed++;
+                if (active == this) active = null;
+                stop();
+                return;
+            }
+            surface.onPlaybackProgress(remainingMs);
+            scheduler.postDelayed(this, TICK_MS);
+        }
+    }
+}
@@ -0,0 +1,609 @@
+package com.example.myapplication.video;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * 视频开头片段预加载引擎
+ * 1. 用 HTTP Range 请求下载视频开头 N 秒（按总大小和时长换算，不超过字节上限），写入 VideoSegmentCache
+ * 2. 每个视频地址一条状态（排队 / 下载中 / 已就绪 / 失败），放在 ConcurrentHashMap 中，状态切换用 CAS，不加锁
+ * 3. 下载失败后按指数退避，退避期内不再预加载；播放请求不等退避，立即重试
+ * 4. 播放请求优先于预加载，还在排队的预加载被播放时提升为播放优先级；片段可用前同一地址重复开始播放只回调一次（最后传入的回调）
+ * 5. 统计：预加载字节数、起播耗时（从开始播放到开头片段可用）、缓存命中、重试
+ * 6. 片段缓存的索引（上次留下的片段）在下载线程上加载，调用线程不读目录；加载完成前的请求排队，下载前再查一次缓存
+ * 7. 只下载 http/https 地址，其余地址（服务端下发的 ftp:、file: 等）和下载中的任何异常都按失败处理，等待的播放请求回调 null
+ * 不依赖 Android，回调通过构造时传入的 Executor 派发（界面传主线程）
+ */
+public class VideoPreloadEngine {
+
+    // 加载片段缓存索引，先于所有下载
+    private static final int PRIORITY_LOAD_INDEX = -1;
+    public static final int PRIORITY_PLAYBACK = 0;
+    public static final int PRIORITY_PRELOAD = 10;
+
+    // 预加载状态，没有记录时为 STATE_NONE
+    public static final int STATE_NONE = -1;
+    public static final int STATE_QUEUED = 0;
+    public static final int STATE_LOADING = 1;
+    public static final int STATE_READY = 2;
+    public static final int STATE_FAILED = 3;
+
+    private static final int DEFAULT_THREADS = 2;
+    private static final int CONNECT_TIMEOUT_MS = 5000;
+    private static final int READ_TIMEOUT_MS = 10000;
+    private static final int BUFFER_SIZE = 16 * 1024;
+    // 状态表超过此数量时清理已被缓存淘汰的就绪记录
+    private static final int MAX_ENTRIES = 128;
+
+    /**
+     * 片段可用回调
+     */
+    public interface Callback {
+        /**
+         * @param segment 缓存的开头片段，下载失败时为 null
+         */
+        void onSegmentReady(String url, File segment);
+    }
+
+    /**
+     * 预加载配置
+     */
+    public static final class Config {
+        // 预加载开头多少秒
+        public final int preloadSeconds;
+        // 单个视频最多预加载的字节数（不知道时长/总大小时按此下载）
+        public final int maxPrefixBytes;
+        // 失败后第一次重试的等待时间，之后每次翻倍，不超过 retryMaxMs
+        public final long retryBaseMs;
+        public final long retryMaxMs;
+
+        public Config(int preloadSeconds, int maxPrefixBytes) {
+            this(preloadSeconds, maxPrefixBytes, 2000, 60_000);
+        }
+
+        public Config(int preloadSeconds, int maxPrefixBytes, long retryBaseMs, long retryMaxMs) {
+            if (preloadSeconds <= 0 || maxPrefixBytes <= 0 || retryBaseMs <= 0 || retryMaxMs < retryBaseMs) {
+                throw new IllegalArgumentException("invalid config");
+            }
+            this.preloadSeconds = preloadSeconds;
+            this.maxPrefixBytes = maxPrefixBytes;
+            this.retryBaseMs = retryBaseMs;
+            this.retryMaxMs = retryMaxMs;
+        }
+    }
+
+    private final VideoSegmentCache cache;
+    private final Config config;
+    private final Executor callbackExecutor;
+    private final ThreadPoolExecutor executor;
+    private final AtomicLong sequence = new AtomicLong();
+
+    // 视频地址 -> 预加载状态
+    private final ConcurrentHashMap<String, Entry> entries = new ConcurrentHashMap<>();
+
+    private final AtomicLong preloadedBytes = new AtomicLong();
+    private final AtomicInteger preloadCount = new AtomicInteger();
+    private final AtomicInteger failedCount = new AtomicInteger();
+    private final AtomicInteger retryCount = new AtomicInteger();
+    private final AtomicInteger backoffSkipped = new AtomicInteger();
+    private final AtomicInteger cancelledCount = new AtomicInteger();
+    private final AtomicInteger playbackHits = new AtomicInteger();
+    private final AtomicInteger playbackMisses = new AtomicInteger();
+    private final AtomicLong hitStartupMs = new AtomicLong();
+    private final AtomicLong missStartupMs = new AtomicLong();
+    private final AtomicLong maxStartupMs = new AtomicLong();
+
+    public VideoPreloadEngine(VideoSegmentCache cache, Config config, Executor callbackExecutor) {
+        this(cache, config, callbackExecutor, DEFAULT_THREADS);
+    }
+
+    public VideoPreloadEngine(VideoSegmentCache cache, Config config, Executor callbackExecutor, int threads) {
+        this.cache = cache;
+        this.config = config;
+        this.callbackExecutor = callbackExecutor;
+        AtomicInteger threadIndex = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 30, TimeUnit.SECONDS,
+                new PriorityBlockingQueue<>(), runnable -> {
+                    Thread thread = new Thread(runnable, "video-preload-" + threadIndex.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        executor.allowCoreThreadTimeOut(true);
+        // 启动时在下载线程上加载缓存索引
+        executor.execute(new Task(null, PRIORITY_LOAD_INDEX));
+    }
+
+    /**
+     * 预加载视频开头片段
+     * @param durationSeconds 视频时长，未知时传 0（按字节上限下载）
+     * @return 是否发起了新的下载（已缓存、正在下载或失败退避中时返回 false）
+     */
+    public boolean preload(String url, int durationSeconds) {
+        Entry entry = entries.get(url);
+        if (entry == null) {
+            if (cache.contains(url)) return false;
+            Entry created = new Entry(url, durationSeconds);
+            entry = entries.putIfAbsent(url, created);
+            if (entry == null) {
+                return submit(created, PRIORITY_PRELOAD);
+            }
+        }
+        return restart(entry, PRIORITY_PRELOAD, false);
+    }
+
+    /**
+     * 开始播放：开头片段可用时回调，并记录起播耗时
+     * 已缓存时立即回调；正在下载时等它完成（还在排队的提升优先级）；否则按播放优先级下载
+     * 片段可用前同一地址重复调用只回调一次：替换掉还在等待的回调，起播耗时从第一次调用算起
+     */
+    public void startPlayback(String url, int durationSeconds, Callback callback) {
+        long start = System.nanoTime();
+        cache.markPlayed(url);
+        File cached = cache.get(url);
+        if (cached != null) {
+            playbackHits.incrementAndGet();
+            recordStartup(hitStartupMs, start);
+            callbackExecutor.execute(() -> callback.onSegmentReady(url, cached));
+            return;
+        }
+        Entry entry = entries.get(url);
+        if (entry != null && entry.replaceWaiting(callback)) return;
+        playbackMisses.incrementAndGet();
+        await(url, durationSeconds, new Waiter(callback, start));
+    }
+
+    /**
+     * 取消某个地址的预加载（有播放请求等待时不取消）
+     */
+    public void cancel(String url) {
+        Entry entry = entries.get(url);
+        if (entry != null) cancel(entry);
+    }
+
+    /**
+     * 取消所有预加载（有播放请求等待时不取消）
+     */
+    public void cancelPreloads() {
+        for (Entry entry : entries.values()) {
+            cancel(entry);
+        }
+    }
+
+    public void shutdown() {
+        for (Entry entry : entries.values()) {
+            Task task = entry.task;
+            if (task != null) task.cancel();
+        }
+        entries.clear();
+        executor.shutdownNow();
+    }
+
+    /**
+     * @return STATE_QUEUED / STATE_LOADING / STATE_READY / STATE_FAILED，没有记录时返回 STATE_NONE
+     */
+    public int getState(String url) {
+        Entry entry = entries.get(url);
+        return entry == null ? STATE_NONE : entry.state.get();
+    }
+
+    public boolean isLoading(String url) {
+        int state = getState(url);
+        return state == STATE_QUEUED || state == STATE_LOADING;
+    }
+
+    public long getPreloadedBytes() {
+        return preloadedBytes.get();
+    }
+
+    public int getPlaybackHits() {
+        return playbackHits.get();
+    }
+
+    public int getPlaybackMisses() {
+        return playbackMisses.get();
+    }
+
+    public int getRetryCount() {
+        return retryCount.get();
+    }
+
+    /**
+     * 平均起播耗时（毫秒）
+     * @param hit true 取缓存命中的平均值，false 取未命中（需要现场下载）的平均值
+     */
+    public long getAverageStartupMs(boolean hit) {
+        int count = hit ? playbackHits.get() : playbackMisses.get();
+        long total = hit ? hitStartupMs.get() : missStartupMs.get();
+        return count == 0 ? 0 : total / count;
+    }
+
+    public String getStats() {
+        return "preloaded=" + preloadCount.get() + "(" + preloadedBytes.get() / 1024 + "KB)"
+                + " wasted=" + cache.getWastedBytes() / 1024 + "KB"
+                + " unplayed=" + cache.getUnplayedBytes() / 1024 + "KB"
+                + " startup[hit=" + playbackHits.get() + "/" + getAverageStartupMs(true) + "ms"
+                + " miss=" + playbackMisses.get() + "/" + getAverageStartupMs(false) + "ms"
+                + " max=" + maxStartupMs.get() + "ms]"
+                + " failed=" + failedCount.get() + " retried=" + retryCount.get()
+                + " backoffSkipped=" + backoffSkipped.get() + " cancelled=" + cancelledCount.get()
+                + " cache=" + cache.getCount() + "(" + cache.getSize() / 1024 + "KB)";
+    }
+
+    /**
+     * 失败第 failures 次后的退避时间：retryBaseMs 起每次翻倍，不超过 retryMaxMs
+     */
+    static long backoffMs(int failures, Config config) {
+        long delay = config.retryBaseMs;
+        for (int i = 1; i < failures && delay < config.retryMaxMs; i++) {
+            delay <<= 1;
+        }
+        return Math.min(delay, config.retryMaxMs);
+    }
+
+    /**
+     * 按总大小和时长换算开头 preloadSeconds 秒的字节数，不超过上限
+     */
+    static long prefixBytes(long totalBytes, int durationSeconds, Config config) {
+        if (totalBytes <= 0 || durationSeconds <= 0) return config.maxPrefixBytes;
+        long bySeconds = (totalBytes * config.preloadSeconds + durationSeconds - 1) / durationSeconds;
+        return Math.min(Math.min(bySeconds, totalBytes), config.maxPrefixBytes);
+    }
+
+    private void recordStartup(AtomicLong total, long startNanos) {
+        long ms = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+        total.addAndGet(ms);
+        long max;
+        while (ms > (max = maxStartupMs.get()) && !maxStartupMs.compareAndSet(max, ms)) {
+            // 重试
+        }
+    }
+
+    /**
+     * 把播放请求挂到地址的记录上，片段可用或失败时回调
+     */
+    private void await(String url, int durationSeconds, Waiter waiter) {
+        Entry entry = entries.get(url);
+        if (entry == null) {
+            Entry created = new Entry(url, durationSeconds);
+            created.waiters.add(waiter);
+            entry = entries.putIfAbsent(url, created);
+            if (entry == null) {
+                submit(created, PRIORITY_PLAYBACK);
+                return;
+            }
+        }
+        entry.waiters.add(waiter);
+        if (entries.get(url) != entry) {
+            // 记录刚被取消：挂到新记录上
+            if (entry.waiters.remove(waiter)) await(url, durationSeconds, waiter);
+            return;
+        }
+        int state = entry.state.get();
+        if (state == STATE_QUEUED) {
+            promote(entry);
+        } else if (state == STATE_READY || state == STATE_FAILED) {
+            // 片段已被淘汰或上次失败：立即重新下载，否则直接回调
+            if (!restart(entry, PRIORITY_PLAYBACK, true)) drain(entry);
+        }
+    }
+
+    /**
+     * 就绪但片段已被淘汰、或失败且退避期已过的记录重新排队下载
+     * @param ignoreBackoff 播放请求不等退避
+     */
+    private boolean restart(Entry entry, int priority, boolean ignoreBackoff) {
+        int state = entry.state.get();
+        if (state == STATE_READY) {
+            if (cache.contains(entry.url)) return false;
+        } else if (state == STATE_FAILED) {
+            if (!ignoreBackoff && nowMs() < entry.retryAtMs) {
+                backoffSkipped.incrementAndGet();
+                return false;
+            }
+        } else {
+            return false;
+        }
+        if (!entry.state.compareAndSet(state, STATE_QUEUED)) return false;
+        if (state == STATE_FAILED) retryCount.incrementAndGet();
+        return submit(entry, priority);
+    }
+
+    /**
+     * 还在排队的预加载换成播放优先级重新排队
+     */
+    private void promote(Entry entry) {
+        Task task = entry.task;
+        if (task != null && task.priority != PRIORITY_PLAYBACK && executor.remove(task)) {
+            submit(entry, PRIORITY_PLAYBACK);
+        }
+    }
+
+    /**
+     * 排队下载；不支持的地址直接按失败结束
+     * @return 是否排队
+     */
+    private boolean submit(Entry entry, int priority) {
+        if (!isHttpUrl(entry.url)) {
+            complete(entry, null);
+            return false;
+        }
+        Task task = new Task(entry, priority);
+        entry.task = task;
+        executor.execute(task);
+        return true;
+    }
+
+    static boolean isHttpUrl(String url) {
+        return url != null && (url.regionMatches(true, 0, "http://", 0, 7)
+                || url.regionMatches(true, 0, "https://", 0, 8));
+    }
+
+    /**
+     * 取消排队或下载中的预加载，记录一并删除
+     */
+    private void cancel(Entry entry) {
+        Task task = entry.task;
+        int state = entry.state.get();
+        if ((state != STATE_QUEUED && state != STATE_LOADING) || task == null
+                || task.priority == PRIORITY_PLAYBACK || !entry.waiters.isEmpty()) {
+            return;
+        }
+        if (!entries.remove(entry.url, entry)) return;
+        task.cancel();
+        // 取消的同时挂上来的播放请求换到新记录
+        Waiter waiter;
+        while ((waiter = entry.waiters.poll()) != null) {
+            await(entry.url, entry.durationSeconds, waiter);
+        }
+    }
+
+    /**
+     * 下载结束：更新状态，回调等待的播放请求
+     * @param segment 失败时为 null
+     */
+    private void complete(Entry entry, File segment) {
+        if (segment != null) {
+            entry.segment = segment;
+            entry.failures = 0;
+            entry.state.set(STATE_READY);
+        } else {
+            failedCount.incrementAndGet();
+            int failures = entry.failures + 1;
+            entry.failures = failures;
+            entry.retryAtMs = nowMs() + backoffMs(failures, config);
+            entry.state.set(STATE_FAILED);
+        }
+        drain(entry);
+        if (entries.size() > MAX_ENTRIES) sweep();
+    }
+
+    /**
+     * 记录处于就绪或失败时，回调所有等待的播放请求（每个只回调一次）
+     */
+    private void drain(Entry entry) {
+        int state = entry.state.get();
+        if (state != STATE_READY && state != STATE_FAILED) return;
+        File segment = state == STATE_READY ? entry.segment : null;
+        Waiter waiter;
+        while ((waiter = entry.waiters.poll()) != null) {
+            if (segment != null) {
+                cache.markPlayed(entry.url);
+                recordStartup(missStartupMs, waiter.startNanos);
+            }
+            Callback callback = waiter.callback.getAndSet(null);
+            if (callback == null) continue;
+            callbackExecutor.execute(() -> callback.onSegmentReady(entry.url, segment));
+        }
+    }
+
+    /**
+     * 清理片段已被淘汰的就绪记录和退避早已结束的失败记录
+     */
+    private void sweep() {
+        long now = nowMs();
+        Iterator<Entry> iterator = entries.values().iterator();
+        while (iterator.hasNext()) {
+            Entry entry = iterator.next();
+            if (!entry.waiters.isEmpty()) continue;
+            int state = entry.state.get();
+            if ((state == STATE_READY && !cache.contains(entry.url))
+                    || (state == STATE_FAILED && now > entry.retryAtMs + config.retryMaxMs)) {
+                entries.remove(entry.url, entry);
+            }
+        }
+    }
+
+    private static long nowMs() {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime());
+    }
+
+    /**
+     * 单个视频地址的预加载状态
+     */
+    private static final class Entry {
+        final String url;
+        final int durationSeconds;
+        final AtomicInteger state = new AtomicInteger(STATE_QUEUED);
+        // 等待片段的播放请求
+        final ConcurrentLinkedQueue<Waiter> waiters = new ConcurrentLinkedQueue<>();
+        volatile Task task;
+        volatile File segment;
+        // 连续失败次数和退避结束时间（同一时间只有一个下载线程写）
+        volatile int failures;
+        volatile long retryAtMs;
+
+        Entry(String url, int durationSeconds) {
+            this.url = url;
+            this.durationSeconds = durationSeconds;
+        }
+
+        /**
+         * 有播放请求还在等待时换成新的回调
+         * @return false 表示没有等待中的请求（或刚好已回调），需要重新挂上
+         */
+        boolean replaceWaiting(Callback callback) {
+            for (Waiter waiter : waiters) {
+                Callback current;
+                while ((current = waiter.callback.get()) != null) {
+                    if (waiter.callback.compareAndSet(current, callback)) return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    /**
+     * 等待片段的播放请求
+     */
+    private static final class Waiter {
+        // 回调时取走（置空），取走之前可以被替换
+        final AtomicReference<Callback> callback;
+        final long startNanos;
+
+        Waiter(Callback callback, long startNanos) {
+            this.callback = new AtomicReference<>(callback);
+            this.startNanos = startNanos;
+        }
+    }
+
+    /**
+     * 一次下载（entry 为 null 时只加载缓存索引）
+     */
+    private final class Task implements Runnable, Comparable<Task> {
+        final Entry entry;
+        final int priority;
+        final long order = sequence.getAndIncrement();
+        volatile boolean cancelled = false;
+        volatile HttpURLConnection connection;
+
+        Task(Entry entry, int priority) {
+            this.entry = entry;
+            this.priority = priority;
+        }
+
+        void cancel() {
+            if (cancelled) return;
+            cancelled = true;
+            cancelledCount.incrementAndGet();
+            executor.remove(this);
+            HttpURLConnection current = connection;
+            if (current != null) current.disconnect();
+        }
+
+        @Override
+        public void run() {
+            if (entry == null) {
+                cache.load();
+                return;
+            }
+            if (cancelled || !entry.state.compareAndSet(STATE_QUEUED, STATE_LOADING)) return;
+            // 请求可能在索引加载完成前发起：上次留下的片段直接可用，不再下载
+            cache.load();
+            File existing = cache.get(entry.url);
+            if (existing != null) {
+                if (!cancelled) complete(entry, existing);
+                return;
+            }
+            // 开始下载时没有播放请求等待的算预加载
+            boolean preloaded = entry.waiters.isEmpty();
+            File tmp = cache.newTempFile(entry.url);
+            File segment = null;
+            try {
+                long written = download(tmp);
+                if (!cancelled) {
+                    segment = cache.commit(entry.url, tmp, preloaded);
+                    if (segment != null && preloaded) {
+                        preloadCount.incrementAndGet();
+                        preloadedBytes.addAndGet(written);
+                    }
+                }
+            } catch (IOException | RuntimeException e) {
+                // 按失败处理，进入退避；运行时异常也不能漏出下载线程，否则等待的播放请求收不到回调
+            } finally {
+                tmp.delete();
+            }
+            if (!cancelled) complete(entry, segment);
+        }
+
+        /**
+         * 下载开头片段到临时文件
+         * @return 写入的字节数
+         */
+        private long download(File tmp) throws IOException {
+            String url = entry.url;
+            HttpURLConnection conn = (HttpURLConnection) new URL(url).openConnection();
+            connection = conn;
+            try {
+                conn.setConnectTimeout(CONNECT_TIMEOUT_MS);
+                conn.setReadTimeout(READ_TIMEOUT_MS);
+                conn.setRequestProperty("Range", "bytes=0-" + (config.maxPrefixBytes - 1));
+                int code = conn.getResponseCode();
+                long total;
+                if (code == HttpURLConnection.HTTP_PARTIAL) {
+                    total = parseTotal(conn.getHeaderField("Content-Range"));
+                } else if (code == HttpURLConnection.HTTP_OK) {
+                    // 服务端不支持 Range：读够需要的长度就断开
+                    total = conn.getContentLengthLong();
+                } else {
+                    throw new IOException("HTTP " + code + " for " + url);
+                }
+                long limit = prefixBytes(total, entry.durationSeconds, config);
+                long written = 0;
+                try (InputStream in = conn.getInputStream();
+                     OutputStream out = new BufferedOutputStream(new FileOutputStream(tmp))) {
+                    byte[] buffer = new byte[BUFFER_SIZE];
+                    while (written < limit && !cancelled) {
+                        int read = in.read(buffer, 0, (int) Math.min(buffer.length, limit - written));
+                        if (read < 0) break;
+                        out.write(buffer, 0, read);
+                        written += read;
+                    }
+                }
+                return written;
+            } finally {
+                conn.disconnect();
+                connection = null;
+            }
+        }
+
+        @Override
+        public int compareTo(Task other) {
+            if (priority != other.priority) {
+                return priority < other.priority ? -1 : 1;
+            }
+            return Long.compare(order, other.order);
+        }
+    }
+
+    /**
+     * 解析 Content-Range: bytes 0-1023/4096 中的总大小，未知时返回 -1
+     */
+    static long parseTotal(String contentRange) {
+        if (contentRange == null) return -1;
+        int slash = contentRange.lastIndexOf('/');
+        if (slash < 0 || slash == contentRange.length() - 1) return -1;
+        String total = contentRange.substring(slash + 1).trim();
+        if (total.equals("*")) return -1;
+        try {
+            return Long.parseLong(total);
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+}
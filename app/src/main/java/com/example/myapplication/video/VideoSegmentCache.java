@@ -0,0 +1,222 @@
+package com.example.myapplication.video;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 视频开头片段的磁盘缓存
+ * 每个视频一个文件（文件名为地址的哈希），总大小超过上限时按最近最少使用淘汰
+ * 片段先写临时文件，写完再提交，读取方不会看到写了一半的文件
+ * 记录每个片段是否被播放过：没播放就被淘汰的片段计为浪费的预加载流量
+ * 上次留下的片段由 load() 在后台线程加载，加载完成前 get/contains 按没有缓存处理，不阻塞调用线程
+ * 线程安全
+ */
+public class VideoSegmentCache {
+
+    private static final String SUFFIX = ".seg";
+    private static final String TMP_SUFFIX = ".tmp";
+
+    private static final class Entry {
+        final File file;
+        final long length;
+        // 片段来自预加载（播放时才下载的不计浪费）
+        final boolean preloaded;
+        boolean played;
+
+        Entry(File file, long length, boolean preloaded) {
+            this.file = file;
+            this.length = length;
+            this.preloaded = preloaded;
+        }
+    }
+
+    private final File dir;
+    private final long maxBytes;
+    // 文件名 -> 片段，按访问顺序排列（最久未用的在前）
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long totalBytes = 0;
+    // 上次留下的片段是否已加载；加载过程串行（读目录不占用缓存的锁）
+    private volatile boolean loaded = false;
+    private final Object loadLock = new Object();
+
+    private long evictedCount = 0;
+    private long wastedBytes = 0;
+
+    /**
+     * @param maxBytes 所有片段的总大小上限
+     */
+    public VideoSegmentCache(File dir, long maxBytes) {
+        if (maxBytes <= 0) throw new IllegalArgumentException("maxBytes must be positive");
+        this.dir = dir;
+        this.maxBytes = maxBytes;
+    }
+
+    /**
+     * 加载上次留下的片段（按修改时间作为使用顺序），清理没写完的临时文件
+     * 需要读目录，在后台线程调用；重复调用只加载一次，其他线程在加载完成前阻塞
+     * 写入片段（newTempFile / commit）之前必须先调用
+     */
+    public void load() {
+        if (loaded) return;
+        synchronized (loadLock) {
+            if (loaded) return;
+            File[] existing = scanExisting();
+            synchronized (this) {
+                for (File file : existing) {
+                    entries.put(file.getName(), new Entry(file, file.length(), true));
+                    totalBytes += file.length();
+                }
+                trimToSize(maxBytes);
+                loaded = true;
+            }
+        }
+    }
+
+    public boolean isLoaded() {
+        return loaded;
+    }
+
+    /**
+     * 取缓存的片段，并标记为最近使用
+     * @return 没有缓存时返回 null
+     */
+    public synchronized File get(String url) {
+        Entry entry = entries.get(fileName(url));
+        return entry == null ? null : entry.file;
+    }
+
+    public synchronized boolean contains(String url) {
+        return entries.containsKey(fileName(url));
+    }
+
+    /**
+     * 片段被用于播放（之后淘汰不再计为浪费）
+     */
+    public synchronized void markPlayed(String url) {
+        Entry entry = entries.get(fileName(url));
+        if (entry != null) entry.played = true;
+    }
+
+    /**
+     * 为下载准备一个临时文件，写完后调用 commit
+     */
+    public File newTempFile(String url) {
+        dir.mkdirs();
+        return new File(dir, fileName(url) + "." + Thread.currentThread().getId() + TMP_SUFFIX);
+    }
+
+    /**
+     * 提交下载好的片段，必要时淘汰旧片段
+     * @param preloaded 是否来自预加载
+     * @return 提交后的片段文件，失败返回 null
+     */
+    public synchronized File commit(String url, File tmp, boolean preloaded) {
+        String name = fileName(url);
+        File target = new File(dir, name);
+        long length = tmp.length();
+        if (length <= 0 || length > maxBytes) {
+            tmp.delete();
+            return null;
+        }
+        Entry old = entries.remove(name);
+        if (old != null) {
+            totalBytes -= old.length;
+        }
+        if (!tmp.renameTo(target)) {
+            tmp.delete();
+            return null;
+        }
+        Entry entry = new Entry(target, length, preloaded);
+        entry.played = old != null && old.played;
+        entries.put(name, entry);
+        totalBytes += length;
+        trimToSize(maxBytes);
+        return target;
+    }
+
+    /**
+     * 删除所有片段（被清除的片段同样计入浪费统计）
+     */
+    public synchronized void clear() {
+        trimToSize(0);
+    }
+
+    public synchronized long getSize() {
+        return totalBytes;
+    }
+
+    public synchronized int getCount() {
+        return entries.size();
+    }
+
+    public synchronized long getEvictedCount() {
+        return evictedCount;
+    }
+
+    /**
+     * 预加载了但直到被淘汰都没有播放的字节数
+     */
+    public synchronized long getWastedBytes() {
+        return wastedBytes;
+    }
+
+    /**
+     * 当前缓存中预加载了、还没播放的字节数
+     */
+    public synchronized long getUnplayedBytes() {
+        long bytes = 0;
+        for (Entry entry : entries.values()) {
+            if (entry.preloaded && !entry.played) bytes += entry.length;
+        }
+        return bytes;
+    }
+
+    private void trimToSize(long limit) {
+        Iterator<Map.Entry<String, Entry>> iterator = entries.entrySet().iterator();
+        while (totalBytes > limit && iterator.hasNext()) {
+            Entry entry = iterator.next().getValue();
+            iterator.remove();
+            totalBytes -= entry.length;
+            evictedCount++;
+            if (entry.preloaded && !entry.played) {
+                wastedBytes += entry.length;
+            }
+            entry.file.delete();
+        }
+    }
+
+    /**
+     * 列出上次留下的片段，按修改时间从旧到新排列；顺带删除没写完的临时文件
+     */
+    private File[] scanExisting() {
+        File[] files = dir.listFiles();
+        if (files == null) return new File[0];
+        List<File> segments = new ArrayList<>();
+        for (File file : files) {
+            if (file.getName().endsWith(SUFFIX)) {
+                segments.add(file);
+            } else if (file.getName().endsWith(TMP_SUFFIX)) {
+                file.delete();
+            }
+        }
+        File[] sorted = segments.toArray(new File[0]);
+        Arrays.sort(sorted, (a, b) -> Long.compare(a.lastModified(), b.lastModified()));
+        return sorted;
+    }
+
+    /**
+     * 地址的 FNV-1a 64 位哈希作为文件名
+     */
+    static String fileName(String url) {
+        long h = 0xcbf29ce484222325L;
+        for (int i = 0; i < url.length(); i++) {
+            h = (h ^ url.charAt(i)) * 0x100000001b3L;
+        }
+        return Long.toHexString(h) + SUFFIX;
+    }
+}
@@ -0,0 +1,186 @@
+package com.example.myapplication.cache;
+
+import com.example.myapplication.model.NewsBean;
+import com.google.gson.Gson;
+import com.google.gson.reflect.TypeToken;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.Writer;
+import java.lang.reflect.Type;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * BinaryFeedStore 正确性测试 + 与旧 SharedPreferences(JSON) 方案的读写耗时对比
+ */
+public class FeedStoreBenchmarkTest {
+
+    private static final int[] SIZES = {1_000, 10_000, 50_000};
+    private static final int ROUNDS = 5;
+
+    @Rule
+    public TemporaryFolder tempFolder = new TemporaryFolder();
+
+    @Test
+    public void roundTrip_preservesAllFields() throws IOException {
+        BinaryFeedStore store = new BinaryFeedStore(tempFolder.newFolder("feed"));
+
+        NewsBean full = createItem(1);
+        NewsBean sparse = new NewsBean();
+        sparse.type = NewsBean.TYPE_TEXT;
+        sparse.title = "只有标题 🔥";
+
+        store.write("news_recommend.json", Arrays.asList(full, sparse), 123456789L);
+
+        List<NewsBean> read = store.read("news_recommend.json");
+        assertNotNull(read);
+        assertEquals(2, read.size());
+        assertItemEquals(full, read.get(0));
+        assertItemEquals(sparse, read.get(1));
+        assertNull(read.get(1).images);
+        assertEquals(123456789L, store.readTimestamp("news_recommend.json"));
+    }
+
+    @Test
+    public void missingOrCorruptFile_returnsNull() throws IOException {
+        File dir = tempFolder.newFolder("feed");
+        BinaryFeedStore store = new BinaryFeedStore(dir);
+
+        assertNull(store.read("news_hot.json"));
+        assertEquals(0, store.readTimestamp("news_hot.json"));
+
+        try (FileOutputStream out = new FileOutputStream(new File(dir, "news_hot.json.feed"))) {
+            out.write(new byte[]{1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12, 13, 14, 15, 16, 17, 18, 19, 20});
+        }
+        assertTrue(store.contains("news_hot.json"));
+        assertNull(store.read("news_hot.json"));
+
+        store.remove("news_hot.json");
+        assertFalse(store.contains("news_hot.json"));
+    }
+
+    @Test
+    public void benchmark_binaryVsSharedPreferencesJson() throws IOException {
+        File dir = tempFolder.newFolder("bench");
+        BinaryFeedStore binaryStore = new BinaryFeedStore(dir);
+        Gson gson = new Gson();
+
+        System.out.println("items\tbinary write\tbinary read\tjson write\tjson read\t(ms, best of " + ROUNDS + ")");
+        for (int size : SIZES) {
+            List<NewsBean> data = createItems(size);
+            File prefsFile = new File(dir, "news_cache_" + size + ".xml");
+
+            long binaryWrite = Long.MAX_VALUE, binaryRead = Long.MAX_VALUE;
+            long jsonWrite = Long.MAX_VALUE, jsonRead = Long.MAX_VALUE;
+            for (int round = 0; round < ROUNDS; round++) {
+                long start = System.nanoTime();
+                binaryStore.write("bench_" + size, data, round);
+                binaryWrite = Math.min(binaryWrite, System.nanoTime() - start);
+
+                start = System.nanoTime();
+                List<NewsBean> fromBinary = binaryStore.read("bench_" + size);
+                binaryRead = Math.min(binaryRead, System.nanoTime() - start);
+                assertEquals(size, fromBinary.size());
+
+                start = System.nanoTime();
+                writeLikeSharedPreferences(gson, prefsFile, data);
+                jsonWrite = Math.min(jsonWrite, System.nanoTime() - start);
+
+                start = System.nanoTime();
+                List<NewsBean> fromJson = readLikeSharedPreferences(gson, prefsFile);
+                jsonRead = Math.min(jsonRead, System.nanoTime() - start);
+                assertEquals(size, fromJson.size());
+            }
+
+            System.out.println(size + "\t" + ms(binaryWrite) + "\t" + ms(binaryRead)
+                    + "\t" + ms(jsonWrite) + "\t" + ms(jsonRead));
+        }
+    }
+
+    /**
+     * 模拟 SharedPreferences 的写入路径：整个列表转JSON，转义后写入一个XML文件
+     */
+    private static void writeLikeSharedPreferences(Gson gson, File file, List<NewsBean> data) throws IOException {
+        String json = gson.toJson(data);
+        try (Writer writer = new OutputStreamWriter(new FileOutputStream(file), StandardCharsets.UTF_8)) {
+            writer.write("<?xml version='1.0' encoding='utf-8' standalone='yes' ?>\n<map>\n<string name=\"cache_key\">");
+            writer.write(json.replace("&", "&amp;").replace("\"", "&quot;").replace("<", "&lt;"));
+            writer.write("</string>\n</map>\n");
+        }
+    }
+
+    /**
+     * 模拟 SharedPreferences 的读取路径：整个XML读入内存，反转义后再整体解析JSON
+     */
+    private static List<NewsBean> readLikeSharedPreferences(Gson gson, File file) throws IOException {
+        StringBuilder sb = new StringBuilder((int) file.length());
+        try (Reader reader = new InputStreamReader(new FileInputStream(file), StandardCharsets.UTF_8)) {
+            char[] buf = new char[8192];
+            int n;
+            while ((n = reader.read(buf)) > 0) {
+                sb.append(buf, 0, n);
+            }
+        }
+        int start = sb.indexOf("\">") + 2;
+        int end = sb.lastIndexOf("</string>");
+        String json = sb.substring(start, end)
+                .replace("&lt;", "<").replace("&quot;", "\"").replace("&amp;", "&");
+        Type listType = new TypeToken<List<NewsBean>>() {}.getType();
+        return gson.fromJson(json, listType);
+    }
+
+    private static List<NewsBean> createItems(int count) {
+        List<NewsBean> items = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            items.add(createItem(i));
+        }
+        return items;
+    }
+
+    private static NewsBean createItem(int i) {
+        NewsBean item = new NewsBean();
+        item.id = "news_" + i;
+        item.type = i % 4 == 0 ? NewsBean.TYPE_VIDEO : NewsBean.TYPE_THREE_IMAGES;
+        item.span = i % 3 == 0 ? NewsBean.SPAN_DOUBLE : NewsBean.SPAN_SINGLE;
+        item.title = "第" + i + "条新闻：这是一条用于测试缓存读写性能的标题 \"quoted\" <tag>";
+        item.author = "作者" + (i % 50);
+        item.comment = (i % 1000) + "评论";
+        item.duration = item.type == NewsBean.TYPE_VIDEO ? "03:2" + (i % 10) : null;
+        item.videoUrl = item.type == NewsBean.TYPE_VIDEO ? "https://cdn.example.com/video/" + i + ".mp4" : null;
+        item.images = Arrays.asList(
+                "https://picsum.photos/id/" + (i % 200) + "/400/300",
+                "https://picsum.photos/id/" + ((i + 1) % 200) + "/400/300",
+                "https://picsum.photos/id/" + ((i + 2) % 200) + "/400/300");
+        return item;
+    }
+
+    private static void assertItemEquals(NewsBean expected, NewsBean actual) {
+        assertEquals(expected.id, actual.id);
+        assertEquals(expected.type, actual.type);
+        assertEquals(expected.span, actual.span);
+        assertEquals(expected.title, actual.title);
+        assertEquals(expected.author, actual.author);
+        assertEquals(expected.comment, actual.comment);
+        assertEquals(expected.duration, actual.duration);
+        assertEquals(expected.videoUrl, actual.videoUrl);
+        assertEquals(expected.images, actual.images);
+    }
+
+    private static String ms(long nanos) {
+        return String.format("%.2f", nanos / 1_000_000.0);
+    }
+}
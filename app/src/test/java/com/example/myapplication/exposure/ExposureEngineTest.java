@@ -0,0 +1,332 @@
+package com.example.myapplication.exposure;
+
+import org.junit.Test;
+
+import java.lang.management.ManagementFactory;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * ExposureStateTable / ExposureEngine 正确性测试 + 停留时长 + 每帧内存分配对比
+ */
+public class ExposureEngineTest {
+
+    private static final int FRAMES = 20_000;
+    private static final int VISIBLE = 8;
+    private static final int FEED_SIZE = 200;
+    private static final int ITEM_HEIGHT = 300;
+    private static final long FRAME_MS = 16;
+
+    // 模拟的帧时钟
+    private long clock = 0;
+
+    @Test
+    public void table_matchesHashMapUnderRandomOperations() {
+        ExposureStateTable table = new ExposureStateTable(4);
+        Map<Long, Integer> expected = new HashMap<>();
+        Map<Long, Integer> frames = new HashMap<>();
+        Random random = new Random(42);
+
+        for (int frame = 1; frame <= 2_000; frame++) {
+            int writes = random.nextInt(20);
+            for (int i = 0; i < writes; i++) {
+                // 小的 key 空间保证大量冲突和重复写入
+                long key = 1 + random.nextInt(64);
+                int state = random.nextInt(4);
+                table.put(key, state, frame);
+                expected.put(key, state);
+                frames.put(key, frame);
+            }
+            if (random.nextInt(3) == 0) {
+                final int current = frame;
+                int removed = table.sweep(frame, (key, state, dwell) -> {
+                    assertEquals(expected.remove(key), Integer.valueOf(state));
+                    assertNotEquals(Integer.valueOf(current), frames.remove(key));
+                });
+                assertEquals(expected.size(), table.size());
+                assertTrue(removed >= 0);
+            }
+            for (Map.Entry<Long, Integer> entry : expected.entrySet()) {
+                assertEquals((int) entry.getValue(), table.get(entry.getKey()));
+            }
+            assertEquals(expected.size(), table.size());
+        }
+    }
+
+    @Test
+    public void engine_emitsEachTransitionOnceAndGoneWhenLeaving() {
+        int[] counts = new int[ExposureEngine.EVENT_GONE + 1];
+        ExposureEngine engine = new ExposureEngine((id, position, event, dwell) -> counts[event]++);
+
+        // 第一帧露出一点
+        engine.beginFrame(clock += FRAME_MS);
+        engine.onItemVisible(11L, 0, 10, 100);
+        engine.endFrame();
+        // 第二帧直接完全展示：补发50%和完全展示
+        engine.beginFrame(clock += FRAME_MS);
+        engine.onItemVisible(11L, 0, 100, 100);
+        engine.endFrame();
+        // 保持完全展示不再回调
+        engine.beginFrame(clock += FRAME_MS);
+        engine.onItemVisible(11L, 0, 100, 100);
+        engine.endFrame();
+        assertEquals(1, counts[ExposureEngine.STATE_VISIBLE]);
+        assertEquals(1, counts[ExposureEngine.STATE_HALF]);
+        assertEquals(1, counts[ExposureEngine.STATE_FULL]);
+        assertEquals(0, counts[ExposureEngine.EVENT_GONE]);
+
+        // 离开屏幕
+        engine.beginFrame(clock += FRAME_MS);
+        engine.endFrame();
+        assertEquals(1, counts[ExposureEngine.EVENT_GONE]);
+        assertEquals(0, engine.size());
+
+        // 位置变化但标识不变时状态保留
+        engine.beginFrame(clock += FRAME_MS);
+        engine.onItemVisible(22L, 5, 100, 100);
+        engine.endFrame();
+        engine.beginFrame(clock += FRAME_MS);
+        engine.onItemVisible(22L, 4, 100, 100);
+        engine.endFrame();
+        assertEquals(2, counts[ExposureEngine.STATE_FULL]);
+    }
+
+    @Test
+    public void snapshotRestore_keepsStates() {
+        int[] counts = new int[ExposureEngine.EVENT_GONE + 1];
+        ExposureEngine engine = new ExposureEngine((id, position, event, dwell) -> counts[event]++);
+        engine.beginFrame(clock += FRAME_MS);
+        engine.onItemVisible(7L, 0, 100, 100);
+        engine.endFrame();
+
+        ExposureStateTable snapshot = engine.snapshot();
+        engine.reset();
+        assertEquals(ExposureEngine.STATE_NONE, engine.getState(7L));
+
+        engine.restore(snapshot);
+        assertEquals(ExposureEngine.STATE_FULL, engine.getState(7L));
+        engine.beginFrame(clock += FRAME_MS);
+        engine.onItemVisible(7L, 0, 100, 100);
+        engine.endFrame();
+        assertEquals(1, counts[ExposureEngine.STATE_FULL]);
+    }
+
+    @Test
+    public void minDwell_flungCardIsNotExposed() {
+        int[] counts = new int[ExposureEngine.EVENT_GONE + 1];
+        ExposureEngine engine = new ExposureEngine(ExposureConfig.withMinDwell(500),
+                (id, position, event, dwell) -> counts[event]++);
+
+        // 快速划过：完全可见只持续了 10 帧（160ms）
+        for (int i = 0; i < 10; i++) {
+            frame(engine, 1L, 100);
+        }
+        frame(engine, -1L, 0);
+        assertEquals(0, counts[ExposureEngine.STATE_VISIBLE]);
+        assertEquals(0, counts[ExposureEngine.STATE_FULL]);
+        // 没有达到过任何级别，消失也不回调
+        assertEquals(0, counts[ExposureEngine.EVENT_GONE]);
+    }
+
+    @Test
+    public void minDwell_levelReachedAfterContinuousDwell() {
+        int[] counts = new int[ExposureEngine.EVENT_GONE + 1];
+        long[] goneDwell = new long[1];
+        ExposureEngine engine = new ExposureEngine(ExposureConfig.withMinDwell(500),
+                (id, position, event, dwell) -> {
+                    counts[event]++;
+                    if (event == ExposureEngine.EVENT_GONE) goneDwell[0] = dwell;
+                });
+
+        // 先露出一半 400ms，再完全展示 600ms
+        for (int i = 0; i < 25; i++) {
+            frame(engine, 1L, 60);
+        }
+        assertEquals(0, counts[ExposureEngine.STATE_VISIBLE]);
+        for (int i = 0; i < 38; i++) {
+            frame(engine, 1L, 100);
+        }
+        // 露出/过半都已持续超过 500ms，完全展示也刚好满 500ms 以上
+        assertEquals(1, counts[ExposureEngine.STATE_VISIBLE]);
+        assertEquals(1, counts[ExposureEngine.STATE_HALF]);
+        assertEquals(1, counts[ExposureEngine.STATE_FULL]);
+        assertEquals(62 * FRAME_MS, engine.getDwellMs(1L));
+
+        frame(engine, -1L, 0);
+        assertEquals(1, counts[ExposureEngine.EVENT_GONE]);
+        assertEquals(62 * FRAME_MS, goneDwell[0]);
+    }
+
+    @Test
+    public void minDwell_thresholdTimerRestartsWhenRatioDrops() {
+        int[] counts = new int[ExposureEngine.EVENT_GONE + 1];
+        ExposureEngine engine = new ExposureEngine(
+                new ExposureConfig(new float[]{0.5f}, 300), (id, position, event, dwell) -> counts[event]++);
+
+        // 过半 200ms -> 跌破 -> 再过半 200ms，都不满 300ms
+        for (int i = 0; i < 13; i++) frame(engine, 1L, 80);
+        frame(engine, 1L, 20);
+        for (int i = 0; i < 13; i++) frame(engine, 1L, 80);
+        assertEquals(0, counts[1]);
+        for (int i = 0; i < 7; i++) frame(engine, 1L, 80);
+        assertEquals(1, counts[1]);
+    }
+
+    @Test
+    public void dwell_frameGapIsCapped() {
+        ExposureEngine engine = new ExposureEngine((id, position, event, dwell) -> { });
+        engine.beginFrame(1_000);
+        engine.onItemVisible(1L, 0, 100, 100);
+        engine.endFrame();
+        // 页面暂停了 10 秒
+        engine.beginFrame(11_000);
+        engine.onItemVisible(1L, 0, 100, 100);
+        engine.endFrame();
+        assertTrue(engine.getDwellMs(1L) <= 500);
+    }
+
+    @Test
+    public void config_rejectsInvalidThresholds() {
+        assertThrows(IllegalArgumentException.class, () -> new ExposureConfig(new float[0], 0));
+        assertThrows(IllegalArgumentException.class, () -> new ExposureConfig(new float[]{0.5f, 0.2f}, 0));
+        assertThrows(IllegalArgumentException.class, () -> new ExposureConfig(new float[]{1.5f}, 0));
+        assertThrows(IllegalArgumentException.class, () -> new ExposureConfig(new float[]{0f}, -1));
+    }
+
+    /**
+     * 单个 item 的一帧，visiblePercent 为 0 时 item 不出现
+     */
+    private void frame(ExposureEngine engine, long id, int visiblePercent) {
+        engine.beginFrame(clock += FRAME_MS);
+        if (visiblePercent > 0) {
+            engine.onItemVisible(id, 0, visiblePercent, 100);
+        }
+        engine.endFrame();
+    }
+
+    /**
+     * 模拟来回滑动的信息流：每帧 8 个可见item，不断有item进出屏幕
+     * 新实现稳态下每帧分配 0 字节；旧实现（HashMap + 每个item new Rect + 截取标题）作为对比
+     */
+    @Test
+    public void benchmark_perFrameAllocation() {
+        com.sun.management.ThreadMXBean threads =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        assertTrue(threads.isThreadAllocatedMemorySupported());
+        threads.setThreadAllocatedMemoryEnabled(true);
+        long threadId = Thread.currentThread().getId();
+
+        long[] ids = new long[FEED_SIZE];
+        String[] titles = new String[FEED_SIZE];
+        for (int i = 0; i < FEED_SIZE; i++) {
+            ids[i] = 0x1000L + i * 7919L;
+            titles[i] = "第" + i + "条新闻的标题";
+        }
+
+        int[] events = new int[1];
+        ExposureEngine engine = new ExposureEngine((id, position, event, dwell) -> events[0]++);
+        LegacyExposure legacy = new LegacyExposure();
+
+        // 预热：让 JIT 编译完成，并让状态表扩容到稳态大小
+        for (int frame = 0; frame < FRAMES; frame++) {
+            runEngineFrame(engine, ids, frame);
+            legacy.runFrame(titles, frame);
+        }
+
+        long overhead = measure(threads, threadId, () -> { });
+
+        events[0] = 0;
+        long engineBytes = measure(threads, threadId, () -> {
+            for (int frame = 0; frame < FRAMES; frame++) {
+                runEngineFrame(engine, ids, frame);
+            }
+        }) - overhead;
+
+        long legacyBytes = measure(threads, threadId, () -> {
+            for (int frame = 0; frame < FRAMES; frame++) {
+                legacy.runFrame(titles, frame);
+            }
+        }) - overhead;
+
+        System.out.println("exposure tracking, " + FRAMES + " frames, " + VISIBLE + " visible items, "
+                + events[0] + " transitions");
+        System.out.println("  HashMap + new Rect + substring:\t" + legacyBytes / FRAMES + " bytes/frame");
+        System.out.println("  ExposureEngine:\t" + engineBytes / FRAMES + " bytes/frame (" + engineBytes + " total)");
+        assertTrue("transitions must happen during the measured window", events[0] > 0);
+        assertEquals(0, engineBytes / FRAMES);
+        assertTrue(engineBytes < legacyBytes);
+    }
+
+    /**
+     * 列表在 [0, FEED_SIZE) 之间来回滑动，每帧移动 1/3 个item
+     */
+    private static int firstVisible(int frame) {
+        int range = (FEED_SIZE - VISIBLE) * 3;
+        int step = frame % (range * 2);
+        int offset = step < range ? step : range * 2 - step;
+        return offset / 3;
+    }
+
+    private static void runEngineFrame(ExposureEngine engine, long[] ids, int frame) {
+        int first = firstVisible(frame);
+        int partial = (frame % 3) * (ITEM_HEIGHT / 3);
+        engine.beginFrame(frame * FRAME_MS);
+        for (int i = 0; i < VISIBLE; i++) {
+            int position = first + i;
+            int visible = i == 0 ? ITEM_HEIGHT - partial : (i == VISIBLE - 1 ? partial + 1 : ITEM_HEIGHT);
+            engine.onItemVisible(ids[position], position, visible, ITEM_HEIGHT);
+        }
+        engine.endFrame();
+    }
+
+    private static long measure(com.sun.management.ThreadMXBean threads, long threadId, Runnable body) {
+        long before = threads.getThreadAllocatedBytes(threadId);
+        body.run();
+        return threads.getThreadAllocatedBytes(threadId) - before;
+    }
+
+    /**
+     * 旧版 MainActivity.checkExposure 的等价实现（去掉了 View 相关调用）
+     */
+    private static final class LegacyExposure {
+        private final Map<Integer, Integer> exposureStateMap = new HashMap<>();
+        private int sink;
+
+        void runFrame(String[] titles, int frame) {
+            int first = firstVisible(frame);
+            int partial = (frame % 3) * (ITEM_HEIGHT / 3);
+            int last = first + VISIBLE - 1;
+            for (int i = first; i <= last; i++) {
+                int[] globalRect = new int[4]; // 对应 new Rect()
+                int visible = i == first ? ITEM_HEIGHT - partial : (i == last ? partial + 1 : ITEM_HEIGHT);
+                globalRect[3] = visible;
+                float ratio = (float) globalRect[3] / ITEM_HEIGHT;
+
+                Integer stateObj = exposureStateMap.get(i);
+                int oldState = stateObj == null ? 0 : stateObj;
+                int newState = oldState;
+                String fullTitle = titles[i];
+                String title = fullTitle.length() > 5 ? fullTitle.substring(0, 5) : fullTitle;
+                if (ratio > 0 && oldState == 0) newState = 1;
+                if (ratio >= 0.5f && oldState < 2) newState = 2;
+                if (ratio >= 0.99f && oldState < 3) newState = 3;
+                if (newState != oldState) {
+                    exposureStateMap.put(i, newState);
+                }
+                sink += title.length();
+            }
+            Iterator<Map.Entry<Integer, Integer>> it = exposureStateMap.entrySet().iterator();
+            while (it.hasNext()) {
+                Map.Entry<Integer, Integer> entry = it.next();
+                int pos = entry.getKey();
+                if (pos < first || pos > last) {
+                    it.remove();
+                }
+            }
+        }
+    }
+}
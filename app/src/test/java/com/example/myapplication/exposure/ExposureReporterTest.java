@@ -0,0 +1,158 @@
+package com.example.myapplication.exposure;
+
+import org.junit.Test;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+/**
+ * 曝光环形缓冲区 / 上报管线测试
+ */
+public class ExposureReporterTest {
+
+    @Test
+    public void buffer_dropsWhenFullInsteadOfBlocking() {
+        ExposureEventBuffer buffer = new ExposureEventBuffer(4);
+        for (int i = 1; i <= 4; i++) {
+            assertTrue(buffer.offer(i, i, ExposureEngine.STATE_VISIBLE, 0, i));
+        }
+        assertFalse(buffer.offer(5, 5, ExposureEngine.STATE_VISIBLE, 0, 5));
+        assertEquals(1, buffer.getDroppedCount());
+
+        ExposureEventBatch batch = new ExposureEventBatch(3);
+        assertEquals(3, buffer.drainTo(batch));
+        assertEquals(1, batch.getStableId(0));
+        assertEquals(3, batch.getStableId(2));
+        assertEquals(1, buffer.size());
+        assertTrue(buffer.offer(6, 6, ExposureEngine.STATE_VISIBLE, 0, 6));
+    }
+
+    @Test
+    public void buffer_preservesOrderAcrossThreads() throws Exception {
+        final int total = 200_000;
+        ExposureEventBuffer buffer = new ExposureEventBuffer(256);
+        long[] received = new long[total];
+        int[] count = {0};
+        // 消费线程里断言失败只会结束该线程，记下来在测试线程上断言
+        AtomicInteger mismatches = new AtomicInteger();
+
+        Thread consumer = new Thread(() -> {
+            ExposureEventBatch batch = new ExposureEventBatch(64);
+            while (count[0] < total) {
+                batch.clear();
+                buffer.drainTo(batch);
+                for (int i = 0; i < batch.size(); i++) {
+                    received[count[0]++] = batch.getStableId(i);
+                    if ((int) batch.getStableId(i) != batch.getPosition(i)) {
+                        mismatches.incrementAndGet();
+                    }
+                }
+            }
+        });
+        consumer.setDaemon(true);
+        consumer.start();
+
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        for (int i = 1; i <= total; i++) {
+            // 满了就重试，模拟一个很慢的消费者；消费者意外退出时不要一直等下去
+            while (!buffer.offer(i, i, ExposureEngine.STATE_FULL, 0, i)) {
+                assertTrue("consumer stopped draining", consumer.isAlive() && System.nanoTime() < deadline);
+                Thread.yield();
+            }
+        }
+        consumer.join(10_000);
+        assertFalse("consumer did not finish", consumer.isAlive());
+
+        assertEquals(0, mismatches.get());
+        assertEquals(total, count[0]);
+        for (int i = 0; i < total; i++) {
+            assertEquals(i + 1, received[i]);
+        }
+    }
+
+    @Test
+    public void reporter_batchesDeduplicatesAndFlushesOnClose() {
+        List<String> records = Collections.synchronizedList(new ArrayList<>());
+        List<Integer> batchSizes = Collections.synchronizedList(new ArrayList<>());
+        ExposureReporter reporter = new ExposureReporter(256, 16, 60_000);
+        reporter.addSink(batch -> {
+            batchSizes.add(batch.size());
+            for (int i = 0; i < batch.size(); i++) {
+                records.add(batch.getStableId(i) + ":" + batch.getEvent(i));
+            }
+        });
+
+        reporter.onExposureEvent(1, 0, ExposureEngine.STATE_VISIBLE, 0);
+        reporter.onExposureEvent(1, 0, ExposureEngine.STATE_VISIBLE, 0); // 重复
+        reporter.onExposureEvent(1, 0, ExposureEngine.STATE_HALF, 0);
+        reporter.onExposureEvent(2, 1, ExposureEngine.STATE_VISIBLE, 0);
+        reporter.onExposureEvent(1, -1, ExposureEngine.EVENT_GONE, 0);
+        reporter.close();
+
+        assertEquals(Arrays.asList("1:1", "1:2", "2:1", "1:16"), records);
+        assertEquals(1, reporter.getDuplicateCount());
+        assertEquals(4, reporter.getDeliveredCount());
+        for (int size : batchSizes) {
+            assertTrue(size <= 16);
+        }
+    }
+
+    @Test
+    public void reporter_flushesFullBatchWithoutWaitingForInterval() throws Exception {
+        List<Integer> batchSizes = Collections.synchronizedList(new ArrayList<>());
+        ExposureReporter reporter = new ExposureReporter(256, 8, 60_000);
+        reporter.addSink(batch -> batchSizes.add(batch.size()));
+
+        for (int i = 1; i <= 8; i++) {
+            reporter.onExposureEvent(i, i, ExposureEngine.STATE_VISIBLE, 0);
+        }
+        long deadline = System.currentTimeMillis() + 2000;
+        while (batchSizes.isEmpty() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(5);
+        }
+        assertFalse(batchSizes.isEmpty());
+        reporter.close();
+    }
+
+    /**
+     * 主线程上报路径不分配对象
+     */
+    @Test
+    public void benchmark_producerAllocation() {
+        com.sun.management.ThreadMXBean threads =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        threads.setThreadAllocatedMemoryEnabled(true);
+        long threadId = Thread.currentThread().getId();
+
+        ExposureReporter reporter = new ExposureReporter(4096, 64, 5);
+        long[] delivered = {0};
+        reporter.addSink(batch -> delivered[0] += batch.size());
+
+        final int events = 200_000;
+        // 预热
+        for (int i = 0; i < events; i++) {
+            reporter.onExposureEvent(1 + (i % 500), i, 1 + (i % 4), i);
+        }
+
+        long start = System.nanoTime();
+        long before = threads.getThreadAllocatedBytes(threadId);
+        for (int i = 0; i < events; i++) {
+            reporter.onExposureEvent(1 + (i % 500), i, 1 + (i % 4), i);
+        }
+        long bytes = threads.getThreadAllocatedBytes(threadId) - before;
+        long nanos = System.nanoTime() - start;
+        reporter.close();
+
+        System.out.println("exposure reporter producer: " + events + " events, "
+                + String.format("%.1f", nanos / (double) events) + " ns/event, " + bytes + " bytes allocated, "
+                + reporter.getDroppedCount() + " dropped, " + reporter.getBatchCount() + " batches");
+        assertTrue(bytes < 1024);
+    }
+}
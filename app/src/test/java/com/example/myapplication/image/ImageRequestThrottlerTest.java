@@ -0,0 +1,122 @@
+package com.example.myapplication.image;
+
+import com.example.myapplication.scroll.ScrollVelocityTracker;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * 图片请求限流：速度档位、滞回、帧耗时
+ */
+public class ImageRequestThrottlerTest {
+
+    private static final long FRAME_MS = 16;
+
+    private final List<Integer> levels = new ArrayList<>();
+    private final ScrollVelocityTracker tracker = new ScrollVelocityTracker();
+    private ImageRequestThrottler throttler;
+    private long clock = 1000;
+
+    @Before
+    public void setUp() {
+        // 2px/ms 以上只加载缩略图，6px/ms 以上暂停，帧预算 16ms
+        throttler = new ImageRequestThrottler(levels::add, tracker, 2f, 6f, 16f);
+    }
+
+    @Test
+    public void slowDragKeepsFullLoads() {
+        scrollState(false);
+        scroll(20, 16);
+        assertEquals(ImageRequestThrottler.LEVEL_FULL, throttler.getLevel());
+        assertTrue(throttler.allowsFullLoads());
+        assertTrue(levels.isEmpty());
+    }
+
+    @Test
+    public void velocitySelectsLevel() {
+        scrollState(false);
+        // 4px/ms：只加载缩略图
+        scroll(10, 64);
+        assertEquals(ImageRequestThrottler.LEVEL_THUMBNAIL, throttler.getLevel());
+        // 10px/ms：暂停
+        scroll(10, 160);
+        assertEquals(ImageRequestThrottler.LEVEL_PAUSED, throttler.getLevel());
+        // 停下：恢复正常
+        scrollState(true);
+        assertEquals(ImageRequestThrottler.LEVEL_FULL, throttler.getLevel());
+        assertEquals(3, levels.size());
+        assertTrue(throttler.getLevelMs(ImageRequestThrottler.LEVEL_PAUSED) > 0);
+    }
+
+    @Test
+    public void hysteresisAvoidsFlapping() {
+        scrollState(false);
+        scroll(10, 112);
+        assertEquals(ImageRequestThrottler.LEVEL_PAUSED, throttler.getLevel());
+        // 5px/ms：低于暂停阈值，但高于降档阈值 4.5px/ms，保持暂停
+        scroll(10, 80);
+        assertEquals(ImageRequestThrottler.LEVEL_PAUSED, throttler.getLevel());
+        // 1.75px/ms：高于缩略图降档阈值 1.5px/ms
+        scroll(20, 28);
+        assertEquals(ImageRequestThrottler.LEVEL_THUMBNAIL, throttler.getLevel());
+        scroll(20, 16);
+        assertEquals(ImageRequestThrottler.LEVEL_FULL, throttler.getLevel());
+    }
+
+    @Test
+    public void droppedFramesThrottleModerateScroll() {
+        scrollState(false);
+        // 1px/ms 的慢速滑动，但每帧 50ms（严重掉帧）
+        for (int i = 0; i < 10; i++) {
+            clock += 50;
+            scrolled(50);
+            throttler.onFrame(clock);
+        }
+        assertEquals(ImageRequestThrottler.LEVEL_THUMBNAIL, throttler.getLevel());
+
+        // 3px/ms 且掉帧：直接暂停
+        for (int i = 0; i < 5; i++) {
+            clock += 50;
+            scrolled(150);
+            throttler.onFrame(clock);
+        }
+        assertEquals(ImageRequestThrottler.LEVEL_PAUSED, throttler.getLevel());
+    }
+
+    @Test
+    public void staleVelocityRestoresFullLoads() {
+        scrollState(false);
+        scroll(5, 160);
+        assertEquals(ImageRequestThrottler.LEVEL_PAUSED, throttler.getLevel());
+        // 手指按住不动：没有滑动回调，静止时的低频帧检测恢复正常加载
+        clock += 200;
+        throttler.onFrame(clock);
+        assertEquals(ImageRequestThrottler.LEVEL_FULL, throttler.getLevel());
+    }
+
+    private void scrollState(boolean idle) {
+        tracker.onScrollStateChanged(idle);
+        throttler.onScrollStateChanged(clock);
+    }
+
+    private void scrolled(int dy) {
+        tracker.onScrolled(dy, clock);
+        throttler.onScrolled(clock);
+    }
+
+    /**
+     * 每帧滑动 dy，同时触发帧回调
+     */
+    private void scroll(int frames, int dy) {
+        for (int i = 0; i < frames; i++) {
+            clock += FRAME_MS;
+            scrolled(dy);
+            throttler.onFrame(clock);
+        }
+    }
+}
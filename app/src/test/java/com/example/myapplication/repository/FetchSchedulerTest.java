@@ -0,0 +1,260 @@
+package com.example.myapplication.repository;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+/**
+ * FetchScheduler 合并/取消/优先级测试 + 快速切换频道时的尾延迟对比
+ */
+public class FetchSchedulerTest {
+
+    private interface Listener {
+        void onResult(String value);
+    }
+
+    private FetchScheduler scheduler;
+
+    @Before
+    public void setUp() {
+        // 回调直接在工作线程执行
+        scheduler = new FetchScheduler(1, Runnable::run);
+    }
+
+    @After
+    public void tearDown() {
+        scheduler.shutdown();
+    }
+
+    @Test
+    public void sameKey_runsOnceAndDeliversToAllSubscribers() throws Exception {
+        AtomicInteger runs = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch delivered = new CountDownLatch(2);
+        List<String> results = Collections.synchronizedList(new ArrayList<>());
+        Listener listener = value -> {
+            results.add(value);
+            delivered.countDown();
+        };
+
+        FetchScheduler.Job<Listener> job = task -> {
+            runs.incrementAndGet();
+            release.await();
+            task.emit(l -> l.onResult("data"));
+        };
+        scheduler.submit("news:a", FetchScheduler.PRIORITY_VISIBLE, listener, job);
+        scheduler.submit("news:a", FetchScheduler.PRIORITY_VISIBLE, listener, job);
+        release.countDown();
+
+        assertTrue(delivered.await(2, TimeUnit.SECONDS));
+        assertEquals(1, runs.get());
+        assertEquals(2, results.size());
+    }
+
+    @Test
+    public void lateSubscriber_receivesReplayedEvents() throws Exception {
+        CountDownLatch emitted = new CountDownLatch(1);
+        CountDownLatch finish = new CountDownLatch(1);
+        List<String> late = Collections.synchronizedList(new ArrayList<>());
+
+        FetchScheduler.Job<Listener> job = task -> {
+            task.emit(l -> l.onResult("page0"));
+            emitted.countDown();
+            finish.await();
+        };
+        scheduler.submit("paged:a", FetchScheduler.PRIORITY_VISIBLE, value -> { }, job);
+        assertTrue(emitted.await(2, TimeUnit.SECONDS));
+
+        scheduler.submit("paged:a", FetchScheduler.PRIORITY_VISIBLE, late::add, job);
+        finish.countDown();
+
+        assertEquals(Collections.singletonList("page0"), late);
+    }
+
+    @Test
+    public void cancelledBeforeRun_neverRunsOrDelivers() throws Exception {
+        CountDownLatch blocker = new CountDownLatch(1);
+        CountDownLatch blockerStarted = new CountDownLatch(1);
+        AtomicInteger runs = new AtomicInteger();
+        List<String> results = Collections.synchronizedList(new ArrayList<>());
+
+        scheduler.submit("block", FetchScheduler.PRIORITY_VISIBLE, (Listener) value -> { }, task -> {
+            blockerStarted.countDown();
+            blocker.await();
+        });
+        assertTrue(blockerStarted.await(2, TimeUnit.SECONDS));
+
+        FetchScheduler.FetchHandle handle = scheduler.submit("news:b", FetchScheduler.PRIORITY_VISIBLE,
+                (Listener) results::add, task -> {
+                    runs.incrementAndGet();
+                    task.emit(l -> l.onResult("data"));
+                });
+        assertEquals(1, scheduler.getQueuedCount());
+        handle.cancel();
+        assertEquals(0, scheduler.getQueuedCount());
+
+        blocker.countDown();
+        Thread.sleep(50);
+        assertEquals(0, runs.get());
+        assertTrue(results.isEmpty());
+    }
+
+    @Test
+    public void cancelWhileSleeping_wakesImmediately() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch finished = new CountDownLatch(1);
+        boolean[] completed = {true};
+
+        FetchScheduler.FetchHandle handle = scheduler.submit("news:c", FetchScheduler.PRIORITY_VISIBLE,
+                (Listener) value -> { }, task -> {
+                    started.countDown();
+                    completed[0] = task.sleep(10_000);
+                    finished.countDown();
+                });
+        assertTrue(started.await(2, TimeUnit.SECONDS));
+        handle.cancel();
+
+        assertTrue(finished.await(1, TimeUnit.SECONDS));
+        assertFalse(completed[0]);
+    }
+
+    @Test
+    public void visibleRequests_runBeforePrefetch() throws Exception {
+        CountDownLatch blocker = new CountDownLatch(1);
+        CountDownLatch blockerStarted = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(3);
+        List<String> order = Collections.synchronizedList(new ArrayList<>());
+
+        scheduler.submit("block", FetchScheduler.PRIORITY_VISIBLE, (Listener) value -> { }, task -> {
+            blockerStarted.countDown();
+            blocker.await();
+        });
+        assertTrue(blockerStarted.await(2, TimeUnit.SECONDS));
+
+        submitRecording("prefetch:1", FetchScheduler.PRIORITY_PREFETCH, order, done);
+        submitRecording("prefetch:2", FetchScheduler.PRIORITY_PREFETCH, order, done);
+        submitRecording("visible", FetchScheduler.PRIORITY_VISIBLE, order, done);
+        blocker.countDown();
+
+        assertTrue(done.await(2, TimeUnit.SECONDS));
+        assertEquals(Arrays.asList("visible", "prefetch:1", "prefetch:2"), order);
+    }
+
+    @Test
+    public void joiningWithHigherPriority_promotesQueuedTask() throws Exception {
+        CountDownLatch blocker = new CountDownLatch(1);
+        CountDownLatch blockerStarted = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(2);
+        List<String> order = Collections.synchronizedList(new ArrayList<>());
+
+        scheduler.submit("block", FetchScheduler.PRIORITY_VISIBLE, (Listener) value -> { }, task -> {
+            blockerStarted.countDown();
+            blocker.await();
+        });
+        assertTrue(blockerStarted.await(2, TimeUnit.SECONDS));
+
+        submitRecording("prefetch:1", FetchScheduler.PRIORITY_PREFETCH, order, done);
+        submitRecording("prefetch:2", FetchScheduler.PRIORITY_PREFETCH, order, null);
+        // 用户点进了正在预取的频道
+        submitRecording("prefetch:2", FetchScheduler.PRIORITY_VISIBLE, order, done);
+        blocker.countDown();
+
+        assertTrue(done.await(2, TimeUnit.SECONDS));
+        assertEquals("prefetch:2", order.get(0));
+        assertEquals("prefetch:1", order.get(order.size() - 1));
+    }
+
+    /**
+     * 模拟用户快速连续切换频道：每次切换发起一次 200ms 的加载，只有最后一次是用户真正要看的。
+     * 旧实现（单线程串行、不可取消）最后一个频道要等前面的全部跑完；
+     * 新实现切换时取消上一次请求，最后一个频道几乎立即开始执行。
+     */
+    @Test
+    public void benchmark_rapidTabSwitchTailLatency() throws Exception {
+        final int taps = 6;
+        final long tapIntervalMs = 40;
+        final long jobMs = 200;
+        final int rounds = 3;
+
+        long baselineWorst = 0;
+        long scheduledWorst = 0;
+        for (int round = 0; round < rounds; round++) {
+            baselineWorst = Math.max(baselineWorst, runBaseline(taps, tapIntervalMs, jobMs));
+            scheduledWorst = Math.max(scheduledWorst, runScheduled(taps, tapIntervalMs, jobMs));
+        }
+
+        System.out.println("rapid tab switch (" + taps + " taps, " + tapIntervalMs + "ms apart, "
+                + jobMs + "ms load): last tab visible after");
+        System.out.println("  single thread executor:\t" + baselineWorst + "ms");
+        System.out.println("  FetchScheduler + cancel:\t" + scheduledWorst + "ms");
+        assertTrue(scheduledWorst < baselineWorst);
+    }
+
+    private static long runBaseline(int taps, long intervalMs, long jobMs) throws Exception {
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        CountDownLatch lastDone = new CountDownLatch(1);
+        long lastTapAt = 0;
+        try {
+            for (int i = 0; i < taps; i++) {
+                boolean last = i == taps - 1;
+                if (last) lastTapAt = System.nanoTime();
+                executor.execute(() -> {
+                    try {
+                        Thread.sleep(jobMs);
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                    if (last) lastDone.countDown();
+                });
+                if (!last) Thread.sleep(intervalMs);
+            }
+            assertTrue(lastDone.await(10, TimeUnit.SECONDS));
+            return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - lastTapAt);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static long runScheduled(int taps, long intervalMs, long jobMs) throws Exception {
+        FetchScheduler scheduler = new FetchScheduler(2, Runnable::run);
+        CountDownLatch lastDone = new CountDownLatch(1);
+        long lastTapAt = 0;
+        FetchScheduler.FetchHandle current = null;
+        try {
+            for (int i = 0; i < taps; i++) {
+                boolean last = i == taps - 1;
+                if (current != null) current.cancel();
+                if (last) lastTapAt = System.nanoTime();
+                current = scheduler.submit("paged:tab" + i, FetchScheduler.PRIORITY_VISIBLE,
+                        (Listener) value -> lastDone.countDown(), task -> {
+                            if (!task.sleep(jobMs)) return;
+                            if (last) task.emit(l -> l.onResult("done"));
+                        });
+                if (!last) Thread.sleep(intervalMs);
+            }
+            assertTrue(lastDone.await(10, TimeUnit.SECONDS));
+            return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - lastTapAt);
+        } finally {
+            scheduler.shutdown();
+        }
+    }
+
+    private void submitRecording(String key, int priority, List<String> order, CountDownLatch done) {
+        scheduler.submit(key, priority, (Listener) value -> {
+            order.add(value);
+            if (done != null) done.countDown();
+        }, task -> task.emit(l -> l.onResult(key)));
+    }
+}
@@ -0,0 +1,52 @@
+package com.example.myapplication.scroll;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * 滑动速度估算：平均、方向、停住后归零
+ */
+public class ScrollVelocityTrackerTest {
+
+    private final ScrollVelocityTracker tracker = new ScrollVelocityTracker();
+
+    @Test
+    public void averagesConsecutiveScrolls() {
+        tracker.onScrollStateChanged(false);
+        // 新一轮滑动的第一次回调按一帧（16ms）估算
+        tracker.onScrolled(32, 1000);
+        assertEquals(2f, tracker.getVelocity(1000), 0.001f);
+        // 4px/ms 与上一次平均
+        tracker.onScrolled(64, 1016);
+        assertEquals(3f, tracker.getVelocity(1016), 0.001f);
+        assertEquals(1, tracker.getDirection());
+
+        tracker.onScrolled(-16, 1032);
+        assertEquals(-1, tracker.getDirection());
+    }
+
+    @Test
+    public void idleOrStaleReadsAsZero() {
+        tracker.onScrollStateChanged(false);
+        tracker.onScrolled(160, 1000);
+        assertTrue(tracker.getVelocity(1000) > 0f);
+        // 手指按住不动：没有滑动回调
+        assertEquals(0f, tracker.getVelocity(1000 + ScrollVelocityTracker.STALE_MS + 1), 0f);
+
+        tracker.onScrolled(160, 1016);
+        tracker.onScrollStateChanged(true);
+        assertTrue(tracker.isIdle());
+        assertEquals(0f, tracker.getVelocity(1016), 0f);
+    }
+
+    @Test
+    public void newGestureDoesNotInheritOldVelocity() {
+        tracker.onScrollStateChanged(false);
+        tracker.onScrolled(160, 1000);
+        tracker.onScrolled(160, 1016);
+        // 停顿后重新开始慢慢拖动：不和之前的甩动速度平均
+        tracker.onScrolled(16, 1500);
+        assertEquals(1f, tracker.getVelocity(1500), 0.001f);
+    }
+}
@@ -0,0 +1,177 @@
+package com.example.myapplication.video;
+
+import com.example.myapplication.scroll.ScrollVelocityTracker;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * 自动播放调度：速度门限、防抖、起播延迟直方图、浪费的起播
+ */
+public class AutoPlaySchedulerTest {
+
+    private static final long FRAME_MS = 16;
+    // 允许起播的最大速度（px/ms）
+    private static final float MAX_VELOCITY = 2f;
+
+    private final List<String> events = new ArrayList<>();
+    private final ScrollVelocityTracker tracker = new ScrollVelocityTracker();
+    private AutoPlayScheduler scheduler;
+    private long clock = 0;
+
+    @Before
+    public void setUp() {
+        scheduler = new AutoPlayScheduler(new AutoPlayScheduler.Listener() {
+            @Override
+            public boolean onStartPlayback(long key, int position) {
+                events.add("start " + key);
+                return true;
+            }
+
+            @Override
+            public void onStopPlayback(long key, int position) {
+                events.add("stop " + key);
+            }
+
+            @Override
+            public void onWarmUp(long key) {
+                events.add("warm " + key);
+            }
+        }, tracker, MAX_VELOCITY, 150);
+    }
+
+    @Test
+    public void startsAfterCandidateIsStableForDebounce() {
+        frames(100, 1, AutoPlayScheduler.NO_KEY);
+        assertTrue(events.isEmpty());
+        frames(100, 1, AutoPlayScheduler.NO_KEY);
+        assertEquals(1, events.size());
+        assertEquals("start 1", events.get(0));
+        assertEquals(1, scheduler.getPlayingKey());
+        // 继续保持不会重复起播
+        frames(500, 1, AutoPlayScheduler.NO_KEY);
+        assertEquals(1, scheduler.getStartCount());
+    }
+
+    @Test
+    public void returnsDebounceDeadlineUntilStarted() {
+        long appeared = clock;
+        assertEquals(appeared + 150, scheduler.onFrame(clock, 1, 1, AutoPlayScheduler.NO_KEY));
+        clock += 40;
+        assertEquals(appeared + 150, scheduler.onFrame(clock, 1, 1, AutoPlayScheduler.NO_KEY));
+
+        // 调用方在到期时间再检测一次：准时起播，不等静止时的低频检测
+        clock = appeared + 150;
+        assertEquals(AutoPlayScheduler.NO_DEADLINE, scheduler.onFrame(clock, 1, 1, AutoPlayScheduler.NO_KEY));
+        assertEquals(1, scheduler.getPlayingKey());
+        assertEquals(1, scheduler.getLatencyHistogram()[1]);
+
+        // 没有候选时没有到期时间
+        clock += 16;
+        assertEquals(AutoPlayScheduler.NO_DEADLINE,
+                scheduler.onFrame(clock, AutoPlayScheduler.NO_KEY, -1, AutoPlayScheduler.NO_KEY));
+    }
+
+    @Test
+    public void flingDefersStartUntilVelocityDrops() {
+        tracker.onScrollStateChanged(false);
+        // 快速甩动中，每帧 80px（5px/ms），候选一直是同一个视频
+        for (int i = 0; i < 40; i++) {
+            scroll(80);
+            frame(1, AutoPlayScheduler.NO_KEY);
+        }
+        assertFalse(events.contains("start 1"));
+
+        // 减速到 1px/ms 以下后立即起播（已经超过防抖时间）
+        for (int i = 0; i < 6; i++) {
+            scroll(8);
+            frame(1, AutoPlayScheduler.NO_KEY);
+        }
+        assertEquals(1, scheduler.getPlayingKey());
+        // 延迟 = 甩动的 640ms 加减速的几帧，落在 [400, 800) 的桶里
+        assertEquals(1, scheduler.getLatencyHistogram()[3]);
+    }
+
+    @Test
+    public void briefCandidatesDuringFlingNeverStart() {
+        tracker.onScrollStateChanged(false);
+        // 每个视频只当候选 3 帧
+        for (long key = 1; key <= 20; key++) {
+            for (int i = 0; i < 3; i++) {
+                scroll(80);
+                frame(key, AutoPlayScheduler.NO_KEY);
+            }
+        }
+        tracker.onScrollStateChanged(true);
+        assertEquals(0, scheduler.getStartCount());
+        assertEquals(0, scheduler.getWastedStarts());
+    }
+
+    @Test
+    public void slowDragStillStarts() {
+        tracker.onScrollStateChanged(false);
+        for (int i = 0; i < 20; i++) {
+            scroll(4);
+            frame(1, AutoPlayScheduler.NO_KEY);
+        }
+        assertEquals(1, scheduler.getPlayingKey());
+    }
+
+    @Test
+    public void shortPlaybackCountsAsWasted() {
+        frames(200, 1, AutoPlayScheduler.NO_KEY);
+        assertEquals(1, scheduler.getPlayingKey());
+        // 播放不到 1 秒候选就变了
+        frames(200, 2, AutoPlayScheduler.NO_KEY);
+        assertTrue(events.contains("stop 1"));
+        assertEquals(1, scheduler.getWastedStarts());
+        assertEquals(2, scheduler.getPlayingKey());
+
+        // 播放足够久再停止不算浪费
+        frames(1500, 2, AutoPlayScheduler.NO_KEY);
+        scheduler.stopAll(clock);
+        assertEquals(1, scheduler.getWastedStarts());
+        assertEquals(AutoPlayScheduler.NO_KEY, scheduler.getPlayingKey());
+    }
+
+    @Test
+    public void warmUpWaitsForSettledList() {
+        tracker.onScrollStateChanged(false);
+        scroll(80);
+        frame(AutoPlayScheduler.NO_KEY, 5);
+        assertFalse(events.contains("warm 5"));
+
+        tracker.onScrollStateChanged(true);
+        frame(AutoPlayScheduler.NO_KEY, 5);
+        assertTrue(events.contains("warm 5"));
+    }
+
+    @Test
+    public void statsListHistogramBuckets() {
+        frames(200, 1, AutoPlayScheduler.NO_KEY);
+        String stats = scheduler.getStats();
+        assertTrue(stats, stats.startsWith("starts=1 wasted=0"));
+        assertTrue(stats, stats.contains("<200ms:1"));
+    }
+
+    private void scroll(int dy) {
+        clock += FRAME_MS;
+        tracker.onScrolled(dy, clock);
+    }
+
+    private void frame(long key, long warmKey) {
+        scheduler.onFrame(clock, key, (int) key, warmKey);
+    }
+
+    private void frames(long durationMs, long key, long warmKey) {
+        for (long t = 0; t < durationMs; t += FRAME_MS) {
+            clock += FRAME_MS;
+            frame(key, warmKey);
+        }
+    }
+}
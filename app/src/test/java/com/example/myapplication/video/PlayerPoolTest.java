@@ -0,0 +1,195 @@
+package com.example.myapplication.video;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * 播放器池：一个播放 + 一个预热，预热过的内容热启动
+ */
+public class PlayerPoolTest {
+
+    private final ManualScheduler scheduler = new ManualScheduler();
+    private PlayerPool pool;
+
+    @Before
+    public void setUp() {
+        pool = new PlayerPool(scheduler);
+    }
+
+    @Test
+    public void warmedUpContentStartsWarm() {
+        FakeSurface first = attach(1);
+        FakeSurface second = attach(2);
+
+        assertTrue(pool.play(1));
+        assertEquals(1, pool.getColdStarts());
+        pool.warmUp(2);
+        assertTrue(pool.play(2));
+
+        assertEquals(1, pool.getWarmStarts());
+        assertFalse(pool.isPlaying(1));
+        assertTrue(pool.isPlaying(2));
+        assertEquals(1, first.stopped);
+        assertEquals(1, second.started);
+    }
+
+    @Test
+    public void onlyOnePlayerIsKeptWarm() {
+        attach(1);
+        attach(2);
+        attach(3);
+
+        pool.play(1);
+        pool.warmUp(2);
+        // 只有两个播放器：预热 3 占用预热的那个，2 不再保留
+        pool.warmUp(3);
+        pool.play(2);
+        assertEquals(0, pool.getWarmStarts());
+        assertEquals(2, pool.getColdStarts());
+
+        // 冷启动用的是不在预热的播放器，3 的预热保留下来
+        pool.play(3);
+        assertEquals(1, pool.getWarmStarts());
+        assertEquals(2, pool.getColdStarts());
+    }
+
+    @Test
+    public void stoppedPlayerIsReusedForItsContent() {
+        attach(1);
+        attach(2);
+        pool.play(1);
+        pool.play(2);
+        // 1 的播放器停止后还保留着准备好的内容
+        pool.play(1);
+        assertEquals(2, pool.getColdStarts());
+        assertEquals(1, pool.getWarmStarts());
+    }
+
+    @Test
+    public void detachStopsPlaybackAndDropsWarmUp() {
+        FakeSurface surface = attach(1);
+        FakeSurface next = attach(2);
+        pool.play(1);
+        pool.warmUp(2);
+
+        pool.detach(1, surface);
+        assertFalse(pool.isPlaying(1));
+        assertEquals(1, surface.stopped);
+        assertFalse(pool.play(1));
+
+        // 预热的内容被回收后重新绑定：需要重新准备
+        pool.detach(2, next);
+        pool.attach(2, next);
+        pool.play(2);
+        assertEquals(0, pool.getWarmStarts());
+        assertEquals(2, pool.getColdStarts());
+    }
+
+    @Test
+    public void detachOfStaleSurfaceIsIgnored() {
+        FakeSurface old = attach(1);
+        FakeSurface rebound = attach(1);
+        pool.play(1);
+        assertEquals(0, old.started);
+        assertEquals(1, rebound.started);
+
+        pool.detach(1, old);
+        assertTrue(pool.isPlaying(1));
+    }
+
+    @Test
+    public void playbackCompletesAfterCountdown() {
+        FakeSurface surface = attach(1);
+        pool.play(1);
+        scheduler.advance(5_000);
+        assertTrue(pool.isPlaying(1));
+        assertEquals(5_000, surface.remainingMs);
+
+        scheduler.advance(5_000);
+        assertFalse(pool.isPlaying(1));
+        assertEquals(1, surface.stopped);
+        assertTrue(scheduler.tasks.isEmpty());
+        assertTrue(pool.getStats().contains("completed=1"));
+    }
+
+    @Test
+    public void releaseCancelsCountdown() {
+        FakeSurface surface = attach(1);
+        pool.play(1);
+        pool.release();
+        assertTrue(scheduler.tasks.isEmpty());
+        assertEquals(1, surface.stopped);
+        assertFalse(pool.play(1));
+    }
+
+    private FakeSurface attach(long key) {
+        FakeSurface surface = new FakeSurface();
+        pool.attach(key, surface);
+        return surface;
+    }
+
+    private static final class FakeSurface implements PlayerPool.Surface {
+        int started;
+        int stopped;
+        long remainingMs = -1;
+
+        @Override
+        public void onPlaybackStarted() {
+            started++;
+        }
+
+        @Override
+        public void onPlaybackProgress(long remainingMs) {
+            this.remainingMs = remainingMs;
+        }
+
+        @Override
+        public void onPlaybackStopped() {
+            stopped++;
+        }
+    }
+
+    /**
+     * 手动推进的时钟
+     */
+    private static final class ManualScheduler implements PlayerPool.Scheduler {
+        final List<Runnable> tasks = new ArrayList<>();
+        final List<Long> dueTimes = new ArrayList<>();
+        long now = 0;
+
+        @Override
+        public void postDelayed(Runnable task, long delayMs) {
+            tasks.add(task);
+            dueTimes.add(now + delayMs);
+        }
+
+        @Override
+        public void remove(Runnable task) {
+            for (int i = tasks.size() - 1; i >= 0; i--) {
+                if (tasks.get(i) == task) {
+                    tasks.remove(i);
+                    dueTimes.remove(i);
+                }
+            }
+        }
+
+        void advance(long ms) {
+            long target = now + ms;
+            while (true) {
+                int next = -1;
+                for (int i = 0; i < tasks.size(); i++) {
+                    if (dueTimes.get(i) <= target && (next < 0 || dueTimes.get(i) < dueTimes.get(next))) next = i;
+                }
+                if (next < 0) break;
+                now = dueTimes.remove(next);
+                tasks.remove(next).run();
+            }
+            now = target;
+        }
+    }
+}
@@ -0,0 +1,388 @@
+package com.example.myapplication.video;
+
+import com.sun.net.httpserver.HttpServer;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.*;
+
+/**
+ * 视频片段预加载：用本地 HTTP 服务模拟视频服务器
+ */
+public class VideoPreloadEngineTest {
+
+    private static final int VIDEO_SIZE = 1_000_000;
+
+    private HttpServer server;
+    private String baseUrl;
+    private File cacheDir;
+    private final byte[] video = new byte[VIDEO_SIZE];
+    private final List<String> rangeHeaders = Collections.synchronizedList(new ArrayList<>());
+    private final AtomicInteger requestCount = new AtomicInteger();
+    private volatile boolean supportRange = true;
+    private volatile boolean failing = false;
+    private volatile long responseDelayMs = 0;
+
+    @Before
+    public void setUp() throws IOException {
+        for (int i = 0; i < video.length; i++) {
+            video[i] = (byte) (i * 31 + 7);
+        }
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/", exchange -> {
+            requestCount.incrementAndGet();
+            String range = exchange.getRequestHeaders().getFirst("Range");
+            rangeHeaders.add(String.valueOf(range));
+            if (responseDelayMs > 0) {
+                try {
+                    Thread.sleep(responseDelayMs);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            if (failing) {
+                exchange.sendResponseHeaders(500, -1);
+                exchange.close();
+                return;
+            }
+            int start = 0;
+            int end = VIDEO_SIZE - 1;
+            if (supportRange && range != null && range.startsWith("bytes=")) {
+                String[] parts = range.substring(6).split("-");
+                start = Integer.parseInt(parts[0]);
+                if (parts.length > 1 && !parts[1].isEmpty()) {
+                    end = Math.min(Integer.parseInt(parts[1]), VIDEO_SIZE - 1);
+                }
+                exchange.getResponseHeaders().set("Content-Range",
+                        "bytes " + start + "-" + end + "/" + VIDEO_SIZE);
+                exchange.sendResponseHeaders(206, end - start + 1);
+            } else {
+                exchange.sendResponseHeaders(200, VIDEO_SIZE);
+            }
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(video, start, end - start + 1);
+            } catch (IOException e) {
+                // 客户端读够后断开
+            }
+        });
+        server.start();
+        baseUrl = "http://127.0.0.1:" + server.getAddress().getPort() + "/video/";
+        cacheDir = Files.createTempDirectory("segments").toFile();
+    }
+
+    @After
+    public void tearDown() {
+        server.stop(0);
+        File[] files = cacheDir.listFiles();
+        if (files != null) {
+            for (File file : files) file.delete();
+        }
+        cacheDir.delete();
+    }
+
+    @Test
+    public void preloadFetchesFirstSecondsWithRange() throws Exception {
+        VideoSegmentCache cache = new VideoSegmentCache(cacheDir, 4 * 1024 * 1024);
+        VideoPreloadEngine engine = newEngine(cache, 3, 256 * 1024);
+
+        // 100 秒的视频，开头 3 秒 = 30000 字节
+        assertTrue(engine.preload(baseUrl + "a.mp4", 100));
+        awaitIdle(engine, baseUrl + "a.mp4");
+
+        File segment = cache.get(baseUrl + "a.mp4");
+        assertNotNull(segment);
+        assertPrefix(segment, 30_000);
+        assertEquals("bytes=0-" + (256 * 1024 - 1), rangeHeaders.get(0));
+        assertEquals(30_000, engine.getPreloadedBytes());
+        engine.shutdown();
+    }
+
+    @Test
+    public void serverWithoutRangeIsCutAtByteLimit() throws Exception {
+        supportRange = false;
+        VideoSegmentCache cache = new VideoSegmentCache(cacheDir, 4 * 1024 * 1024);
+        VideoPreloadEngine engine = newEngine(cache, 3, 64 * 1024);
+
+        // 时长未知：按字节上限下载
+        engine.preload(baseUrl + "b.mp4", 0);
+        awaitIdle(engine, baseUrl + "b.mp4");
+
+        assertPrefix(cache.get(baseUrl + "b.mp4"), 64 * 1024);
+        engine.shutdown();
+    }
+
+    @Test
+    public void duplicatePreloadsAreMerged() throws Exception {
+        VideoSegmentCache cache = new VideoSegmentCache(cacheDir, 4 * 1024 * 1024);
+        VideoPreloadEngine engine = newEngine(cache, 3, 64 * 1024);
+
+        String url = baseUrl + "c.mp4";
+        assertTrue(engine.preload(url, 60));
+        assertFalse(engine.preload(url, 60));
+        awaitIdle(engine, url);
+        // 已缓存，不再下载
+        assertFalse(engine.preload(url, 60));
+        assertEquals(1, requestCount.get());
+        engine.shutdown();
+    }
+
+    @Test
+    public void playbackOfPreloadedVideoIsCacheHit() throws Exception {
+        VideoSegmentCache cache = new VideoSegmentCache(cacheDir, 4 * 1024 * 1024);
+        VideoPreloadEngine engine = newEngine(cache, 3, 64 * 1024);
+        String url = baseUrl + "d.mp4";
+        engine.preload(url, 60);
+        awaitIdle(engine, url);
+
+        File segment = awaitPlayback(engine, url + "");
+        assertNotNull(segment);
+        assertEquals(1, engine.getPlaybackHits());
+        assertEquals(0, engine.getPlaybackMisses());
+        assertEquals(1, requestCount.get());
+
+        // 没有预加载的视频：现场下载，计为未命中
+        assertNotNull(awaitPlayback(engine, baseUrl + "e.mp4"));
+        assertEquals(1, engine.getPlaybackMisses());
+        engine.shutdown();
+    }
+
+    @Test
+    public void evictedUnplayedSegmentsCountAsWaste() throws Exception {
+        // 只放得下两个 64KB 片段
+        VideoSegmentCache cache = new VideoSegmentCache(cacheDir, 150 * 1024);
+        VideoPreloadEngine engine = newEngine(cache, 3, 64 * 1024);
+
+        String played = baseUrl + "played.mp4";
+        engine.preload(played, 0);
+        awaitIdle(engine, played);
+        awaitPlayback(engine, played);
+
+        for (String name : new String[]{"x.mp4", "y.mp4"}) {
+            engine.preload(baseUrl + name, 0);
+            awaitIdle(engine, baseUrl + name);
+        }
+        // 播放过的片段被淘汰不算浪费
+        assertEquals(1, cache.getEvictedCount());
+        assertEquals(0, cache.getWastedBytes());
+
+        engine.preload(baseUrl + "z.mp4", 0);
+        awaitIdle(engine, baseUrl + "z.mp4");
+        // x 没播放就被淘汰
+        assertEquals(2, cache.getEvictedCount());
+        assertEquals(64 * 1024, cache.getWastedBytes());
+        assertFalse(cache.contains(baseUrl + "x.mp4"));
+        assertEquals(2 * 64 * 1024, cache.getUnplayedBytes());
+        engine.shutdown();
+    }
+
+    @Test
+    public void cacheSurvivesReopen() throws Exception {
+        VideoSegmentCache cache = new VideoSegmentCache(cacheDir, 4 * 1024 * 1024);
+        VideoPreloadEngine engine = newEngine(cache, 3, 64 * 1024);
+        engine.preload(baseUrl + "f.mp4", 0);
+        awaitIdle(engine, baseUrl + "f.mp4");
+        engine.shutdown();
+
+        // 构造时不读目录，load() 之后才能查到上次的片段
+        VideoSegmentCache reopened = new VideoSegmentCache(cacheDir, 4 * 1024 * 1024);
+        assertFalse(reopened.contains(baseUrl + "f.mp4"));
+        reopened.load();
+        assertTrue(reopened.contains(baseUrl + "f.mp4"));
+        assertEquals(64 * 1024, reopened.getSize());
+    }
+
+    @Test
+    public void requestsBeforeIndexLoadReuseExistingSegments() throws Exception {
+        String url = baseUrl + "k.mp4";
+        VideoSegmentCache cache = new VideoSegmentCache(cacheDir, 4 * 1024 * 1024);
+        VideoPreloadEngine engine = newEngine(cache, 3, 64 * 1024);
+        engine.preload(url, 0);
+        awaitIdle(engine, url);
+        engine.shutdown();
+
+        // 新的引擎在下载线程上加载索引；播放请求等索引加载完，命中上次留下的片段
+        VideoSegmentCache reopened = new VideoSegmentCache(cacheDir, 4 * 1024 * 1024);
+        VideoPreloadEngine reopenedEngine = newEngine(reopened, 3, 64 * 1024);
+        File segment = awaitPlayback(reopenedEngine, url);
+        assertNotNull(segment);
+        assertTrue(reopened.isLoaded());
+        assertEquals(1, requestCount.get());
+        assertFalse(reopenedEngine.preload(url, 0));
+        reopenedEngine.shutdown();
+    }
+
+    @Test
+    public void failedPreloadBacksOffBeforeRetry() throws Exception {
+        failing = true;
+        VideoSegmentCache cache = new VideoSegmentCache(cacheDir, 4 * 1024 * 1024);
+        VideoPreloadEngine engine = new VideoPreloadEngine(cache,
+                new VideoPreloadEngine.Config(3, 64 * 1024, 200, 1000), Runnable::run);
+        String url = baseUrl + "g.mp4";
+
+        assertTrue(engine.preload(url, 0));
+        awaitIdle(engine, url);
+        assertEquals(VideoPreloadEngine.STATE_FAILED, engine.getState(url));
+        // 退避期内不重试
+        assertFalse(engine.preload(url, 0));
+        assertEquals(1, requestCount.get());
+
+        failing = false;
+        Thread.sleep(250);
+        assertTrue(engine.preload(url, 0));
+        awaitIdle(engine, url);
+        assertEquals(VideoPreloadEngine.STATE_READY, engine.getState(url));
+        assertEquals(1, engine.getRetryCount());
+        assertNotNull(cache.get(url));
+        engine.shutdown();
+    }
+
+    @Test
+    public void playbackRetriesFailedDownloadImmediately() throws Exception {
+        failing = true;
+        VideoSegmentCache cache = new VideoSegmentCache(cacheDir, 4 * 1024 * 1024);
+        VideoPreloadEngine engine = new VideoPreloadEngine(cache,
+                new VideoPreloadEngine.Config(3, 64 * 1024, 60_000, 60_000), Runnable::run);
+        String url = baseUrl + "h.mp4";
+        engine.preload(url, 0);
+        awaitIdle(engine, url);
+        assertEquals(VideoPreloadEngine.STATE_FAILED, engine.getState(url));
+
+        failing = false;
+        assertNotNull(awaitPlayback(engine, url));
+        assertEquals(1, engine.getRetryCount());
+        assertEquals(2, requestCount.get());
+        engine.shutdown();
+    }
+
+    @Test
+    public void repeatedPlaybackCallbackIsDeliveredOnce() throws Exception {
+        responseDelayMs = 200;
+        VideoSegmentCache cache = new VideoSegmentCache(cacheDir, 4 * 1024 * 1024);
+        VideoPreloadEngine engine = newEngine(cache, 3, 64 * 1024);
+        String url = baseUrl + "i.mp4";
+        AtomicInteger stale = new AtomicInteger();
+        AtomicInteger delivered = new AtomicInteger();
+        CountDownLatch latch = new CountDownLatch(1);
+
+        // 每次开始播放都传新的回调（界面上的写法）：只回调最后一个，且只回调一次
+        engine.preload(url, 0);
+        engine.startPlayback(url, 0, (readyUrl, segment) -> stale.incrementAndGet());
+        engine.startPlayback(url, 0, (readyUrl, segment) -> {
+            delivered.incrementAndGet();
+            latch.countDown();
+        });
+        assertTrue(latch.await(5, TimeUnit.SECONDS));
+        awaitIdle(engine, url);
+
+        assertEquals(0, stale.get());
+        assertEquals(1, delivered.get());
+        assertEquals(1, engine.getPlaybackMisses());
+        assertEquals(1, requestCount.get());
+        engine.shutdown();
+    }
+
+    @Test
+    public void nonHttpUrlFailsWithNullSegment() throws Exception {
+        VideoSegmentCache cache = new VideoSegmentCache(cacheDir, 4 * 1024 * 1024);
+        VideoPreloadEngine engine = newEngine(cache, 3, 64 * 1024);
+        String url = "ftp://127.0.0.1/video/l.mp4";
+
+        // 服务端下发的非 HTTP 地址：不下载，按失败处理
+        assertFalse(engine.preload(url, 0));
+        assertEquals(VideoPreloadEngine.STATE_FAILED, engine.getState(url));
+        assertNull(awaitPlayback(engine, url));
+        assertNull(awaitPlayback(engine, "file:///sdcard/m.mp4"));
+        assertEquals(0, requestCount.get());
+        engine.shutdown();
+    }
+
+    @Test
+    public void cancelledPreloadLeavesNoState() throws Exception {
+        responseDelayMs = 200;
+        VideoSegmentCache cache = new VideoSegmentCache(cacheDir, 4 * 1024 * 1024);
+        VideoPreloadEngine engine = newEngine(cache, 3, 64 * 1024);
+        String url = baseUrl + "j.mp4";
+
+        engine.preload(url, 0);
+        engine.cancelPreloads();
+        assertEquals(VideoPreloadEngine.STATE_NONE, engine.getState(url));
+        assertFalse(cache.contains(url));
+        // 取消后可以重新预加载
+        responseDelayMs = 0;
+        assertTrue(engine.preload(url, 0));
+        awaitIdle(engine, url);
+        assertTrue(cache.contains(url));
+        engine.shutdown();
+    }
+
+    @Test
+    public void backoffDoublesUpToLimit() {
+        VideoPreloadEngine.Config config = new VideoPreloadEngine.Config(3, 1024, 100, 1000);
+        assertEquals(100, VideoPreloadEngine.backoffMs(1, config));
+        assertEquals(200, VideoPreloadEngine.backoffMs(2, config));
+        assertEquals(800, VideoPreloadEngine.backoffMs(4, config));
+        assertEquals(1000, VideoPreloadEngine.backoffMs(5, config));
+        assertEquals(1000, VideoPreloadEngine.backoffMs(40, config));
+    }
+
+    @Test
+    public void prefixBytesFollowsDurationAndLimit() {
+        VideoPreloadEngine.Config config = new VideoPreloadEngine.Config(3, 100_000);
+        assertEquals(30_000, VideoPreloadEngine.prefixBytes(1_000_000, 100, config));
+        assertEquals(100_000, VideoPreloadEngine.prefixBytes(10_000_000, 100, config));
+        assertEquals(100_000, VideoPreloadEngine.prefixBytes(-1, 100, config));
+        assertEquals(100_000, VideoPreloadEngine.prefixBytes(1_000_000, 0, config));
+        // 视频比预加载时长还短：整个下载
+        assertEquals(50_000, VideoPreloadEngine.prefixBytes(50_000, 2, config));
+
+        assertEquals(4096, VideoPreloadEngine.parseTotal("bytes 0-1023/4096"));
+        assertEquals(-1, VideoPreloadEngine.parseTotal("bytes 0-1023/*"));
+        assertEquals(-1, VideoPreloadEngine.parseTotal(null));
+    }
+
+    private VideoPreloadEngine newEngine(VideoSegmentCache cache, int seconds, int maxBytes) {
+        return new VideoPreloadEngine(cache, new VideoPreloadEngine.Config(seconds, maxBytes), Runnable::run);
+    }
+
+    private static void awaitIdle(VideoPreloadEngine engine, String url) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (engine.isLoading(url)) {
+            assertTrue("timeout waiting for " + url, System.currentTimeMillis() < deadline);
+            Thread.sleep(5);
+        }
+    }
+
+    private static File awaitPlayback(VideoPreloadEngine engine, String url) throws InterruptedException {
+        CountDownLatch latch = new CountDownLatch(1);
+        AtomicReference<File> result = new AtomicReference<>();
+        engine.startPlayback(url, 0, (readyUrl, segment) -> {
+            result.set(segment);
+            latch.countDown();
+        });
+        assertTrue(latch.await(5, TimeUnit.SECONDS));
+        return result.get();
+    }
+
+    private void assertPrefix(File segment, int expectedLength) throws IOException {
+        byte[] data = Files.readAllBytes(segment.toPath());
+        assertEquals(expectedLength, data.length);
+        for (int i = 0; i < data.length; i++) {
+            if (data[i] != video[i]) fail("byte " + i + " differs");
+        }
+    }
+}